@@ -0,0 +1,101 @@
+package com.awesome.pizza.benchmarks;
+
+import com.awesome.pizza.brick.entity.Ingredient;
+import com.awesome.pizza.brick.entity.Order;
+import com.awesome.pizza.brick.entity.OrderPizza;
+import com.awesome.pizza.brick.entity.Pizza;
+import com.awesome.pizza.brick.entity.User;
+import com.awesome.pizza.commons.model.OrderStatus;
+import com.awesome.pizza.commons.money.Money;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory menu and orders shaped like the data of the application: a menu of 10 pizzas with 3 to
+ * 6 ingredients, orders of {@value #PIZZAS_PER_ORDER} pizzas picked up over {@value #DAYS} days.
+ */
+public final class BenchmarkData {
+  public static final int PIZZAS_PER_ORDER = 3;
+  public static final int DAYS = 100;
+  public static final LocalDate FIRST_DAY = LocalDate.now().plusDays(1);
+
+  private static final OrderStatus[] STATUSES = {
+    OrderStatus.QUEUED, OrderStatus.READY, OrderStatus.DELIVERED, OrderStatus.DELIVERED
+  };
+
+  private BenchmarkData() {}
+
+  /**
+   * Builds the menu, with ids.
+   *
+   * @return list of pizzas
+   */
+  public static List<Pizza> menu() {
+    return IntStream.range(0, 10)
+        .mapToObj(
+            p ->
+                Pizza.builder()
+                    .id((long) p + 1)
+                    .name("Pizza " + p)
+                    .description("Pizza " + p + " con pomodoro, mozzarella e altri ingredienti.")
+                    .price(BigDecimal.valueOf(750 + p * 50L, 2))
+                    .ingredients(
+                        IntStream.range(0, 3 + p % 4)
+                            .mapToObj(
+                                i ->
+                                    Ingredient.builder()
+                                        .id((long) p * 10 + i)
+                                        .name("Ingrediente " + p + "-" + i)
+                                        .build())
+                            .toList())
+                    .build())
+            .toList();
+  }
+
+  /**
+   * Builds the given number of orders, with ids, lines and user. Order n is picked up on day (n %
+   * {@value #DAYS}), from 12:00 + (n % 480) minutes, for 30 minutes.
+   *
+   * @param count number of orders
+   * @param menu pizzas to order
+   * @return list of orders
+   */
+  public static List<Order> orders(int count, List<Pizza> menu) {
+    List<Order> orders = new ArrayList<>(count);
+    for (int n = 0; n < count; n++) {
+      LocalDateTime pickupFrom = FIRST_DAY.plusDays(n % DAYS).atTime(12, 0).plusMinutes(n % 480);
+      List<OrderPizza> lines = new ArrayList<>(PIZZAS_PER_ORDER);
+      for (int l = 0; l < PIZZAS_PER_ORDER; l++) {
+        Pizza pizza = menu.get((n + l) % menu.size());
+        lines.add(
+            OrderPizza.builder()
+                .idOrderPizza((long) n * PIZZAS_PER_ORDER + l)
+                .pizza(pizza)
+                .pizzaName(pizza.getName())
+                .unitPrice(Money.of(pizza.getPrice()))
+                .build());
+      }
+      orders.add(
+          Order.builder()
+              .id((long) n)
+              .code("ORD-" + n)
+              .status(STATUSES[n % STATUSES.length])
+              .orderedPizzas(lines)
+              .createdAt(pickupFrom.minusHours(2).plusSeconds(n % 60))
+              .user(
+                  User.builder()
+                      .id((long) n)
+                      .name("Customer " + n)
+                      .pickupFrom(pickupFrom)
+                      .pickupTo(pickupFrom.plusMinutes(30))
+                      .build())
+              .totalPrice(BigDecimal.valueOf(2550, 2))
+              .build());
+    }
+    return orders;
+  }
+}
@@ -0,0 +1,95 @@
+package com.awesome.pizza.benchmarks;
+
+import com.awesome.pizza.brick.BrickApplication;
+import com.awesome.pizza.brick.model.RequestUserOrderModel;
+import com.awesome.pizza.brick.service.OrderService;
+import com.awesome.pizza.commons.model.OrderPizzaModel;
+import com.awesome.pizza.commons.model.UserModel;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Throughput of {@link OrderService} calls with the logging of the default profile (SQL echo, ORM
+ * and JDBC DEBUG logs, every call logged) and of the {@code prod} profile (structured, asynchronous
+ * and sampled logging). The console output is discarded after being formatted and written, so
+ * that the terminal does not set the pace.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+// Long warmup: the whole application, logging included, is compiled by the JIT
+@Warmup(iterations = 12, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class LoggingProfileBenchmark {
+  @Param({"default", "prod"})
+  private String profile;
+
+  private PrintStream console;
+  private ConfigurableApplicationContext context;
+  private OrderService orderService;
+  private TransactionTemplate readOnly;
+  private RequestUserOrderModel newOrder;
+  private String existingCode;
+
+  @Setup
+  public void setUp() {
+    console = System.out;
+    System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    context =
+        new SpringApplicationBuilder(BrickApplication.class)
+            .web(WebApplicationType.NONE)
+            .run(
+                "--spring.profiles.active=" + profile,
+                "--spring.datasource.url=jdbc:h2:mem:logging;DB_CLOSE_DELAY=-1",
+                "--awesome-pizza.order-code.node-id=0",
+                "--spring.main.banner-mode=off");
+    orderService = context.getBean(OrderService.class);
+    readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    readOnly.setReadOnly(true);
+    List<Long> pizzaIds =
+        context.getBean(JdbcTemplate.class).queryForList("SELECT id FROM pizzas", Long.class);
+    LocalDateTime pickup = BenchmarkData.FIRST_DAY.atTime(19, 0);
+    newOrder =
+        RequestUserOrderModel.builder()
+            .user(
+                UserModel.builder()
+                    .name("Customer")
+                    .pickupFrom(pickup)
+                    .pickupTo(pickup.plusMinutes(30))
+                    .build())
+            .pizzas(
+                pizzaIds.stream()
+                    .limit(BenchmarkData.PIZZAS_PER_ORDER)
+                    .map(id -> OrderPizzaModel.builder().pizzaId(id).build())
+                    .toList())
+            .build();
+    existingCode = orderService.createOrder(newOrder).getCode();
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+    System.setOut(console);
+  }
+
+  @Benchmark
+  public Object createOrder() {
+    return orderService.createOrder(newOrder);
+  }
+
+  @Benchmark
+  public Object getOrderByCode() {
+    return readOnly.execute(status -> orderService.getOrderByCode(existingCode));
+  }
+}
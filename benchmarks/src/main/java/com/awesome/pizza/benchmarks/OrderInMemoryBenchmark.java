@@ -0,0 +1,87 @@
+package com.awesome.pizza.benchmarks;
+
+import com.awesome.pizza.brick.entity.Order;
+import com.awesome.pizza.brick.service.KitchenQueue;
+import com.awesome.pizza.brick.service.KitchenTicket;
+import com.awesome.pizza.brick.service.OrderPricing;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Order computations of {@link OrderPricing} and {@link KitchenQueue} in isolation: the total price
+ * of every order of the dataset, in cents and with the former stream of {@link BigDecimal} prices
+ * for comparison, and the walk of the kitchen queue in baking order (the in-memory sort left since
+ * the order listing is sorted by the database).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class OrderInMemoryBenchmark {
+  @Param({"1000", "100000", "1000000"})
+  private int orders;
+
+  private List<Order> dataset;
+  private List<KitchenTicket> tickets;
+
+  @Setup
+  public void setUp() {
+    dataset = BenchmarkData.orders(orders, BenchmarkData.menu());
+    tickets = new ArrayList<>(orders);
+    for (Order order : dataset)
+      tickets.add(
+          new KitchenTicket(
+              order.getCode(),
+              order.getId(),
+              order.getUser().getPickupFrom(),
+              order.getCreatedAt()));
+    Collections.shuffle(tickets, new Random(42));
+  }
+
+  @Benchmark
+  public void totalPrice(Blackhole blackhole) {
+    for (Order order : dataset)
+      blackhole.consume(OrderPricing.totalPrice(order.getOrderedPizzas()));
+  }
+
+  /** Baseline: the total price as computed before {@code Money}, reducing a BigDecimal stream. */
+  @Benchmark
+  public void totalPriceWithBigDecimalStream(Blackhole blackhole) {
+    for (Order order : dataset)
+      blackhole.consume(
+          order.getOrderedPizzas().stream()
+              .filter(line -> Objects.nonNull(line.getPizza().getPrice()))
+              .map(
+                  line ->
+                      line.getPizza()
+                          .getPrice()
+                          .multiply(BigDecimal.valueOf(line.getQuantity())))
+              .reduce(BigDecimal::add)
+              .orElseThrow());
+  }
+
+  /**
+   * Queues the tickets in random order and walks them in baking order as the kitchen claim does
+   * with stale tickets: peek at the head, then remove its ticket.
+   */
+  @Benchmark
+  public void drainKitchenTickets(Blackhole blackhole) {
+    KitchenQueue queue = new KitchenQueue(null);
+    tickets.forEach(queue::offer);
+    Optional<KitchenTicket> head;
+    while ((head = queue.peek()).isPresent()) {
+      blackhole.consume(head.get());
+      queue.remove(head.get().code());
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package com.awesome.pizza.benchmarks;
+
+import com.awesome.pizza.brick.entity.Order;
+import com.awesome.pizza.brick.entity.OrderPizza;
+import com.awesome.pizza.brick.mapper.IngredientMapperImpl;
+import com.awesome.pizza.brick.mapper.OrderMapper;
+import com.awesome.pizza.brick.mapper.OrderMapperImpl;
+import com.awesome.pizza.brick.mapper.PizzaMapper;
+import com.awesome.pizza.brick.mapper.PizzaMapperImpl;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+/**
+ * MapStruct conversions of in-memory entities, without database: every order of the dataset to
+ * {@code OrderModel}, and the pizza of every order line to {@code PizzaModel}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class OrderMapperBenchmark {
+  @Param({"1000", "100000", "1000000"})
+  private int orders;
+
+  private AnnotationConfigApplicationContext context;
+  private OrderMapper orderMapper;
+  private PizzaMapper pizzaMapper;
+  private List<Order> dataset;
+
+  @Setup
+  public void setUp() {
+    // The generated mappers are Spring components wired to each other
+    context =
+        new AnnotationConfigApplicationContext(
+            OrderMapperImpl.class, PizzaMapperImpl.class, IngredientMapperImpl.class);
+    orderMapper = context.getBean(OrderMapper.class);
+    pizzaMapper = context.getBean(PizzaMapper.class);
+    dataset = BenchmarkData.orders(orders, BenchmarkData.menu());
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public void orderToModel(Blackhole blackhole) {
+    for (Order order : dataset) blackhole.consume(orderMapper.toModel(order));
+  }
+
+  @Benchmark
+  public void pizzaToModel(Blackhole blackhole) {
+    for (Order order : dataset)
+      for (OrderPizza line : order.getOrderedPizzas())
+        blackhole.consume(pizzaMapper.toModel(line.getPizza()));
+  }
+}
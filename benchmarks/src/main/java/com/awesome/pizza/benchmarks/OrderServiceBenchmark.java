@@ -0,0 +1,163 @@
+package com.awesome.pizza.benchmarks;
+
+import com.awesome.pizza.brick.BrickApplication;
+import com.awesome.pizza.brick.entity.PooledSequenceGenerator;
+import com.awesome.pizza.brick.model.RequestUserOrderModel;
+import com.awesome.pizza.brick.service.KitchenQueue;
+import com.awesome.pizza.brick.service.OrderService;
+import com.awesome.pizza.commons.model.OrderPizzaModel;
+import com.awesome.pizza.commons.model.UserModel;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * {@link OrderService} calls end to end against the embedded H2 database, seeded with the given
+ * number of orders of {@value BenchmarkData#PIZZAS_PER_ORDER} pizzas spread over {@value
+ * BenchmarkData#DAYS} days (same layout as {@link BenchmarkData#orders}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class OrderServiceBenchmark {
+  private static final int CHUNK = 100_000;
+
+  @Param({"1000", "100000", "1000000"})
+  private int orders;
+
+  private ConfigurableApplicationContext context;
+  private OrderService orderService;
+  private TransactionTemplate readOnly;
+  private RequestUserOrderModel newOrder;
+  private LocalDateTime busyDay;
+  private String existingCode;
+
+  @Setup
+  public void setUp() {
+    context =
+        new SpringApplicationBuilder(BrickApplication.class)
+            .web(WebApplicationType.NONE)
+            .run(
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.show-sql=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--logging.level.org.springframework.orm=WARN",
+                "--logging.level.org.springframework.jdbc=WARN");
+    JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+    seed(jdbcTemplate);
+    context.getBean(KitchenQueue.class).rebuild();
+
+    orderService = context.getBean(OrderService.class);
+    // The web layer keeps an EntityManager open for the whole request, the lazy order lines are
+    // loaded while mapping the response
+    readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    readOnly.setReadOnly(true);
+    List<Long> pizzaIds = jdbcTemplate.queryForList("SELECT id FROM pizzas", Long.class);
+    LocalDateTime pickup = BenchmarkData.FIRST_DAY.atTime(19, 0);
+    newOrder =
+        RequestUserOrderModel.builder()
+            .user(
+                UserModel.builder()
+                    .name("Customer")
+                    .pickupFrom(pickup)
+                    .pickupTo(pickup.plusMinutes(30))
+                    .build())
+            .pizzas(
+                pizzaIds.stream()
+                    .limit(BenchmarkData.PIZZAS_PER_ORDER)
+                    .map(id -> OrderPizzaModel.builder().pizzaId(id).build())
+                    .toList())
+            .build();
+    busyDay = BenchmarkData.FIRST_DAY.plusDays(BenchmarkData.DAYS / 2).atStartOfDay();
+    existingCode = "SEED-" + (orders / 2);
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public Object createOrder() {
+    return orderService.createOrder(newOrder);
+  }
+
+  /** First page of the QUEUED orders of a day, sorted by the database. */
+  @Benchmark
+  public Object findQueuedOrdersOfDay() {
+    return readOnly.execute(
+        status ->
+            orderService.findAllOrdersByStatusAndPickupDate(
+                List.of("QUEUED"), busyDay, 100, null));
+  }
+
+  @Benchmark
+  public Object getOrderByCode() {
+    return readOnly.execute(status -> orderService.getOrderByCode(existingCode));
+  }
+
+  private void seed(JdbcTemplate jdbcTemplate) {
+    LocalDateTime firstDay = BenchmarkData.FIRST_DAY.atStartOfDay();
+    jdbcTemplate.update(
+        "INSERT INTO users (id, name, pickup_from, pickup_to) "
+            + "SELECT X, 'Customer ' || X, "
+            + "DATEADD(MINUTE, 720 + MOD(X, 480), DATEADD(DAY, MOD(X, ?), CAST(? AS TIMESTAMP))), "
+            + "DATEADD(MINUTE, 750 + MOD(X, 480), DATEADD(DAY, MOD(X, ?), CAST(? AS TIMESTAMP))) "
+            + "FROM SYSTEM_RANGE(1, ?)",
+        BenchmarkData.DAYS,
+        firstDay,
+        BenchmarkData.DAYS,
+        firstDay,
+        orders);
+    // Chunked, because one huge insert into an indexed table is much slower in H2
+    for (int from = 1; from <= orders; from += CHUNK) {
+      jdbcTemplate.update(
+          "INSERT INTO orders (id, code, status, user_id, created_at, total_price, "
+              + "pickup_date, pickup_from, pickup_to) "
+              + "SELECT u.id, 'SEED-' || u.id, CASE MOD(u.id, 4) "
+              + "WHEN 0 THEN 'QUEUED' WHEN 1 THEN 'READY' ELSE 'DELIVERED' END, "
+              + "u.id, DATEADD(HOUR, -2, u.pickup_from), 25.50, CAST(u.pickup_from AS DATE), "
+              + "u.pickup_from, u.pickup_to "
+              + "FROM users u WHERE u.id BETWEEN ? AND ?",
+          from,
+          from + CHUNK - 1);
+      jdbcTemplate.update(
+          "INSERT INTO order_pizza "
+              + "(id_order_pizza, order_id, pizza_id, pizza_name, unit_price, quantity) "
+              + "SELECT (o.id - 1) * ? + l.X + 1, o.id, p.id, p.name, p.price, 1 FROM orders o "
+              + "CROSS JOIN SYSTEM_RANGE(0, ?) l "
+              + "JOIN (SELECT id, name, price, ROW_NUMBER() OVER (ORDER BY id) - 1 AS n "
+              + "FROM pizzas) p "
+              + "ON p.n = MOD(o.id + l.X, (SELECT COUNT(*) FROM pizzas)) "
+              + "WHERE o.id BETWEEN ? AND ?",
+          BenchmarkData.PIZZAS_PER_ORDER,
+          BenchmarkData.PIZZAS_PER_ORDER - 1,
+          from,
+          from + CHUNK - 1);
+    }
+    // The seeded ids bypassed the sequences, which would hand them out again
+    restartAfter(jdbcTemplate, "users_seq", orders);
+    restartAfter(jdbcTemplate, "orders_seq", orders);
+    restartAfter(jdbcTemplate, "order_pizza_seq", (long) orders * BenchmarkData.PIZZAS_PER_ORDER);
+  }
+
+  /**
+   * Restarts a sequence a whole allocation block past the last seeded id, so that the next block is
+   * free whether the optimizer reads the sequence value as its low (pooled-lo) or high (pooled) end.
+   */
+  private static void restartAfter(JdbcTemplate jdbcTemplate, String sequence, long lastId) {
+    long restart = lastId + PooledSequenceGenerator.DEFAULT_ALLOCATION_SIZE + 1;
+    jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + restart);
+  }
+}
@@ -0,0 +1,79 @@
+package com.awesome.pizza.brick.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Marker;
+
+/**
+ * Logback filter emitting only one out of every N events below WARN of the configured loggers (and
+ * their children), e.g. the request logs of the hot paths. WARN and ERROR events are always
+ * emitted.
+ *
+ * <p>Turbo filters run before the logging event is created, so the arguments of a dropped event
+ * are never formatted: a model passed as a {@code {}} argument is not turned into a string unless
+ * its event is emitted.
+ *
+ * <p>Configured in {@code logback-spring.xml} with one {@code <sample>logger=N</sample>} element
+ * per logger.
+ */
+public class LogSamplingFilter extends TurboFilter {
+  private final Map<String, Long> rates = new HashMap<>();
+
+  /** Sampler of every logger seen so far, resolved once from the configured rates. */
+  private final Map<String, Sampler> samplers = new ConcurrentHashMap<>();
+
+  /**
+   * Adds a sampled logger.
+   *
+   * @param sample logger name and rate, as {@code logger=N} to emit one event out of every N
+   */
+  public void addSample(String sample) {
+    String[] parts = sample.split("=", 2);
+    try {
+      long rate = Long.parseLong(parts[1].trim());
+      if (rate < 1) throw new IllegalArgumentException("rate below 1");
+      rates.put(parts[0].trim(), rate);
+    } catch (RuntimeException e) {
+      addError("Invalid sample '" + sample + "': expected logger=N with N >= 1", e);
+    }
+  }
+
+  @Override
+  public FilterReply decide(
+      Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+    // No format: an isEnabled check, which must not consume a sample
+    if (!isStarted()
+        || format == null
+        || level.isGreaterOrEqual(Level.WARN)
+        || !level.isGreaterOrEqual(logger.getEffectiveLevel())) return FilterReply.NEUTRAL;
+    Sampler sampler = samplers.computeIfAbsent(logger.getName(), this::samplerOf);
+    return sampler.emit() ? FilterReply.NEUTRAL : FilterReply.DENY;
+  }
+
+  @Override
+  public void start() {
+    samplers.clear();
+    super.start();
+  }
+
+  /** Sampler with the rate of the closest configured ancestor of the logger, or 1 if none. */
+  private Sampler samplerOf(String loggerName) {
+    for (String name = loggerName; ; name = name.substring(0, name.lastIndexOf('.'))) {
+      Long rate = rates.get(name);
+      if (rate != null) return new Sampler(rate, new AtomicLong());
+      if (name.indexOf('.') < 0) return new Sampler(1, new AtomicLong());
+    }
+  }
+
+  private record Sampler(long rate, AtomicLong events) {
+    boolean emit() {
+      return rate == 1 || events.getAndIncrement() % rate == 0;
+    }
+  }
+}
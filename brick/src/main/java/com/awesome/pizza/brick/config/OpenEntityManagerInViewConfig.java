@@ -0,0 +1,36 @@
+package com.awesome.pizza.brick.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Open EntityManager in View for every request except the order event streams.
+ *
+ * <p>Replaces the interceptor registered by Spring Boot (disabled with {@code
+ * spring.jpa.open-in-view: false}): the EntityManager of a request holds its JDBC connection until
+ * the request completes, and an SSE request stays open for minutes, so a few thousand subscribers
+ * would exhaust the connection pool.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class OpenEntityManagerInViewConfig implements WebMvcConfigurer {
+  static final String[] EVENT_STREAM_PATHS = {"/api/orders/events", "/api/orders/*/events"};
+
+  // Not available in web slice tests without JPA
+  private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    entityManagerFactory.ifAvailable(
+        emf -> {
+          OpenEntityManagerInViewInterceptor interceptor = new OpenEntityManagerInViewInterceptor();
+          interceptor.setEntityManagerFactory(emf);
+          registry.addWebRequestInterceptor(interceptor).excludePathPatterns(EVENT_STREAM_PATHS);
+        });
+  }
+}
@@ -0,0 +1,50 @@
+package com.awesome.pizza.brick.controller;
+
+import com.awesome.pizza.brick.service.OrderService;
+import com.awesome.pizza.commons.model.OrderModel;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/** REST controller for the kitchen of Awesome Pizza. */
+@Slf4j
+@RestController
+@RequestMapping("/api/kitchen")
+@RequiredArgsConstructor
+public class KitchenController {
+  private final OrderService orderService;
+
+  /**
+   * Claims the next order to bake and moves it to IN_PROGRESS. This endpoint is intended for the
+   * pizza chef only.
+   *
+   * @return the claimed order
+   */
+  @Operation(
+      summary = "Claim the next order (pizza chef only)",
+      description =
+          "Atomically takes the QUEUED order with the earliest pickup window (then the oldest one) and moves it to IN_PROGRESS.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Order claimed and moved to IN_PROGRESS",
+            content = @Content(schema = @Schema(implementation = OrderModel.class))),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Another order is already IN_PROGRESS",
+            content = @Content),
+        @ApiResponse(responseCode = "404", description = "No QUEUED order", content = @Content)
+      })
+  @PostMapping("/next")
+  public ResponseEntity<OrderModel> claimNextOrder() {
+    log.info("<<< POST /api/kitchen/next - claimNextOrder called >>>");
+    return OrderVersions.ok(orderService.claimNextOrder());
+  }
+}
@@ -1,10 +1,17 @@
 package com.awesome.pizza.brick.controller;
 
+import com.awesome.pizza.brick.model.OrderBatchItemResult;
+import com.awesome.pizza.brick.model.OrderPage;
+import com.awesome.pizza.brick.model.OrderStatusEvent;
+import com.awesome.pizza.brick.model.OrderSummaryPage;
 import com.awesome.pizza.brick.model.RequestUserOrderModel;
+import com.awesome.pizza.brick.service.OrderIdempotency;
 import com.awesome.pizza.brick.service.OrderService;
 import com.awesome.pizza.commons.model.OrderModel;
+import com.awesome.pizza.commons.model.OrderSummaryModel;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -12,11 +19,15 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 /** REST controller for managing orders in Awesome Pizza. */
 @Slf4j
@@ -24,47 +35,110 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api/orders")
 @RequiredArgsConstructor
 public class OrderController {
+  static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+  static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
   private final OrderService orderService;
+  private final OrderIdempotency orderIdempotency;
 
   /**
-   * Creates a new order and returns the summary of the created order.
+   * Creates a new order and returns the summary of the created order, with its version as ETag.
+   * With an idempotency key, a retried request returns the order created the first time instead
+   * of a new one, with the version it was created at.
    *
    * @param model model with user data and requested pizzas
+   * @param idempotencyKey key identifying the creation across retries (optional)
    * @return summary of the created order
    */
   @Operation(
       summary = "Create a new order",
-      description = "Creates an order and returns the summary.")
+      description =
+          "Creates an order and returns the summary. Requests repeated with the same Idempotency-Key return the order already created.")
   @ApiResponses(
       value = {
         @ApiResponse(
             responseCode = "200",
             description = "Order successfully created",
             content = @Content(schema = @Schema(implementation = OrderModel.class))),
-        @ApiResponse(responseCode = "400", description = "Invalid request", content = @Content)
+        @ApiResponse(responseCode = "400", description = "Invalid request", content = @Content),
+        @ApiResponse(
+            responseCode = "422",
+            description = "Idempotency-Key already used for a different order",
+            content = @Content)
       })
   @PostMapping
-  public ResponseEntity<OrderModel> createOrder(@RequestBody @Valid RequestUserOrderModel model) {
+  public ResponseEntity<OrderModel> createOrder(
+      @RequestBody @Valid RequestUserOrderModel model,
+      @Parameter(description = "Key of the creation, to retry it safely (optional)")
+          @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false)
+          String idempotencyKey) {
     log.info("<<< POST /api/orders - createOrder called with model: {} >>>", model);
-    return ResponseEntity.ok(orderService.createOrder(model));
+    return OrderVersions.ok(
+        Objects.isNull(idempotencyKey)
+            ? orderService.createOrder(model)
+            : orderIdempotency.createOrder(idempotencyKey, model));
+  }
+
+  /**
+   * Creates a batch of orders in a single transaction, e.g. imported from the phone or partner
+   * channels. Every order is validated on its own: invalid orders are reported and skipped, the
+   * others are created.
+   *
+   * @param models orders to create
+   * @return one result per requested order, in request order
+   */
+  @Operation(
+      summary = "Create a batch of orders",
+      description =
+          "Creates up to 1000 orders in a single transaction and returns, for each of them, the created order or the reason of the rejection.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Batch processed",
+            content =
+                @Content(
+                    array =
+                        @ArraySchema(schema = @Schema(implementation = OrderBatchItemResult.class)))),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Empty or too large batch",
+            content = @Content)
+      })
+  @PostMapping("/batch")
+  public ResponseEntity<List<OrderBatchItemResult>> createOrders(
+      @RequestBody List<RequestUserOrderModel> models) {
+    log.info(
+        "<<< POST /api/orders/batch - createOrders called with {} orders >>>",
+        Objects.isNull(models) ? 0 : models.size());
+    return ResponseEntity.ok(orderService.createOrders(models));
   }
 
   /**
-   * Returns all orders, optionally filtered by status and pickup date.
+   * Returns one page of orders, optionally filtered by status and pickup date, sorted by pickup
+   * window and creation time. When more orders follow, the response carries the token of the next
+   * page in the {@value #NEXT_CURSOR_HEADER} header, to be sent back as {@code after}.
    *
    * @param statuses list of order statuses (optional)
    * @param pickupDate pickup date (optional)
+   * @param limit maximum number of orders of the page
+   * @param after cursor of the page to fetch (optional, first page if missing)
    * @return list of orders
    */
   @Operation(
       summary = "Get all orders",
-      description = "Retrieves all orders, optionally filtered by status and pickup date.")
+      description =
+          "Retrieves one page of orders, optionally filtered by status and pickup date. The cursor of the next page, if any, is returned in the X-Next-Cursor header.")
   @ApiResponses(
       value = {
         @ApiResponse(
             responseCode = "200",
             description = "List of orders",
-            content = @Content(schema = @Schema(implementation = OrderModel.class)))
+            content = @Content(schema = @Schema(implementation = OrderModel.class))),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid limit, status or cursor",
+            content = @Content)
       })
   @GetMapping
   public ResponseEntity<List<OrderModel>> findAllOrdersByStatusAndPickupDate(
@@ -74,12 +148,79 @@ public class OrderController {
       @Parameter(description = "Pickup date to filter by", required = false)
           @RequestParam(value = "pickupDate", required = false)
           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
-          LocalDateTime pickupDate) {
+          LocalDateTime pickupDate,
+      @Parameter(description = "Maximum number of orders to return (1-500)", required = false)
+          @RequestParam(value = "limit", defaultValue = "100")
+          int limit,
+      @Parameter(description = "Cursor returned with the previous page", required = false)
+          @RequestParam(value = "after", required = false)
+          String after) {
+    log.info(
+        "<<< GET /api/orders - findAllOrdersByStatusAndPickupDate called with statuses: {}, pickupDate: {}, limit: {} and after: {} >>>",
+        statuses,
+        pickupDate,
+        limit,
+        after);
+    OrderPage page =
+        orderService.findAllOrdersByStatusAndPickupDate(statuses, pickupDate, limit, after);
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+    if (Objects.nonNull(page.nextCursor())) response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+    return response.body(page.orders());
+  }
+
+  /**
+   * Returns one page of order summaries, with the same filters, order and cursor as the order
+   * listing: only code, status, pickup window, total and pizza names, read with a single query.
+   *
+   * @param statuses list of order statuses (optional)
+   * @param pickupDate pickup date (optional)
+   * @param limit maximum number of orders of the page
+   * @param after cursor of the page to fetch (optional, first page if missing)
+   * @return list of order summaries
+   */
+  @Operation(
+      summary = "Get order summaries",
+      description =
+          "Retrieves one page of order summaries (code, status, pickup window, total and pizza names), optionally filtered by status and pickup date. The cursor of the next page, if any, is returned in the X-Next-Cursor header.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "List of order summaries",
+            content =
+                @Content(
+                    array =
+                        @ArraySchema(schema = @Schema(implementation = OrderSummaryModel.class)))),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid limit, status or cursor",
+            content = @Content)
+      })
+  @GetMapping("/summaries")
+  public ResponseEntity<List<OrderSummaryModel>> findOrderSummaries(
+      @Parameter(description = "List of order statuses to filter by", required = false)
+          @RequestParam(value = "statuses", required = false)
+          List<String> statuses,
+      @Parameter(description = "Pickup date to filter by", required = false)
+          @RequestParam(value = "pickupDate", required = false)
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          LocalDateTime pickupDate,
+      @Parameter(description = "Maximum number of orders to return (1-500)", required = false)
+          @RequestParam(value = "limit", defaultValue = "100")
+          int limit,
+      @Parameter(description = "Cursor returned with the previous page", required = false)
+          @RequestParam(value = "after", required = false)
+          String after) {
     log.info(
-        "<<< GET /api/orders - findAllOrdersByStatusAndPickupDate called with statuses: {} and pickupDate: {} >>>",
+        "<<< GET /api/orders/summaries - findOrderSummaries called with statuses: {}, pickupDate: {}, limit: {} and after: {} >>>",
         statuses,
-        pickupDate);
-    return ResponseEntity.ok(orderService.findAllOrdersByStatusAndPickupDate(statuses, pickupDate));
+        pickupDate,
+        limit,
+        after);
+    OrderSummaryPage page = orderService.findOrderSummaries(statuses, pickupDate, limit, after);
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+    if (Objects.nonNull(page.nextCursor())) response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+    return response.body(page.orders());
   }
 
   /**
@@ -103,7 +244,60 @@ public class OrderController {
   public ResponseEntity<OrderModel> getOrderById(
       @Parameter(description = "Order ID", required = true) @PathVariable Long id) {
     log.info("<<< GET /api/orders/{} - getOrderById called >>>", id);
-    return ResponseEntity.ok(orderService.getOrderById(id));
+    return OrderVersions.ok(orderService.getOrderById(id));
+  }
+
+  /**
+   * Opens a Server-Sent Events stream of the status changes of an order, to be used instead of
+   * polling the order. The first event carries the current status.
+   *
+   * @param code order code
+   * @return event stream
+   */
+  @Operation(
+      summary = "Stream the status of an order",
+      description =
+          "Server-Sent Events stream of the status changes of an order. The first 'status' event carries the current status; the stream ends when the order is DELIVERED.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Event stream",
+            content =
+                @Content(
+                    mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                    schema = @Schema(implementation = OrderStatusEvent.class))),
+        @ApiResponse(responseCode = "404", description = "Order not found", content = @Content)
+      })
+  @GetMapping(path = "/{code}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamOrderEvents(
+      @Parameter(description = "Order code", required = true) @PathVariable String code) {
+    log.info("<<< GET /api/orders/{}/events - streamOrderEvents called >>>", code);
+    return orderService.subscribeToOrder(code);
+  }
+
+  /**
+   * Opens a Server-Sent Events stream of the status changes of every order, for the staff.
+   *
+   * @return event stream
+   */
+  @Operation(
+      summary = "Stream the status changes of all orders (staff only)",
+      description = "Server-Sent Events stream of the status changes of every order.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Event stream",
+            content =
+                @Content(
+                    mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                    schema = @Schema(implementation = OrderStatusEvent.class)))
+      })
+  @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamAllOrderEvents() {
+    log.info("<<< GET /api/orders/events - streamAllOrderEvents called >>>");
+    return orderService.subscribeToAllOrders();
   }
 
   /**
@@ -127,7 +321,7 @@ public class OrderController {
   public ResponseEntity<OrderModel> getOrderByCode(
       @Parameter(description = "Order code", required = true) @RequestParam("code") String code) {
     log.info("<<< GET /api/orders/by-code - getOrderByCode called with code: {} >>>", code);
-    return ResponseEntity.ok(orderService.getOrderByCode(code));
+    return OrderVersions.ok(orderService.getOrderByCode(code));
   }
 
   /**
@@ -146,16 +340,28 @@ public class OrderController {
             description = "Order successfully updated",
             content = @Content(schema = @Schema(implementation = OrderModel.class))),
         @ApiResponse(responseCode = "400", description = "Invalid request", content = @Content),
-        @ApiResponse(responseCode = "404", description = "Order not found", content = @Content)
+        @ApiResponse(responseCode = "404", description = "Order not found", content = @Content),
+        @ApiResponse(
+            responseCode = "409",
+            description = "Order changed concurrently",
+            content = @Content),
+        @ApiResponse(
+            responseCode = "412",
+            description = "Order no longer matches If-Match",
+            content = @Content)
       })
   @PutMapping("update")
   public ResponseEntity<OrderModel> updateOrder(
       @Parameter(description = "Order code to update", required = true) @RequestParam("code")
           String code,
-      @RequestBody @Valid RequestUserOrderModel model) {
+      @RequestBody @Valid RequestUserOrderModel model,
+      @Parameter(description = "ETag of the order the change is based on (optional)")
+          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+          String ifMatch) {
     log.info(
         "<<< PUT /api/orders - updateOrder called with code {} and model: {} >>>", code, model);
-    return ResponseEntity.ok(orderService.updateOrder(code, model));
+    return OrderVersions.ok(
+        orderService.updateOrder(code, model, OrderVersions.expectedVersion(ifMatch)));
   }
 
   /**
@@ -173,19 +379,31 @@ public class OrderController {
             responseCode = "200",
             description = "Order status successfully updated",
             content = @Content(schema = @Schema(implementation = OrderModel.class))),
-        @ApiResponse(responseCode = "404", description = "Order not found", content = @Content)
+        @ApiResponse(responseCode = "404", description = "Order not found", content = @Content),
+        @ApiResponse(
+            responseCode = "409",
+            description = "Order changed concurrently",
+            content = @Content),
+        @ApiResponse(
+            responseCode = "412",
+            description = "Order no longer matches If-Match",
+            content = @Content)
       })
   @PutMapping("/update-status")
   public ResponseEntity<OrderModel> updateOrderByCode(
       @Parameter(description = "Order code to update", required = true) @RequestParam("code")
           String code,
       @Parameter(description = "New order status", required = true) @RequestParam("status")
-          String status) {
+          String status,
+      @Parameter(description = "ETag of the order the change is based on (optional)")
+          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+          String ifMatch) {
     log.info(
         "<<< PUT /api/orders - updateOrderByCode called with code: {} and model: {} >>>",
         code,
         status);
-    return ResponseEntity.ok(orderService.updateOrderStatus(code, status));
+    return OrderVersions.ok(
+        orderService.updateOrderStatus(code, status, OrderVersions.expectedVersion(ifMatch)));
   }
 
   /**
@@ -203,7 +421,15 @@ public class OrderController {
   @ApiResponses(
       value = {
         @ApiResponse(responseCode = "204", description = "Order successfully deleted"),
-        @ApiResponse(responseCode = "404", description = "Order not found", content = @Content)
+        @ApiResponse(responseCode = "404", description = "Order not found", content = @Content),
+        @ApiResponse(
+            responseCode = "409",
+            description = "Order changed concurrently",
+            content = @Content),
+        @ApiResponse(
+            responseCode = "412",
+            description = "Order no longer matches If-Match",
+            content = @Content)
       })
   @DeleteMapping
   public ResponseEntity<Void> deleteOrderByCode(
@@ -214,9 +440,13 @@ public class OrderController {
                   "Force delete flag. Set to true to allow the pizza chef to delete any order, false to allow the user to delete only QUEUED orders.",
               required = true)
           @RequestParam("force")
-          boolean forceDelete) {
+          boolean forceDelete,
+      @Parameter(description = "ETag of the order the change is based on (optional)")
+          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+          String ifMatch) {
     log.info("<<< DELETE /api/orders - deleteOrderByCode called with code: {} >>>", code);
-    boolean deleted = orderService.deleteByCode(code, forceDelete);
+    boolean deleted =
+        orderService.deleteByCode(code, forceDelete, OrderVersions.expectedVersion(ifMatch));
     return deleted ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
   }
 }
@@ -0,0 +1,47 @@
+package com.awesome.pizza.brick.controller;
+
+import com.awesome.pizza.brick.exception.OrderException;
+import com.awesome.pizza.commons.model.OrderModel;
+import java.util.Objects;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Conditional requests on orders: the version of an order is returned as its strong ETag ({@code
+ * "3"}), to be sent back as If-Match to update or delete the order only if it is unchanged.
+ */
+final class OrderVersions {
+  private OrderVersions() {}
+
+  /**
+   * Builds the 200 response of an order, with its version as ETag.
+   *
+   * @param order order model
+   * @return the response
+   */
+  static ResponseEntity<OrderModel> ok(OrderModel order) {
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+    if (Objects.nonNull(order) && Objects.nonNull(order.getVersion()))
+      response.eTag("\"" + order.getVersion() + "\"");
+    return response.body(order);
+  }
+
+  /**
+   * Reads the version expected by an If-Match header.
+   *
+   * @param ifMatch header value, e.g. {@code "3"} (optional)
+   * @return the expected version, null if the header is missing or {@code *} (any version)
+   * @throws OrderException if the header is not a single order ETag
+   */
+  static Long expectedVersion(String ifMatch) {
+    if (Objects.isNull(ifMatch) || ifMatch.isBlank() || ifMatch.trim().equals("*")) return null;
+    String tag = ifMatch.trim();
+    if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\""))
+      tag = tag.substring(1, tag.length() - 1);
+    try {
+      return Long.valueOf(tag);
+    } catch (NumberFormatException e) {
+      throw new OrderException(
+          OrderException.Reason.INVALID_QUERY, "Invalid If-Match header: " + ifMatch);
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package com.awesome.pizza.brick.controller;
 
+import com.awesome.pizza.brick.service.MenuSnapshot;
 import com.awesome.pizza.brick.service.PizzaService;
 import com.awesome.pizza.commons.model.PizzaModel;
 import io.swagger.v3.oas.annotations.Operation;
@@ -9,9 +10,14 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -51,40 +57,54 @@ public class PizzaController {
   /**
    * Returns the list of all pizzas.
    * <p>
+   * The response carries an ETag of the current menu version: a request whose
+   * {@code If-None-Match} header matches it gets a 304 without body.
+   * <p>
    * <b>This API is for internal use by the pizzeria via the restaurant portal only.</b>
    *
+   * @param ifNoneMatch ETag of the menu already held by the client (optional)
    * @return list of pizzas
    */
   @Operation(summary = "Get all pizzas (internal use)", description = "Returns the list of all available pizzas. This API is for internal use by the pizzeria via the restaurant portal only.")
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200", description = "List of pizzas",
-          content = @Content(schema = @Schema(implementation = PizzaModel.class)))
+          content = @Content(schema = @Schema(implementation = PizzaModel.class))),
+      @ApiResponse(responseCode = "304", description = "Menu not modified", content = @Content)
   })
   @GetMapping
-  public ResponseEntity<List<PizzaModel>> getAllPizzas() {
+  public ResponseEntity<List<PizzaModel>> getAllPizzas(
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
     log.info("<<< GET /api/pizzas - getAllPizzas called >>>");
-    return ResponseEntity.ok(pizzaService.getAllPizzas());
+    MenuSnapshot menu = pizzaService.getMenu();
+    return conditional(ifNoneMatch, menu.etag(), menu::pizzas);
   }
 
   /**
    * Returns a list of pizzas by a list of IDs.
    * <p>
+   * The response carries an ETag of the current menu version and of the requested IDs: a request
+   * whose {@code If-None-Match} header matches it gets a 304 without body.
+   * <p>
    * <b>This API is for internal use by the pizzeria via the restaurant portal only.</b>
    *
    * @param ids list of pizza IDs
+   * @param ifNoneMatch ETag of the selection already held by the client (optional)
    * @return list of found pizzas
    */
   @Operation(summary = "Get pizzas by IDs (internal use)", description = "Returns the list of pizzas matching the provided IDs. This API is for internal use by the pizzeria via the restaurant portal only.")
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200", description = "List of found pizzas",
           content = @Content(schema = @Schema(implementation = PizzaModel.class))),
+      @ApiResponse(responseCode = "304", description = "Selection not modified", content = @Content),
       @ApiResponse(responseCode = "400", description = "Invalid request", content = @Content)
   })
   @PostMapping("/by-ids")
   public ResponseEntity<List<PizzaModel>> getPizzasByIds(
-      @RequestBody List<Long> ids) {
+      @RequestBody List<Long> ids,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
     log.info("<<< GET /api/pizzas/{} - getPizzasByIds called >>>", ids);
-    return ResponseEntity.ok(pizzaService.getPizzasByIds(ids));
+    MenuSnapshot menu = pizzaService.getMenu();
+    return conditional(ifNoneMatch, menu.etagFor(ids), () -> menu.findByIds(ids));
   }
 
   /**
@@ -133,4 +153,23 @@ public class PizzaController {
         ? ResponseEntity.noContent().build()
         : ResponseEntity.notFound().build();
   }
+
+  /**
+   * Answers 304 when the client already holds the given ETag, otherwise 200 with the body.
+   *
+   * @param ifNoneMatch value of the If-None-Match header (optional)
+   * @param etag current ETag of the resource
+   * @param body supplier of the response body
+   * @return the conditional response
+   */
+  private ResponseEntity<List<PizzaModel>> conditional(
+      String ifNoneMatch, String etag, Supplier<List<PizzaModel>> body) {
+    if (Objects.nonNull(ifNoneMatch)
+        && Arrays.stream(ifNoneMatch.split(","))
+            .map(String::trim)
+            .anyMatch(tag -> tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag))) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+    return ResponseEntity.ok().eTag(etag).body(body.get());
+  }
 }
@@ -0,0 +1,64 @@
+package com.awesome.pizza.brick.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Idempotency key of an order creation, with the order created for it, so that a retried request
+ * returns the original order instead of creating a new one. Keys expire after a configured TTL.
+ */
+@Entity
+@Table(
+    name = "idempotency_keys",
+    indexes = @Index(name = "IDX_IDEMPOTENCY_KEYS_CREATED", columnList = "CREATED_AT"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyKey implements Persistable<String> {
+  /** Key chosen by the client (Idempotency-Key header) */
+  @Id
+  @Column(name = "IDEMPOTENCY_KEY", length = 255)
+  private String key;
+
+  /** SHA-256 of the request body, to detect a key reused for another order */
+  @Column(name = "REQUEST_HASH", nullable = false, length = 64)
+  private String requestHash;
+
+  /** Code of the created order */
+  @Column(name = "ORDER_CODE", nullable = false, length = 50)
+  private String orderCode;
+
+  /** Created order as returned to the client (JSON) */
+  @Lob
+  @Column(name = "RESPONSE", nullable = false)
+  private String response;
+
+  /** Creation time, from which the key expires */
+  @Column(name = "CREATED_AT", nullable = false)
+  private LocalDateTime createdAt;
+
+  /**
+   * New keys are always inserted, never merged: a key stored concurrently by another instance
+   * fails on the primary key instead of being overwritten.
+   */
+  @Transient @Builder.Default private boolean isNew = true;
+
+  @Override
+  public String getId() {
+    return key;
+  }
+
+  @Override
+  public boolean isNew() {
+    return isNew;
+  }
+
+  @PostLoad
+  @PostPersist
+  void markNotNew() {
+    isNew = false;
+  }
+}
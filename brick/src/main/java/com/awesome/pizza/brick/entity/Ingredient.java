@@ -3,15 +3,18 @@ package com.awesome.pizza.brick.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import java.util.Set;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "ingredients")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Ingredient {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @PooledSequence("ingredient_seq")
   private Long id;
 
   @Column(name = "NAME", unique = true, nullable = false)
@@ -0,0 +1,27 @@
+package com.awesome.pizza.brick.entity;
+
+import com.awesome.pizza.commons.money.Money;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Stores a {@link Money} amount in euro as a decimal column with two decimals, so that the stored
+ * amounts stay readable and comparable with the other prices of the database.
+ */
+@Converter
+public class MoneyConverter implements AttributeConverter<Money, BigDecimal> {
+  @Override
+  public BigDecimal convertToDatabaseColumn(Money money) {
+    if (Objects.isNull(money)) return null;
+    if (!Money.EUR.equals(money.currency()))
+      throw new IllegalArgumentException("Only amounts in euro can be stored: " + money);
+    return money.toBigDecimal();
+  }
+
+  @Override
+  public Money convertToEntityAttribute(BigDecimal amount) {
+    return Objects.isNull(amount) ? null : Money.of(amount);
+  }
+}
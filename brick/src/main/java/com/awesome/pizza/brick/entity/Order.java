@@ -3,24 +3,56 @@ package com.awesome.pizza.brick.entity;
 import com.awesome.pizza.commons.model.OrderStatus;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 
 /**
  * Entity representing a customer order in Awesome Pizza. Each order contains a list of pizzas and a
  * status.
+ *
+ * <p>Two fetch plans serve the reads mapped to {@link com.awesome.pizza.commons.model.OrderModel}:
+ * {@value #DETAILS_GRAPH} loads a single order with its user and ordered pizzas in one query;
+ * {@value #LISTING_GRAPH} joins only the user, so that a page of orders can still be limited by the
+ * database, and the ordered pizzas of the page are then loaded in batches. The {@code pizzas} table
+ * is never read: every ordered pizza keeps its own name and price.
  */
 @Entity
-@Table(name = "orders")
+@NamedEntityGraphs({
+  @NamedEntityGraph(
+      name = Order.DETAILS_GRAPH,
+      attributeNodes = {@NamedAttributeNode("user"), @NamedAttributeNode("orderedPizzas")}),
+  @NamedEntityGraph(name = Order.LISTING_GRAPH, attributeNodes = @NamedAttributeNode("user"))
+})
+@Table(
+    name = "orders",
+    indexes = {
+      @Index(name = "IDX_ORDERS_STATUS_PICKUP", columnList = "STATUS, PICKUP_DATE, PICKUP_FROM"),
+      @Index(name = "IDX_ORDERS_PICKUP", columnList = "PICKUP_FROM, PICKUP_TO, CREATED_AT, ID")
+    },
+    uniqueConstraints =
+        @UniqueConstraint(name = Order.KITCHEN_SLOT_CONSTRAINT, columnNames = "KITCHEN_SLOT"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Order {
+  /** Unique constraint on KITCHEN_SLOT, named so that its violations can be told apart */
+  public static final String KITCHEN_SLOT_CONSTRAINT = "UK_ORDERS_KITCHEN_SLOT";
+
+  /** Fetch plan of a single order: user and ordered pizzas */
+  public static final String DETAILS_GRAPH = "Order.details";
+
+  /** Fetch plan of a page of orders: the user only */
+  public static final String LISTING_GRAPH = "Order.listing";
+
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @PooledSequence("orders_seq")
   private Long id;
 
   /** Unique code for tracking the order */
@@ -32,8 +64,12 @@ public class Order {
   @Column(name = "STATUS", nullable = false)
   private OrderStatus status;
 
-  /** List of ordered pizzas (OrderPizza) */
+  /**
+   * List of ordered pizzas (OrderPizza). When a page of orders is mapped, the lists of the whole
+   * page, up to the largest page size, are loaded with a single query.
+   */
   @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
+  @BatchSize(size = 500)
   @JoinColumn(name = "order_id")
   private List<OrderPizza> orderedPizzas;
 
@@ -47,6 +83,55 @@ public class Order {
   @JoinColumn(name = "user_id")
   private User user;
 
-  /** Total price of the order */
+  /** Total price of the order, in euro */
+  @Column(precision = 12, scale = 2)
   private BigDecimal totalPrice;
+
+  /** Pickup day, copied from the user's pickup window to filter orders by date with an index */
+  @Setter(AccessLevel.NONE)
+  @Column(name = "PICKUP_DATE")
+  private LocalDate pickupDate;
+
+  /** Start of the pickup window, copied from the user */
+  @Setter(AccessLevel.NONE)
+  @Column(name = "PICKUP_FROM")
+  private LocalDateTime pickupFrom;
+
+  /** End of the pickup window, copied from the user */
+  @Setter(AccessLevel.NONE)
+  @Column(name = "PICKUP_TO")
+  private LocalDateTime pickupTo;
+
+  /**
+   * Optimistic locking version, incremented by every update: an update or delete based on a stale
+   * copy of the order fails instead of overwriting the concurrent change.
+   */
+  @Version
+  @ColumnDefault("0")
+  @Column(name = "VERSION", nullable = false)
+  private Long version;
+
+  /**
+   * Kitchen slot marker: {@code TRUE} while the order is IN_PROGRESS, {@code NULL} otherwise. The
+   * unique constraint (NULLs are not compared) lets the database guarantee that at most one order
+   * is being prepared, even when several brick instances share the same schema.
+   */
+  @Setter(AccessLevel.NONE)
+  @Column(name = "KITCHEN_SLOT")
+  private Boolean kitchenSlot;
+
+  /**
+   * Keeps the kitchen slot marker and the pickup columns aligned with the status and the user
+   * before every insert and update.
+   */
+  @PrePersist
+  @PreUpdate
+  void syncDerivedColumns() {
+    kitchenSlot = status == OrderStatus.IN_PROGRESS ? Boolean.TRUE : null;
+    if (Objects.nonNull(user)) {
+      pickupFrom = user.getPickupFrom();
+      pickupTo = user.getPickupTo();
+      pickupDate = Objects.nonNull(pickupFrom) ? pickupFrom.toLocalDate() : null;
+    }
+  }
 }
@@ -1,11 +1,13 @@
 package com.awesome.pizza.brick.entity;
 
+import com.awesome.pizza.commons.money.Money;
 import jakarta.persistence.*;
 import lombok.*;
 
 /**
- * Entity representing a pizza ordered within an order. Stores the description and price of the
- * pizza at the time of the order.
+ * Entity representing a pizza ordered within an order, in the given quantity. Stores the name and
+ * price of the pizza at the time of the order, so that reading an order never needs the {@code
+ * pizzas} table and later menu changes do not alter past orders.
  */
 @Entity
 @Table(name = "order_pizza")
@@ -17,13 +19,27 @@ import lombok.*;
 @ToString(exclude = "pizza")
 public class OrderPizza {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @PooledSequence("order_pizza_seq")
   private Long idOrderPizza;
 
   @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "pizza_id", nullable = false)
   private Pizza pizza;
 
+  /** Name of the pizza when it was ordered */
+  @Column(name = "PIZZA_NAME", nullable = false)
+  private String pizzaName;
+
+  /** Price of the pizza when it was ordered */
+  @Convert(converter = MoneyConverter.class)
+  @Column(name = "UNIT_PRICE", nullable = false, precision = 10, scale = 2)
+  private Money unitPrice;
+
   @Column(length = 1000)
   private String descriptionUser;
+
+  /** Number of identical pizzas, with the same description */
+  @Builder.Default
+  @Column(name = "QUANTITY", nullable = false)
+  private int quantity = 1;
 }
@@ -4,10 +4,19 @@ import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.util.List;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
-/** Entity representing a pizza in Awesome Pizza. */
+/**
+ * Entity representing a pizza in Awesome Pizza. Pizzas and their ingredients are read-mostly: they
+ * are kept in the second-level cache (regions in {@code hibernate-l2-cache.conf}). The pizzas
+ * missing from the cache are loaded together, up to a whole menu per query.
+ */
 @Entity
 @Table(name = "pizzas")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "pizzas")
+@BatchSize(size = 100)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -15,7 +24,7 @@ import lombok.*;
 @Builder
 public class Pizza {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @PooledSequence("pizzas_seq")
   private Long id;
 
   /** Name of the pizza */
@@ -28,13 +37,14 @@ public class Pizza {
 
   /** List of ingredients */
   @ManyToMany(fetch = FetchType.LAZY, cascade = CascadeType.MERGE)
+  @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "pizza-ingredients")
   @JoinTable(
       name = "pizza_ingredient",
       joinColumns = @JoinColumn(name = "pizza_id"),
       inverseJoinColumns = @JoinColumn(name = "ingredient_id"))
   private List<Ingredient> ingredients;
 
-  /** Price of the pizza */
-  @Column(name = "PRICE", nullable = false)
+  /** Price of the pizza, in euro */
+  @Column(name = "PRICE", nullable = false, precision = 10, scale = 2)
   private BigDecimal price;
 }
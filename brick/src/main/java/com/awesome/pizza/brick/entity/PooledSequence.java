@@ -0,0 +1,23 @@
+package com.awesome.pizza.brick.entity;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import org.hibernate.annotations.IdGeneratorType;
+
+/**
+ * Generates the id from a database sequence through a pooled optimizer, so that ids are assigned
+ * without a round trip per row and inserts can be sent in JDBC batches.
+ *
+ * <p>The allocation size (ids reserved by each sequence call) is shared by all the entities and set
+ * with {@value PooledSequenceGenerator#ALLOCATION_SIZE_SETTING} in {@code spring.jpa.properties}.
+ */
+@IdGeneratorType(PooledSequenceGenerator.class)
+@Retention(RUNTIME)
+@Target(FIELD)
+public @interface PooledSequence {
+  /** Name of the sequence. */
+  String value();
+}
@@ -0,0 +1,61 @@
+package com.awesome.pizza.brick.entity;
+
+import java.lang.reflect.Member;
+import java.util.Properties;
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.generator.AnnotationBasedGenerator;
+import org.hibernate.generator.GeneratorCreationContext;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * {@link SequenceStyleGenerator} behind {@link PooledSequence}: it names the sequence after the
+ * annotation and reads the allocation size from the Hibernate settings. The optimizer (pooled or
+ * pooled-lo) follows {@code hibernate.id.optimizer.pooled.preferred}.
+ *
+ * <p>The annotation is received through {@link #initialize} rather than the constructor, so that
+ * the Spring bean container, which Hibernate asks first for every generator, can create the
+ * generator itself.
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator
+    implements AnnotationBasedGenerator<PooledSequence> {
+  public static final String ALLOCATION_SIZE_SETTING = "awesome-pizza.id.allocation-size";
+  public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+  private String sequenceName;
+
+  @Override
+  public void initialize(
+      PooledSequence config, Member member, GeneratorCreationContext creationContext) {
+    this.sequenceName = config.value();
+  }
+
+  @Override
+  public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry)
+      throws MappingException {
+    parameters.put(SEQUENCE_PARAM, sequenceName);
+    parameters.put(INCREMENT_PARAM, Integer.toString(allocationSize(serviceRegistry)));
+    super.configure(type, parameters, serviceRegistry);
+  }
+
+  /**
+   * Returns the configured allocation size.
+   *
+   * @param serviceRegistry Hibernate service registry
+   * @return ids reserved by each sequence call
+   */
+  static int allocationSize(ServiceRegistry serviceRegistry) {
+    Object configured =
+        serviceRegistry
+            .requireService(ConfigurationService.class)
+            .getSettings()
+            .get(ALLOCATION_SIZE_SETTING);
+    int allocationSize =
+        configured == null ? DEFAULT_ALLOCATION_SIZE : Integer.parseInt(configured.toString());
+    if (allocationSize < 1)
+      throw new MappingException(ALLOCATION_SIZE_SETTING + " must be positive");
+    return allocationSize;
+  }
+}
@@ -16,7 +16,7 @@ import java.time.LocalDateTime;
 @Builder
 public class User {
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@PooledSequence("users_seq")
 	private Long id;
 
 	/** Name of the user */
@@ -1,8 +1,14 @@
 package com.awesome.pizza.brick.exception;
 
+import com.awesome.pizza.brick.exception.OrderException.Reason;
+import com.awesome.pizza.brick.service.OrderMetrics;
 import java.time.LocalDateTime;
+import java.util.Objects;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -12,7 +18,11 @@ import org.springframework.web.context.request.WebRequest;
 
 @ControllerAdvice
 @Slf4j
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
+  // Not available in web slice tests
+  private final ObjectProvider<OrderMetrics> orderMetrics;
+
   @ExceptionHandler(Exception.class)
   public ResponseEntity<ErrorResponse> handleAllExceptions(Exception ex, WebRequest request) {
     ErrorResponse error =
@@ -24,13 +34,29 @@ public class GlobalExceptionHandler {
 
   @ExceptionHandler(OrderException.class)
   public ResponseEntity<ErrorResponse> handleOrderException(OrderException ex, WebRequest request) {
+    // No default branch: a new reason does not compile until it is given its status
     HttpStatus status =
-        ex.getMessage() != null && ex.getMessage().contains("not found")
-            ? HttpStatus.NOT_FOUND
-            : HttpStatus.BAD_REQUEST;
+        switch (Objects.requireNonNullElse(ex.getReason(), Reason.OTHER)) {
+          case ORDER_NOT_FOUND, QUEUE_EMPTY -> HttpStatus.NOT_FOUND;
+          case VERSION_MISMATCH -> HttpStatus.PRECONDITION_FAILED;
+          case CONCURRENT_UPDATE -> HttpStatus.CONFLICT;
+          case IDEMPOTENCY_KEY_REUSED -> HttpStatus.UNPROCESSABLE_ENTITY;
+          case INVALID_ORDER,
+              INVALID_PICKUP,
+              PIZZA_NOT_FOUND,
+              INVALID_BATCH,
+              INVALID_QUERY,
+              NOT_QUEUED,
+              KITCHEN_BUSY,
+              OTHER ->
+              HttpStatus.BAD_REQUEST;
+        };
     ErrorResponse error = new ErrorResponse(LocalDateTime.now(), ex.getMessage(), status.value());
-    log.error("Order exception: ", ex);
-    return new ResponseEntity<>(error, status);
+    // A client error: the stack trace would only add cost to every rejected request
+    log.warn("<<< Order rejected ({}): {} >>>", ex.getReason(), ex.getMessage());
+    orderMetrics.ifAvailable(metrics -> metrics.rejected(ex.getReason()));
+    // Explicit content type, so the error is also returned to clients accepting only SSE
+    return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(error);
   }
 
   @ExceptionHandler(RuntimeException.class)
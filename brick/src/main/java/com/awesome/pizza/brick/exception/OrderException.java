@@ -1,14 +1,78 @@
 package com.awesome.pizza.brick.exception;
 
+import lombok.Getter;
+
 /** Custom exception for order-related errors in Awesome Pizza. */
+@Getter
 public class OrderException extends RuntimeException {
 
   /**
-   * Constructs a new OrderException with the specified detail message.
+   * Cause of the rejection. The reasons refusing to create or change an order are counted as
+   * rejected orders; lookups that find nothing and invalid query parameters are not.
+   */
+  public enum Reason {
+    /** The order has no user or no pizza, or fails validation. */
+    INVALID_ORDER(true),
+    /** The pickup window is reversed or in the past. */
+    INVALID_PICKUP(true),
+    /** A requested pizza does not exist or has no price. */
+    PIZZA_NOT_FOUND(true),
+    /** The batch is empty or too large. */
+    INVALID_BATCH(true),
+    /** A request parameter (limit, status, cursor, If-Match or Idempotency-Key) is invalid. */
+    INVALID_QUERY(false),
+    /** The order does not exist. */
+    ORDER_NOT_FOUND(false),
+    /** The order can no longer be changed, as it is not QUEUED anymore. */
+    NOT_QUEUED(true),
+    /** The order is not at the version the request was based on (If-Match). */
+    VERSION_MISMATCH(true),
+    /** The order was changed concurrently, and the change could not be applied again. */
+    CONCURRENT_UPDATE(true),
+    /** The idempotency key was already used to create a different order. */
+    IDEMPOTENCY_KEY_REUSED(true),
+    /** Another order holds the kitchen slot. */
+    KITCHEN_BUSY(true),
+    /** No QUEUED order is left to bake. */
+    QUEUE_EMPTY(false),
+    /** Any other cause. */
+    OTHER(true);
+
+    private final boolean orderRejection;
+
+    Reason(boolean orderRejection) {
+      this.orderRejection = orderRejection;
+    }
+
+    /**
+     * Tells whether this reason refuses to create or change an order.
+     *
+     * @return true if the request is counted as a rejected order
+     */
+    public boolean isOrderRejection() {
+      return orderRejection;
+    }
+  }
+
+  private final Reason reason;
+
+  /**
+   * Constructs a new OrderException with the specified detail message and no specific reason.
    *
    * @param message the detail message
    */
   public OrderException(String message) {
+    this(Reason.OTHER, message);
+  }
+
+  /**
+   * Constructs a new OrderException with the specified reason and detail message.
+   *
+   * @param reason the cause of the rejection
+   * @param message the detail message
+   */
+  public OrderException(Reason reason, String message) {
     super(message);
+    this.reason = reason;
   }
 }
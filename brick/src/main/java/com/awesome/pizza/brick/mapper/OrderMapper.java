@@ -4,6 +4,9 @@ import com.awesome.pizza.brick.entity.Order;
 import com.awesome.pizza.brick.entity.OrderPizza;
 import com.awesome.pizza.commons.model.OrderModel;
 import com.awesome.pizza.commons.model.OrderPizzaModel;
+import com.awesome.pizza.commons.money.Money;
+import java.math.BigDecimal;
+import java.util.Objects;
 import org.mapstruct.*;
 
 /** Mapper for converting between Order entity and OrderModel DTO in Awesome Pizza. */
@@ -13,12 +16,35 @@ import org.mapstruct.*;
 public interface OrderMapper {
   OrderModel toModel(Order order);
 
+  /**
+   * Maps an order line from its own snapshot: only the id of the pizza is read, which a lazy
+   * reference holds without being loaded.
+   */
   @Mapping(target = "pizzaId", source = "pizza.id")
-  @Mapping(target = "namePizza", source = "pizza.name")
+  @Mapping(target = "namePizza", source = "pizzaName")
   OrderPizzaModel toOrderPizzaModel(OrderPizza orderPizza);
 
+  /**
+   * Maps an order from its API model. The pickup window and the kitchen slot are not mapped: they
+   * are derived from the user and the status when the order is persisted.
+   */
+  @Mapping(target = "pickupDate", ignore = true)
+  @Mapping(target = "pickupFrom", ignore = true)
+  @Mapping(target = "pickupTo", ignore = true)
+  @Mapping(target = "kitchenSlot", ignore = true)
   Order toEntity(OrderModel model);
 
-	@Mapping(target = "pizza.id", source = "pizzaId")
-	OrderPizza toOrderPizzaEntity(OrderPizzaModel orderPizza);
+  /** Converts an amount to the decimal exchanged by the API. */
+  default BigDecimal toAmount(Money money) {
+    return Objects.isNull(money) ? null : money.toBigDecimal();
+  }
+
+  /** Converts a decimal received by the API to an amount in euro. */
+  default Money toMoney(BigDecimal amount) {
+    return Objects.isNull(amount) ? null : Money.of(amount);
+  }
+
+  @Mapping(target = "pizza.id", source = "pizzaId")
+  @Mapping(target = "pizzaName", source = "namePizza")
+  OrderPizza toOrderPizzaEntity(OrderPizzaModel orderPizza);
 }
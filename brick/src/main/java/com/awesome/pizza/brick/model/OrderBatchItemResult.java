@@ -0,0 +1,12 @@
+package com.awesome.pizza.brick.model;
+
+import com.awesome.pizza.commons.model.OrderModel;
+
+/**
+ * Outcome of one order of a batch intake.
+ *
+ * @param index position of the order in the request
+ * @param order the created order, or null if the order was rejected
+ * @param error reason of the rejection, or null if the order was created
+ */
+public record OrderBatchItemResult(int index, OrderModel order, String error) {}
@@ -0,0 +1,69 @@
+package com.awesome.pizza.brick.model;
+
+import com.awesome.pizza.brick.entity.Order;
+import com.awesome.pizza.brick.exception.OrderException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Keyset position in the order listing, i.e. the sort key (pickupFrom, pickupTo, createdAt, id) of
+ * the last order of a page. It travels through the API as an opaque URL-safe token.
+ *
+ * @param pickupFrom start of the pickup window of the last order
+ * @param pickupTo end of the pickup window of the last order
+ * @param createdAt creation timestamp of the last order
+ * @param id id of the last order
+ */
+public record OrderCursor(
+    LocalDateTime pickupFrom, LocalDateTime pickupTo, LocalDateTime createdAt, Long id) {
+  private static final String SEPARATOR = "|";
+
+  /**
+   * Returns the cursor pointing right after the given order.
+   *
+   * @param order last order of a page
+   * @return the cursor
+   */
+  public static OrderCursor after(Order order) {
+    return new OrderCursor(
+        order.getPickupFrom(), order.getPickupTo(), order.getCreatedAt(), order.getId());
+  }
+
+  /**
+   * Decodes a token produced by {@link #encode()}.
+   *
+   * @param token opaque token (optional)
+   * @return the cursor, or null if no token is given
+   * @throws OrderException if the token is malformed
+   */
+  public static OrderCursor decode(String token) {
+    if (Objects.isNull(token) || token.isBlank()) return null;
+    try {
+      String[] parts =
+          new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)
+              .split("\\" + SEPARATOR, -1);
+      return new OrderCursor(
+          LocalDateTime.parse(parts[0]),
+          LocalDateTime.parse(parts[1]),
+          LocalDateTime.parse(parts[2]),
+          Long.valueOf(parts[3]));
+    } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+      throw new OrderException(OrderException.Reason.INVALID_QUERY, "Invalid cursor: " + token);
+    }
+  }
+
+  /**
+   * Encodes the cursor as an opaque URL-safe token.
+   *
+   * @return the token
+   */
+  public String encode() {
+    String raw = String.join(SEPARATOR, "" + pickupFrom, "" + pickupTo, "" + createdAt, "" + id);
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+}
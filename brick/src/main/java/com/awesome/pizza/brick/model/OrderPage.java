@@ -0,0 +1,12 @@
+package com.awesome.pizza.brick.model;
+
+import com.awesome.pizza.commons.model.OrderModel;
+import java.util.List;
+
+/**
+ * One page of the order listing.
+ *
+ * @param orders orders of the page, in pickup order
+ * @param nextCursor token to fetch the following page, or null if this is the last one
+ */
+public record OrderPage(List<OrderModel> orders, String nextCursor) {}
@@ -0,0 +1,16 @@
+package com.awesome.pizza.brick.model;
+
+import com.awesome.pizza.commons.model.OrderStatus;
+import java.time.LocalDateTime;
+
+/**
+ * Status transition of an order, pushed to the order event streams.
+ *
+ * @param code order code
+ * @param previousStatus status before the transition, or null for the current status sent when a
+ *     stream is opened
+ * @param status status after the transition
+ * @param changedAt time of the transition, or null for the current status
+ */
+public record OrderStatusEvent(
+    String code, OrderStatus previousStatus, OrderStatus status, LocalDateTime changedAt) {}
@@ -0,0 +1,38 @@
+package com.awesome.pizza.brick.repository;
+
+import com.awesome.pizza.brick.entity.IdempotencyKey;
+import java.time.LocalDateTime;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/** Repository for the idempotency keys of the order creations. */
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+  /**
+   * Deletes the keys created before the given time, i.e. expired.
+   *
+   * @param cutoff creation time before which keys are expired
+   * @return number of deleted keys
+   */
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM IdempotencyKey k WHERE k.createdAt < :cutoff")
+  int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+  /**
+   * Deletes a key if it is expired, so that it can be stored again.
+   *
+   * @param key idempotency key
+   * @param cutoff creation time before which keys are expired
+   * @return number of deleted keys
+   */
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM IdempotencyKey k WHERE k.key = :key AND k.createdAt < :cutoff")
+  int deleteExpired(@Param("key") String key, @Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,10 +1,17 @@
 package com.awesome.pizza.brick.repository;
 
 import com.awesome.pizza.brick.entity.Ingredient;
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 /** Repository for managing Ingredient entities in Awesome Pizza. */
 public interface IngredientRepository extends JpaRepository<Ingredient, Long> {
-  Optional<Ingredient> findByName(String name);
+  /**
+   * Finds the ingredients with the given names, in a single query.
+   *
+   * @param names normalized ingredient names
+   * @return the stored ingredients among them
+   */
+  List<Ingredient> findAllByNameIn(Collection<String> names);
 }
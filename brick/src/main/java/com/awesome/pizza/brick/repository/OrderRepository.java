@@ -1,8 +1,17 @@
 package com.awesome.pizza.brick.repository;
 
 import com.awesome.pizza.brick.entity.Order;
+import com.awesome.pizza.brick.service.KitchenTicket;
+import com.awesome.pizza.brick.service.OrderSummaryRow;
+import com.awesome.pizza.brick.service.OrderStatusCount;
+import com.awesome.pizza.commons.model.OrderStatus;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -17,19 +26,204 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
   Order findByCode(String code);
 
   /**
-   * * Find all orders matching the given statuses and pickup date.
+   * Finds an order by its unique code, with its user and ordered pizzas in the same query.
    *
-   * @param statuses List of order statuses to filter by (optional).
-   * @param pickupDate Date to filter orders by user's pickup window (optional).
-   * @return List of orders matching the criteria.
+   * @param code order code
+   * @return the order, null if not found
    */
+  @EntityGraph(Order.DETAILS_GRAPH)
+  Order findWithDetailsByCode(String code);
+
+  /**
+   * Finds an order by its id, with its user and ordered pizzas in the same query.
+   *
+   * @param id order id
+   * @return the order, if found
+   */
+  @EntityGraph(Order.DETAILS_GRAPH)
+  Optional<Order> findWithDetailsById(Long id);
+
+  /**
+   * Checks, through the STATUS index, whether an order other than the given one is in the given
+   * status.
+   *
+   * @param status status to look for
+   * @param code code of the order to exclude
+   * @return true if another order is in the given status
+   */
+  boolean existsByStatusAndCodeNot(OrderStatus status, String code);
+
+  // Check whether any order is in the given status
+  boolean existsByStatus(OrderStatus status);
+
+  /**
+   * Returns the kitchen tickets of the orders in the given status, without loading the entities.
+   *
+   * @param status order status
+   * @return list of kitchen tickets
+   */
+  @Query(
+      "SELECT new com.awesome.pizza.brick.service.KitchenTicket(o.code, o.id, o.pickupFrom, o.createdAt) "
+          + "FROM Order o WHERE o.status = :status")
+  List<KitchenTicket> findKitchenTicketsByStatus(@Param("status") OrderStatus status);
+
+  /**
+   * Finds the next order to bake among the orders in the given status: earliest pickup window
+   * first, then oldest order. Filter and sorting follow IDX_ORDERS_STATUS_PICKUP, so only the head
+   * of the index range is read.
+   *
+   * @param status order status
+   * @param limit maximum number of orders to return
+   * @return the first orders in baking order
+   */
+  @Query(
+      "SELECT o FROM Order o WHERE o.status = :status "
+          + "ORDER BY o.pickupDate, o.pickupFrom, o.createdAt, o.id")
+  List<Order> findKitchenHead(@Param("status") OrderStatus status, Limit limit);
+
+  /**
+   * Counts the orders of every status, with a single grouped query.
+   *
+   * @return one count per status having at least one order
+   */
+  @Query(
+      "SELECT new com.awesome.pizza.brick.service.OrderStatusCount(o.status, COUNT(o)) "
+          + "FROM Order o GROUP BY o.status")
+  List<OrderStatusCount> countByStatus();
+
+  /** Keyset condition: orders strictly after the cursor, in listing order (none = first page) */
+  String AFTER_CURSOR =
+      " AND (:afterId IS NULL OR o.pickupFrom > :afterPickupFrom OR (o.pickupFrom = :afterPickupFrom"
+          + " AND (o.pickupTo > :afterPickupTo OR (o.pickupTo = :afterPickupTo"
+          + " AND (o.createdAt > :afterCreatedAt OR (o.createdAt = :afterCreatedAt"
+          + " AND o.id > :afterId))))))";
+
+  /** Listing order, matching the keyset of {@link #AFTER_CURSOR} */
+  String LISTING_ORDER = " ORDER BY o.pickupFrom, o.pickupTo, o.createdAt, o.id";
+
+  /**
+   * Find one page of the orders in the given statuses whose pickup window falls on the given day.
+   * Status and day are plain comparisons on the columns of IDX_ORDERS_STATUS_PICKUP, so the lookup
+   * is an index range scan instead of a scan of orders and users; sorting and paging are done by
+   * the database. The users of the page are joined to the orders ({@link Order#LISTING_GRAPH}).
+   *
+   * @param statuses order statuses to filter by
+   * @param pickupDate pickup day
+   * @param pickupDateEnd start of the following day (exclusive upper bound of the pickup window)
+   * @param afterPickupFrom pickupFrom of the cursor (null for the first page)
+   * @param afterPickupTo pickupTo of the cursor (null for the first page)
+   * @param afterCreatedAt createdAt of the cursor (null for the first page)
+   * @param afterId id of the cursor (null for the first page)
+   * @param limit maximum number of orders to return
+   * @return List of orders matching the criteria, in listing order.
+   */
+  @EntityGraph(Order.LISTING_GRAPH)
   @Query(
-      value =
-          "SELECT o.* FROM orders o JOIN users u ON o.user_id = u.id "
-              + "WHERE (:statuses IS NULL OR o.status IN (:statuses)) "
-              + "AND (:pickupDate IS NULL OR (CAST(u.pickup_from AS DATE) >= :pickupDate AND CAST(u.pickup_to AS DATE) <= :pickupDate))",
-      nativeQuery = true)
+      "SELECT o FROM Order o WHERE o.status IN :statuses "
+          + "AND o.pickupDate = :pickupDate AND o.pickupTo < :pickupDateEnd"
+          + AFTER_CURSOR
+          + LISTING_ORDER)
   List<Order> findAllByStatusAndPickupDate(
-      @Nullable @Param("statuses") List<String> statuses,
-      @Nullable @Param("pickupDate") LocalDate pickupDate);
+      @Param("statuses") Collection<OrderStatus> statuses,
+      @Param("pickupDate") LocalDate pickupDate,
+      @Param("pickupDateEnd") LocalDateTime pickupDateEnd,
+      @Nullable @Param("afterPickupFrom") LocalDateTime afterPickupFrom,
+      @Nullable @Param("afterPickupTo") LocalDateTime afterPickupTo,
+      @Nullable @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+      @Nullable @Param("afterId") Long afterId,
+      Limit limit);
+
+  /**
+   * Find one page of the orders in the given statuses, whatever their pickup date. The listing
+   * order is served by IDX_ORDERS_PICKUP, and the users of the page are joined to the orders
+   * ({@link Order#LISTING_GRAPH}).
+   *
+   * @param statuses order statuses to filter by
+   * @param afterPickupFrom pickupFrom of the cursor (null for the first page)
+   * @param afterPickupTo pickupTo of the cursor (null for the first page)
+   * @param afterCreatedAt createdAt of the cursor (null for the first page)
+   * @param afterId id of the cursor (null for the first page)
+   * @param limit maximum number of orders to return
+   * @return List of orders matching the criteria, in listing order.
+   */
+  @EntityGraph(Order.LISTING_GRAPH)
+  @Query("SELECT o FROM Order o WHERE o.status IN :statuses" + AFTER_CURSOR + LISTING_ORDER)
+  List<Order> findAllByStatus(
+      @Param("statuses") Collection<OrderStatus> statuses,
+      @Nullable @Param("afterPickupFrom") LocalDateTime afterPickupFrom,
+      @Nullable @Param("afterPickupTo") LocalDateTime afterPickupTo,
+      @Nullable @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+      @Nullable @Param("afterId") Long afterId,
+      Limit limit);
+
+  /**
+   * Summary columns of the orders, with the names and the quantities of their pizzas aggregated, in
+   * the order they were ordered, into two columns: one row per order, without loading any entity.
+   */
+  String SUMMARY_SELECT =
+      "SELECT new com.awesome.pizza.brick.service.OrderSummaryRow(o.id, o.code, o.status,"
+          + " o.pickupFrom, o.pickupTo, o.createdAt, o.totalPrice,"
+          + " LISTAGG(op.pizzaName, '"
+          + OrderSummaryRow.NAME_SEPARATOR
+          + "') WITHIN GROUP (ORDER BY op.idOrderPizza),"
+          + " LISTAGG(CAST(op.quantity AS String), '"
+          + OrderSummaryRow.NAME_SEPARATOR
+          + "') WITHIN GROUP (ORDER BY op.idOrderPizza))"
+          + " FROM Order o LEFT JOIN o.orderedPizzas op";
+
+  /** Grouping of {@link #SUMMARY_SELECT}, one group per order */
+  String SUMMARY_GROUP =
+      " GROUP BY o.id, o.code, o.status, o.pickupFrom, o.pickupTo, o.createdAt, o.totalPrice";
+
+  /**
+   * Same page as {@link #findAllByStatusAndPickupDate}, as order summaries read with a single
+   * query.
+   *
+   * @param statuses order statuses to filter by
+   * @param pickupDate pickup day
+   * @param pickupDateEnd start of the following day (exclusive upper bound of the pickup window)
+   * @param afterPickupFrom pickupFrom of the cursor (null for the first page)
+   * @param afterPickupTo pickupTo of the cursor (null for the first page)
+   * @param afterCreatedAt createdAt of the cursor (null for the first page)
+   * @param afterId id of the cursor (null for the first page)
+   * @param limit maximum number of orders to return
+   * @return summaries of the orders matching the criteria, in listing order.
+   */
+  @Query(
+      SUMMARY_SELECT
+          + " WHERE o.status IN :statuses"
+          + " AND o.pickupDate = :pickupDate AND o.pickupTo < :pickupDateEnd"
+          + AFTER_CURSOR
+          + SUMMARY_GROUP
+          + LISTING_ORDER)
+  List<OrderSummaryRow> findSummariesByStatusAndPickupDate(
+      @Param("statuses") Collection<OrderStatus> statuses,
+      @Param("pickupDate") LocalDate pickupDate,
+      @Param("pickupDateEnd") LocalDateTime pickupDateEnd,
+      @Nullable @Param("afterPickupFrom") LocalDateTime afterPickupFrom,
+      @Nullable @Param("afterPickupTo") LocalDateTime afterPickupTo,
+      @Nullable @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+      @Nullable @Param("afterId") Long afterId,
+      Limit limit);
+
+  /**
+   * Same page as {@link #findAllByStatus}, as order summaries read with a single query.
+   *
+   * @param statuses order statuses to filter by
+   * @param afterPickupFrom pickupFrom of the cursor (null for the first page)
+   * @param afterPickupTo pickupTo of the cursor (null for the first page)
+   * @param afterCreatedAt createdAt of the cursor (null for the first page)
+   * @param afterId id of the cursor (null for the first page)
+   * @param limit maximum number of orders to return
+   * @return summaries of the orders matching the criteria, in listing order.
+   */
+  @Query(
+      SUMMARY_SELECT + " WHERE o.status IN :statuses" + AFTER_CURSOR + SUMMARY_GROUP + LISTING_ORDER)
+  List<OrderSummaryRow> findSummariesByStatus(
+      @Param("statuses") Collection<OrderStatus> statuses,
+      @Nullable @Param("afterPickupFrom") LocalDateTime afterPickupFrom,
+      @Nullable @Param("afterPickupTo") LocalDateTime afterPickupTo,
+      @Nullable @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+      @Nullable @Param("afterId") Long afterId,
+      Limit limit);
 }
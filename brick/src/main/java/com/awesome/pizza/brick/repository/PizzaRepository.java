@@ -1,9 +1,16 @@
 package com.awesome.pizza.brick.repository;
 
 import com.awesome.pizza.brick.entity.Pizza;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 /** Repository for managing Pizza entities in Awesome Pizza. */
 @Repository
-public interface PizzaRepository extends JpaRepository<Pizza, Long> {}
+public interface PizzaRepository extends JpaRepository<Pizza, Long> {
+
+  // Load the whole menu, ingredients included, in a single query
+  @Query("SELECT DISTINCT p FROM Pizza p LEFT JOIN FETCH p.ingredients ORDER BY p.id")
+  List<Pizza> findAllWithIngredients();
+}
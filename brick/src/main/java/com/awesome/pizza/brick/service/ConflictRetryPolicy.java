@@ -0,0 +1,73 @@
+package com.awesome.pizza.brick.service;
+
+import com.awesome.pizza.brick.exception.OrderException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded retry of the internal order transitions that lost a race with a concurrent update of the
+ * same order (optimistic locking failure).
+ *
+ * <p>Every attempt runs the whole transition again, so the order is re-read and the transition
+ * checked against its fresh state. Attempts are spaced by an exponential backoff with full jitter
+ * (a random pause up to the backoff), so that the contenders do not collide again in lockstep.
+ */
+@Slf4j
+@Component
+public class ConflictRetryPolicy {
+  private final int maxAttempts;
+  private final long initialBackoffNanos;
+  private final long maxBackoffNanos;
+
+  /**
+   * Creates the policy.
+   *
+   * @param maxAttempts attempts of a transition, the first one included
+   * @param initialBackoff backoff after the first conflict, doubled after every further conflict
+   * @param maxBackoff upper bound of the backoff
+   */
+  public ConflictRetryPolicy(
+      @Value("${awesome-pizza.conflict-retry.max-attempts:5}") int maxAttempts,
+      @Value("${awesome-pizza.conflict-retry.initial-backoff:5ms}") Duration initialBackoff,
+      @Value("${awesome-pizza.conflict-retry.max-backoff:100ms}") Duration maxBackoff) {
+    this.maxAttempts = Math.max(1, maxAttempts);
+    this.initialBackoffNanos = initialBackoff.toNanos();
+    this.maxBackoffNanos = maxBackoff.toNanos();
+  }
+
+  /**
+   * Runs the transition, again after every optimistic locking failure until it succeeds or the
+   * attempts are exhausted. Any other exception is propagated at once.
+   *
+   * @param transition transition to run, re-reading the order at every attempt
+   * @param <T> result of the transition
+   * @return result of the first successful attempt
+   * @throws OrderException with reason CONCURRENT_UPDATE if every attempt met a conflict
+   */
+  public <T> T run(Supplier<T> transition) {
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return transition.get();
+      } catch (OptimisticLockingFailureException e) {
+        if (attempt >= maxAttempts) {
+          log.warn("<<< Order transition still conflicting after {} attempts >>>", attempt);
+          throw new OrderException(
+              OrderException.Reason.CONCURRENT_UPDATE,
+              "The order was changed concurrently, reload it and retry.");
+        }
+        pause(attempt);
+      }
+    }
+  }
+
+  private void pause(int attempt) {
+    long backoff = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(attempt - 1, 20));
+    if (backoff > 0) LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(backoff + 1));
+  }
+}
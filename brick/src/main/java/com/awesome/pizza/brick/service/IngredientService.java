@@ -1,35 +1,153 @@
 package com.awesome.pizza.brick.service;
 
 import com.awesome.pizza.brick.entity.Ingredient;
-import com.awesome.pizza.brick.mapper.IngredientMapper;
 import com.awesome.pizza.brick.repository.IngredientRepository;
 import com.awesome.pizza.commons.model.IngredientModel;
-import java.util.Optional;
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
+/**
+ * Resolves ingredient names to the stored ingredients, adding the missing ones.
+ *
+ * <p>Names are normalized (trimmed, inner blanks collapsed, lower case) and the resolved ones are
+ * kept in an in-memory name→id dictionary, so that a known ingredient costs no query. The names
+ * come from the requests, so the dictionary is bounded and keeps the most used ones. The unknown
+ * names of a request are looked up with a single query and the missing ones inserted in a single
+ * JDBC batch. Ingredients are never deleted, so a dictionary entry never goes stale.
+ */
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class IngredientService {
+  private static final Pattern BLANKS = Pattern.compile("\\s+");
+  private static final int MAX_INSERT_ATTEMPTS = 3;
+
   private final IngredientRepository ingredientRepository;
-  private final IngredientMapper ingredientMapper;
+  private final PlatformTransactionManager transactionManager;
+  private final Cache<String, Long> idsByName;
+
+  /**
+   * Creates the service.
+   *
+   * @param ingredientRepository repository of the ingredients
+   * @param transactionManager transaction manager, to insert the missing ingredients
+   * @param dictionarySize names kept in the name→id dictionary
+   */
+  public IngredientService(
+      IngredientRepository ingredientRepository,
+      PlatformTransactionManager transactionManager,
+      @Value("${awesome-pizza.ingredients.dictionary-size:10000}") long dictionarySize) {
+    this.ingredientRepository = ingredientRepository;
+    this.transactionManager = transactionManager;
+    this.idsByName = Caffeine.newBuilder().maximumSize(dictionarySize).build();
+  }
 
   /**
    * Adds a new ingredient if it does not already exist.
    *
    * @param name the ingredient name
+   * @return the stored ingredient
    */
   public IngredientModel addIngredientIfNotExists(String name) {
-    String normalized = name.trim().toLowerCase();
-    Optional<Ingredient> ingredientOpt = ingredientRepository.findByName(normalized);
-    if (ingredientOpt.isEmpty()) {
-      log.info("<<< Ingredient '{}' added to the database >>>", normalized);
-      return ingredientMapper.toModel(
-          ingredientRepository.save(Ingredient.builder().name(normalized).build()));
+    return resolveIngredients(List.of(name)).get(0);
+  }
+
+  /**
+   * Resolves a set of ingredient names to the stored ingredients, adding the missing ones with one
+   * lookup and one batched insert whatever their number.
+   *
+   * <p>The missing ingredients are inserted in a transaction of their own, committed before
+   * returning. If another request inserts some of the same names meanwhile, the names it stored are
+   * read back and the insert retried with the remaining ones.
+   *
+   * @param names ingredient names, normalized and deduplicated before resolution
+   * @return the stored ingredients, one per distinct normalized name, in request order
+   */
+  public List<IngredientModel> resolveIngredients(Collection<String> names) {
+    Set<String> normalized = new LinkedHashSet<>();
+    names.forEach(name -> normalized.add(normalize(name)));
+
+    // Resolved into a map of their own, as the dictionary may evict them meanwhile
+    Map<String, Long> ids = new HashMap<>(idsByName.getAllPresent(normalized));
+    Set<String> unknown = new LinkedHashSet<>();
+    normalized.forEach(
+        name -> {
+          if (!ids.containsKey(name)) unknown.add(name);
+        });
+    if (!unknown.isEmpty()) {
+      Map<String, Long> resolved = lookupOrInsert(unknown);
+      idsByName.putAll(resolved);
+      ids.putAll(resolved);
+    }
+
+    return normalized.stream()
+        .map(name -> IngredientModel.builder().id(ids.get(name)).name(name).build())
+        .toList();
+  }
+
+  /**
+   * Returns the number of names in the dictionary, after the pending evictions.
+   *
+   * @return dictionary size
+   */
+  long dictionarySize() {
+    idsByName.cleanUp();
+    return idsByName.estimatedSize();
+  }
+
+  private Map<String, Long> lookupOrInsert(Set<String> names) {
+    TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+    transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return transaction.execute(status -> insertMissing(names));
+      } catch (DataIntegrityViolationException e) {
+        // Some names were inserted by a concurrent request since the lookup: read them back
+        if (attempt >= MAX_INSERT_ATTEMPTS) throw e;
+        log.info("<<< Ingredients {} inserted concurrently, resolving them again >>>", names);
+      }
     }
-    log.info("<<< Ingredient '{}' already exists in the database >>>", normalized);
-    return ingredientMapper.toModel(ingredientOpt.get());
+  }
+
+  private Map<String, Long> insertMissing(Set<String> names) {
+    Map<String, Long> ids = new HashMap<>();
+    ingredientRepository.findAllByNameIn(names).forEach(i -> ids.put(i.getName(), i.getId()));
+    // Inserted in name order, so that concurrent inserts lock the unique index in the same order
+    List<String> missing =
+        names.stream().filter(name -> !ids.containsKey(name)).sorted().toList();
+    if (!missing.isEmpty()) {
+      ingredientRepository
+          .saveAllAndFlush(
+              missing.stream().map(name -> Ingredient.builder().name(name).build()).toList())
+          .forEach(i -> ids.put(i.getName(), i.getId()));
+      log.info("<<< Ingredients {} added to the database >>>", missing);
+    }
+    return ids;
+  }
+
+  /**
+   * Normalizes an ingredient name as stored: trimmed, inner blanks collapsed, lower case.
+   *
+   * @param name ingredient name
+   * @return the normalized name
+   */
+  static String normalize(String name) {
+    Objects.requireNonNull(name, "Ingredient name must not be null");
+    return BLANKS.matcher(name.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
   }
 }
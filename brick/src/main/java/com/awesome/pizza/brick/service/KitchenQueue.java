@@ -0,0 +1,118 @@
+package com.awesome.pizza.brick.service;
+
+import com.awesome.pizza.brick.entity.Order;
+import com.awesome.pizza.brick.repository.OrderRepository;
+import com.awesome.pizza.commons.model.OrderStatus;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory queue of the QUEUED orders, in baking order (pickupFrom, then createdAt).
+ *
+ * <p>The queue is rebuilt from the database when the application is ready, kept in sync by {@link
+ * OrderService} and periodically reloaded with the orders queued by other instances. Every
+ * operation is O(log n) and lock-free. The queue only decides which order to try next: the order
+ * status in the database, guarded by the kitchen slot constraint, stays the source of truth, so
+ * stale tickets (e.g. orders changed by another instance) are simply skipped when claimed.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class KitchenQueue {
+  private final OrderRepository orderRepository;
+
+  private final ConcurrentSkipListSet<KitchenTicket> tickets = new ConcurrentSkipListSet<>();
+  private final ConcurrentHashMap<String, KitchenTicket> ticketsByCode = new ConcurrentHashMap<>();
+
+  /** Loads every QUEUED order from the database, without hydrating the order entities. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuild() {
+    tickets.clear();
+    ticketsByCode.clear();
+    orderRepository.findKitchenTicketsByStatus(OrderStatus.QUEUED).forEach(this::offer);
+    log.info("<<< Kitchen queue rebuilt with {} orders >>>", tickets.size());
+  }
+
+  /**
+   * Adds the QUEUED orders of the database, among which those created by other instances, without
+   * emptying the queue meanwhile. Tickets of orders no longer queued are left to be discarded when
+   * they reach the head.
+   */
+  @Scheduled(
+      fixedDelayString = "${awesome-pizza.kitchen.resync-interval:1m}",
+      initialDelayString = "${awesome-pizza.kitchen.resync-interval:1m}")
+  public void resync() {
+    int before = tickets.size();
+    orderRepository.findKitchenTicketsByStatus(OrderStatus.QUEUED).forEach(this::offer);
+    log.debug("<<< Kitchen queue resynced: {} -> {} orders >>>", before, tickets.size());
+  }
+
+  /**
+   * Aligns the queue with the given order: QUEUED orders are (re)inserted at their position, any
+   * other order is removed.
+   *
+   * @param order order just saved
+   */
+  public void sync(Order order) {
+    if (order.getStatus() == OrderStatus.QUEUED)
+      offer(
+          new KitchenTicket(
+              order.getCode(), order.getId(), order.getPickupFrom(), order.getCreatedAt()));
+    else remove(order.getCode());
+  }
+
+  /**
+   * Inserts a ticket, replacing the previous ticket of the same order if any.
+   *
+   * @param ticket ticket to insert
+   */
+  public void offer(KitchenTicket ticket) {
+    ticketsByCode.compute(
+        ticket.code(),
+        (code, previous) -> {
+          if (Objects.nonNull(previous)) tickets.remove(previous);
+          tickets.add(ticket);
+          return ticket;
+        });
+  }
+
+  /**
+   * Removes the ticket of the given order, if any.
+   *
+   * @param code order code
+   */
+  public void remove(String code) {
+    ticketsByCode.computeIfPresent(
+        code,
+        (c, previous) -> {
+          tickets.remove(previous);
+          return null;
+        });
+  }
+
+  /**
+   * Returns, without removing it, the ticket of the next order to bake.
+   *
+   * @return the head ticket, or empty if no order is queued
+   */
+  public Optional<KitchenTicket> peek() {
+    return tickets.stream().findFirst();
+  }
+
+  /**
+   * Returns the number of queued orders.
+   *
+   * @return queue size
+   */
+  public int size() {
+    return tickets.size();
+  }
+}
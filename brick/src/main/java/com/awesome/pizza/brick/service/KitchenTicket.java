@@ -0,0 +1,28 @@
+package com.awesome.pizza.brick.service;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+/**
+ * Entry of the {@link KitchenQueue}: the few order columns needed to decide which order to bake
+ * next. Tickets are ordered by pickupFrom, then createdAt, then id.
+ *
+ * @param code order code
+ * @param id order id
+ * @param pickupFrom start of the pickup window
+ * @param createdAt creation timestamp of the order
+ */
+public record KitchenTicket(String code, Long id, LocalDateTime pickupFrom, LocalDateTime createdAt)
+    implements Comparable<KitchenTicket> {
+  private static final Comparator<KitchenTicket> ORDER =
+      Comparator.comparing(
+              KitchenTicket::pickupFrom, Comparator.nullsLast(Comparator.naturalOrder()))
+          .thenComparing(KitchenTicket::createdAt, Comparator.nullsLast(Comparator.naturalOrder()))
+          .thenComparing(KitchenTicket::id)
+          .thenComparing(KitchenTicket::code);
+
+  @Override
+  public int compareTo(KitchenTicket other) {
+    return ORDER.compare(this, other);
+  }
+}
@@ -0,0 +1,92 @@
+package com.awesome.pizza.brick.service;
+
+import com.awesome.pizza.commons.model.PizzaModel;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Immutable view of the menu (pizzas with their ingredients) served by {@link PizzaService}.
+ *
+ * <p>The snapshot is shared between requests: the contained models must be treated as read-only.
+ * The ETag is a SHA-256 digest of the serialized menu, so every brick instance exposes the same tag
+ * for the same menu, and a changed menu never gets the tag of a previous one.
+ *
+ * @param version generation of the menu this snapshot was built for
+ * @param builtAt {@link System#nanoTime()} when the snapshot was built
+ * @param etag strong ETag of the full menu
+ * @param pizzas all pizzas, ordered by id
+ * @param pizzasById the same pizzas indexed by id
+ */
+public record MenuSnapshot(
+    long version,
+    long builtAt,
+    String etag,
+    List<PizzaModel> pizzas,
+    Map<Long, PizzaModel> pizzasById) {
+
+  /** Serializes the menu for its digest, with the properties always in the same order */
+  private static final ObjectMapper CANONICAL_JSON =
+      JsonMapper.builder().enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY).build();
+
+  /**
+   * Builds a snapshot from the given pizzas.
+   *
+   * @param version menu generation
+   * @param pizzas pizzas of the menu
+   * @return the snapshot
+   */
+  public static MenuSnapshot of(long version, List<PizzaModel> pizzas) {
+    Map<Long, PizzaModel> byId = new LinkedHashMap<>();
+    pizzas.forEach(p -> byId.put(p.getId(), p));
+    byte[] menu;
+    try {
+      menu = CANONICAL_JSON.writeValueAsBytes(pizzas);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Cannot serialize the menu", e);
+    }
+    return new MenuSnapshot(
+        version,
+        System.nanoTime(),
+        "\"menu-" + sha256(menu) + "\"",
+        List.copyOf(pizzas),
+        Collections.unmodifiableMap(byId));
+  }
+
+  /**
+   * Returns the pizzas matching the given ids, in menu order. Unknown ids are ignored.
+   *
+   * @param ids pizza ids
+   * @return matching pizzas
+   */
+  public List<PizzaModel> findByIds(Collection<Long> ids) {
+    Set<Long> requested = new HashSet<>(ids);
+    return pizzas.stream().filter(p -> requested.contains(p.getId())).toList();
+  }
+
+  /**
+   * Returns the ETag of the subset of the menu selected by the given ids: a digest of the menu ETag
+   * and of the sorted, distinct ids.
+   *
+   * @param ids pizza ids
+   * @return strong ETag of the selection
+   */
+  public String etagFor(Collection<Long> ids) {
+    Set<Long> selection = new TreeSet<>();
+    ids.stream().filter(Objects::nonNull).forEach(selection::add);
+    return "\"menu-" + sha256((etag + selection).getBytes(StandardCharsets.UTF_8)) + "\"";
+  }
+
+  private static String sha256(byte[] content) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+}
@@ -0,0 +1,161 @@
+package com.awesome.pizza.brick.service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lock-free {@link OrderCodeGenerator} producing codes such as {@code ORD-0JQ8ZK3V5M2A7}.
+ *
+ * <p>Each code encodes a 63-bit value made of:
+ *
+ * <ul>
+ *   <li>41 bits: milliseconds since 2025-01-01T00:00:00Z;
+ *   <li>10 bits: node id, distinct for every brick instance;
+ *   <li>12 bits: sequence within the same millisecond.
+ * </ul>
+ *
+ * <p>The value is encoded in 13 Crockford base32 characters, so codes have a fixed length and sort
+ * in creation order. Timestamp and sequence advance together through a single CAS on an {@link
+ * AtomicLong}: when the sequence of a millisecond is exhausted, or the clock goes backwards, the
+ * generator keeps counting on the next millisecond instead of blocking.
+ *
+ * <p>The node id is {@code awesome-pizza.order-code.node-id} when set. Otherwise, when {@code
+ * awesome-pizza.order-code.stateful-set} names the stateful set running brick, it is the ordinal
+ * its replicas carry in their host name ({@code brick-3} is node 3). Other host names are never
+ * parsed, since their numbers ({@code ip-10-0-1-17}) need not differ between hosts. Without
+ * either setting the node id is 0. Profiles running several instances set {@code
+ * awesome-pizza.order-code.node-id-required} so that a missing node id stops the startup.
+ */
+@Slf4j
+@Component
+public class MonotonicOrderCodeGenerator implements OrderCodeGenerator {
+  static final long EPOCH_MILLIS = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+  static final int NODE_BITS = 10;
+  static final int SEQUENCE_BITS = 12;
+  static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+  private static final String PREFIX = "ORD-";
+  private static final int CODE_LENGTH = 13;
+  private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+  private final long nodeId;
+  private final LongSupplier clock;
+
+  /** Last issued (timestamp, sequence) pair, packed as timestamp << SEQUENCE_BITS | sequence. */
+  private final AtomicLong lastTick = new AtomicLong();
+
+  /**
+   * Creates the generator for this brick instance.
+   *
+   * @param nodeId node id between 0 and 1023, null if not configured
+   * @param nodeIdRequired whether the node id must be configured
+   * @param statefulSet name of the stateful set whose replica ordinal is the node id, null if
+   *     brick does not run in a stateful set
+   * @throws IllegalStateException if the node id is required but not configured, or if the host
+   *     name is not a replica of the stateful set
+   */
+  @Autowired
+  public MonotonicOrderCodeGenerator(
+      @Value("${awesome-pizza.order-code.node-id:#{null}}") Integer nodeId,
+      @Value("${awesome-pizza.order-code.node-id-required:false}") boolean nodeIdRequired,
+      @Value("${awesome-pizza.order-code.stateful-set:#{null}}") String statefulSet) {
+    this(
+        resolveNodeId(nodeId, nodeIdRequired, statefulSet, hostname()), System::currentTimeMillis);
+  }
+
+  MonotonicOrderCodeGenerator(long nodeId, LongSupplier clock) {
+    if (nodeId < 0 || nodeId > MAX_NODE_ID)
+      throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID);
+    this.nodeId = nodeId;
+    this.clock = clock;
+  }
+
+  @Override
+  public String nextCode() {
+    return PREFIX + encode(nextId());
+  }
+
+  /**
+   * Returns the next raw identifier, strictly greater than every identifier issued before by this
+   * generator.
+   *
+   * @return the identifier
+   */
+  long nextId() {
+    long now = (clock.getAsLong() - EPOCH_MILLIS) << SEQUENCE_BITS;
+    long tick = lastTick.updateAndGet(prev -> Math.max(prev + 1, now));
+    long timestamp = tick >>> SEQUENCE_BITS;
+    long sequence = tick & ((1L << SEQUENCE_BITS) - 1);
+    return timestamp << (NODE_BITS + SEQUENCE_BITS) | nodeId << SEQUENCE_BITS | sequence;
+  }
+
+  private static String encode(long value) {
+    char[] chars = new char[CODE_LENGTH];
+    for (int i = CODE_LENGTH - 1; i >= 0; i--) {
+      chars[i] = ALPHABET[(int) (value & 31)];
+      value >>>= 5;
+    }
+    return new String(chars);
+  }
+
+  /**
+   * Resolves the node id of this instance, deterministically.
+   *
+   * @param configured configured node id, null if not set
+   * @param required whether the node id must be configured
+   * @param statefulSet name of the stateful set running brick, null if none
+   * @param hostname host name of this instance, null if unknown
+   * @return the configured node id, else the replica ordinal, else 0
+   * @throws IllegalStateException if the node id is required but not configured, or if the host
+   *     name is not a replica of the stateful set, or if its ordinal is out of range
+   */
+  static long resolveNodeId(
+      Integer configured, boolean required, String statefulSet, String hostname) {
+    if (Objects.nonNull(configured)) return configured;
+    if (Objects.nonNull(statefulSet) && !statefulSet.isBlank())
+      return replicaOrdinal(statefulSet, hostname);
+    if (required)
+      throw new IllegalStateException(
+          "awesome-pizza.order-code.node-id must be set to a distinct id (0-"
+              + MAX_NODE_ID
+              + ") on each instance");
+    log.warn(
+        "<<< awesome-pizza.order-code.node-id not set, using node id 0: instances sharing it can"
+            + " generate the same order codes >>>");
+    return 0;
+  }
+
+  private static long replicaOrdinal(String statefulSet, String hostname) {
+    Pattern replica = Pattern.compile(Pattern.quote(statefulSet) + "-(0|[1-9]\\d{0,3})");
+    Matcher ordinal = replica.matcher(Objects.requireNonNullElse(hostname, ""));
+    if (!ordinal.matches())
+      throw new IllegalStateException(
+          "Host name " + hostname + " is not a replica of the stateful set " + statefulSet);
+    int nodeId = Integer.parseInt(ordinal.group(1));
+    if (nodeId > MAX_NODE_ID)
+      throw new IllegalStateException(
+          "Replica ordinal " + nodeId + " exceeds the largest node id " + MAX_NODE_ID);
+    log.info("<<< Using node id {} from stateful set replica {} >>>", nodeId, hostname);
+    return nodeId;
+  }
+
+  private static String hostname() {
+    String hostname = System.getenv("HOSTNAME");
+    if (Objects.nonNull(hostname)) return hostname;
+    try {
+      return InetAddress.getLocalHost().getHostName();
+    } catch (UnknownHostException e) {
+      return null;
+    }
+  }
+}
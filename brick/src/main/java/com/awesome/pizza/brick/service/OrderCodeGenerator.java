@@ -0,0 +1,12 @@
+package com.awesome.pizza.brick.service;
+
+/** Strategy for generating the unique tracking code of an order. */
+public interface OrderCodeGenerator {
+
+  /**
+   * Returns a new order code, never returned before by any generator sharing the same database.
+   *
+   * @return the generated code
+   */
+  String nextCode();
+}
@@ -0,0 +1,225 @@
+package com.awesome.pizza.brick.service;
+
+import com.awesome.pizza.brick.model.OrderStatusEvent;
+import com.awesome.pizza.commons.model.OrderStatus;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Fans order status transitions out to the Server-Sent Events subscribers of this instance.
+ *
+ * <p>Publishing never blocks on the network: every subscriber owns a bounded buffer, drained by at
+ * most one task at a time. Writes block on the client socket, so they run on a virtual thread per
+ * task owned by the broadcaster: a stalled client parks its own thread only, and never holds up the
+ * other subscribers or the application task executor. A subscriber whose buffer is full is too slow
+ * to keep up and is evicted (its stream is completed, the client may reconnect and reload the
+ * order).
+ */
+@Slf4j
+@Component
+public class OrderEventBroadcaster {
+  static final String EVENT_NAME = "status";
+
+  private final int bufferSize;
+  private final long timeoutMillis;
+  private final Executor executor;
+
+  private final Map<String, Set<Subscriber>> subscribersByCode = new ConcurrentHashMap<>();
+  private final Set<Subscriber> staffSubscribers = ConcurrentHashMap.newKeySet();
+  private final AtomicLong eventIds = new AtomicLong();
+
+  /**
+   * Creates the broadcaster.
+   *
+   * @param bufferSize events buffered for each subscriber before it is evicted
+   * @param timeout lifetime of a stream, after which the client has to reconnect
+   */
+  @Autowired
+  public OrderEventBroadcaster(
+      @Value("${awesome-pizza.order-events.buffer-size:32}") int bufferSize,
+      @Value("${awesome-pizza.order-events.timeout:30m}") Duration timeout) {
+    this(bufferSize, timeout, newSenderExecutor());
+  }
+
+  OrderEventBroadcaster(int bufferSize, Duration timeout, Executor executor) {
+    if (bufferSize < 1) throw new IllegalArgumentException("Buffer size must be positive");
+    this.bufferSize = bufferSize;
+    this.timeoutMillis = timeout.toMillis();
+    this.executor = executor;
+  }
+
+  /**
+   * Creates the executor writing the events to the subscribers: one virtual thread per drain.
+   *
+   * @return the executor
+   */
+  static ExecutorService newSenderExecutor() {
+    return Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("order-events-", 0).factory());
+  }
+
+  /**
+   * Opens a stream of the status transitions of one order, starting with its current status.
+   *
+   * @param code order code
+   * @param currentStatus current status of the order
+   * @return the stream
+   */
+  public SseEmitter subscribe(String code, OrderStatus currentStatus) {
+    Subscriber subscriber = register(code, new SseEmitter(timeoutMillis));
+    subscriber.enqueue(new OrderStatusEvent(code, null, currentStatus, null));
+    return subscriber.emitter;
+  }
+
+  /**
+   * Opens a stream of the status transitions of every order.
+   *
+   * @return the stream
+   */
+  public SseEmitter subscribeAll() {
+    return register(null, new SseEmitter(timeoutMillis)).emitter;
+  }
+
+  /**
+   * Pushes a status transition to the subscribers of the order and to the staff subscribers.
+   *
+   * @param event status transition
+   */
+  public void publish(OrderStatusEvent event) {
+    Set<Subscriber> forOrder = subscribersByCode.get(event.code());
+    if (Objects.nonNull(forOrder)) forOrder.forEach(s -> s.enqueue(event));
+    staffSubscribers.forEach(s -> s.enqueue(event));
+  }
+
+  /**
+   * Returns the number of open streams.
+   *
+   * @return number of subscribers
+   */
+  public int subscriberCount() {
+    return staffSubscribers.size()
+        + subscribersByCode.values().stream().mapToInt(Set::size).sum();
+  }
+
+  /** Completes every open stream, so that they do not hold up the graceful shutdown. */
+  @EventListener(ContextClosedEvent.class)
+  public void completeAll() {
+    log.info("<<< Completing {} order event streams >>>", subscriberCount());
+    staffSubscribers.forEach(Subscriber::complete);
+    subscribersByCode.values().forEach(subscribers -> subscribers.forEach(Subscriber::complete));
+  }
+
+  Subscriber register(String code, SseEmitter emitter) {
+    Subscriber subscriber = new Subscriber(code, emitter);
+    if (Objects.isNull(code)) staffSubscribers.add(subscriber);
+    else
+      subscribersByCode.compute(
+          code,
+          (c, set) -> {
+            if (Objects.isNull(set)) set = ConcurrentHashMap.newKeySet();
+            set.add(subscriber);
+            return set;
+          });
+    emitter.onCompletion(subscriber::unregister);
+    emitter.onTimeout(subscriber::unregister);
+    emitter.onError(e -> subscriber.unregister());
+    return subscriber;
+  }
+
+  /** Open stream with its bounded buffer of events not yet written. */
+  final class Subscriber {
+    private final String code;
+    private final SseEmitter emitter;
+    private final BlockingQueue<OrderStatusEvent> buffer;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private Subscriber(String code, SseEmitter emitter) {
+      this.code = code;
+      this.emitter = emitter;
+      this.buffer = new ArrayBlockingQueue<>(bufferSize);
+    }
+
+    void enqueue(OrderStatusEvent event) {
+      if (closed.get()) return;
+      if (!buffer.offer(event)) {
+        log.warn("<<< Evicting slow order event subscriber {} >>>", describe());
+        close();
+        return;
+      }
+      scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+      if (draining.compareAndSet(false, true)) executor.execute(this::drain);
+    }
+
+    private void drain() {
+      try {
+        OrderStatusEvent event;
+        while (!closed.get() && Objects.nonNull(event = buffer.poll())) {
+          emitter.send(
+              SseEmitter.event()
+                  .id(Long.toString(eventIds.incrementAndGet()))
+                  .name(EVENT_NAME)
+                  .data(event));
+          // The stream of a single order ends with its last status
+          if (Objects.nonNull(code) && event.status() == OrderStatus.DELIVERED) close();
+        }
+      } catch (IOException | IllegalStateException e) {
+        log.debug("<<< Order event subscriber {} disconnected: {} >>>", describe(), e.getMessage());
+        unregister();
+      } finally {
+        draining.set(false);
+      }
+      // An event may have been buffered after the last poll and before the flag was reset
+      if (!closed.get() && !buffer.isEmpty()) scheduleDrain();
+    }
+
+    private void close() {
+      if (closed.compareAndSet(false, true)) {
+        unregister();
+        // Completing waits for a send in progress, which may be stuck on a slow client
+        executor.execute(emitter::complete);
+      }
+    }
+
+    private void complete() {
+      if (closed.compareAndSet(false, true)) {
+        unregister();
+        emitter.complete();
+      }
+    }
+
+    void unregister() {
+      closed.set(true);
+      buffer.clear();
+      if (Objects.isNull(code)) staffSubscribers.remove(this);
+      else
+        subscribersByCode.computeIfPresent(
+            code, (c, set) -> set.remove(this) && set.isEmpty() ? null : set);
+    }
+
+    private String describe() {
+      return Objects.isNull(code) ? "(all orders)" : code;
+    }
+  }
+}
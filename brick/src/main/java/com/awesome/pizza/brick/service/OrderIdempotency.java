@@ -0,0 +1,263 @@
+package com.awesome.pizza.brick.service;
+
+import com.awesome.pizza.brick.entity.IdempotencyKey;
+import com.awesome.pizza.brick.exception.OrderException;
+import com.awesome.pizza.brick.exception.OrderException.Reason;
+import com.awesome.pizza.brick.model.RequestUserOrderModel;
+import com.awesome.pizza.brick.repository.IdempotencyKeyRepository;
+import com.awesome.pizza.commons.model.OrderModel;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Idempotent order creation: a creation retried with the same Idempotency-Key returns the order
+ * created the first time instead of creating a duplicate.
+ *
+ * <p>The created orders are kept, by key, in a bounded LRU cache in front of the IDEMPOTENCY_KEYS
+ * table, which is written in the same transaction as the order and so survives restarts. Keys
+ * expire after a TTL and are purged periodically. Concurrent requests with the same key are
+ * coalesced: only the first one creates the order, the others wait for its result.
+ */
+@Slf4j
+@Component
+public class OrderIdempotency {
+  /** Longest accepted idempotency key. */
+  public static final int MAX_KEY_LENGTH = 255;
+
+  private final OrderService orderService;
+  private final IdempotencyKeyRepository idempotencyKeyRepository;
+  private final TransactionTemplate transactions;
+  private final ObjectMapper objectMapper;
+  private final Duration ttl;
+  private final Map<String, CreatedOrder> cache;
+  private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+  /**
+   * Creates the idempotent creation service.
+   *
+   * @param orderService service creating the orders
+   * @param idempotencyKeyRepository repository of the stored keys
+   * @param transactionManager transaction manager, to store the key with the order
+   * @param objectMapper mapper of the stored orders and of the request fingerprints
+   * @param ttl time after which a key expires and can be used for a new order
+   * @param cacheSize keys kept in memory, the least recently used ones are read back from the table
+   */
+  public OrderIdempotency(
+      OrderService orderService,
+      IdempotencyKeyRepository idempotencyKeyRepository,
+      PlatformTransactionManager transactionManager,
+      ObjectMapper objectMapper,
+      @Value("${awesome-pizza.idempotency.ttl:24h}") Duration ttl,
+      @Value("${awesome-pizza.idempotency.cache-size:10000}") int cacheSize) {
+    if (cacheSize < 1) throw new IllegalArgumentException("Cache size must be positive");
+    this.orderService = orderService;
+    this.idempotencyKeyRepository = idempotencyKeyRepository;
+    this.transactions = new TransactionTemplate(transactionManager);
+    this.objectMapper = objectMapper;
+    this.ttl = ttl;
+    this.cache =
+        Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+              @Override
+              protected boolean removeEldestEntry(Map.Entry<String, CreatedOrder> eldest) {
+                return size() > cacheSize;
+              }
+            });
+  }
+
+  /**
+   * Creates an order once per idempotency key. A repeated key returns the order created the first
+   * time; a key in use by a creation still running waits for it.
+   *
+   * @param key idempotency key chosen by the client
+   * @param model order data to create
+   * @return the order created for the key
+   * @throws OrderException if the key is invalid, if it was used for a different order or if the
+   *     order is invalid
+   */
+  public OrderModel createOrder(String key, RequestUserOrderModel model) {
+    log.info("<<< OrderIdempotency.createOrder called with key: {} >>>", key);
+    if (Objects.isNull(key) || key.isBlank() || key.length() > MAX_KEY_LENGTH)
+      throw new OrderException(
+          Reason.INVALID_QUERY,
+          "Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters.");
+    String requestHash = fingerprint(model);
+
+    CreatedOrder created = lookup(key);
+    if (Objects.nonNull(created)) return replay(key, created, requestHash);
+
+    InFlight mine = new InFlight(requestHash, new CompletableFuture<>());
+    InFlight running = inFlight.putIfAbsent(key, mine);
+    if (Objects.nonNull(running)) {
+      checkSameRequest(key, running.requestHash(), requestHash);
+      log.info("<<< Waiting for the creation in progress with key: {} >>>", key);
+      return await(running.result());
+    }
+    try {
+      // The previous creation with this key may have completed since the lookup
+      created = lookup(key);
+      OrderModel order =
+          Objects.nonNull(created)
+              ? replay(key, created, requestHash)
+              : create(key, requestHash, model);
+      mine.result().complete(order);
+      return order;
+    } catch (RuntimeException e) {
+      mine.result().completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, mine);
+    }
+  }
+
+  /** Deletes the expired keys, from the table and from the cache. */
+  @Scheduled(
+      fixedDelayString = "${awesome-pizza.idempotency.purge-interval:10m}",
+      initialDelayString = "${awesome-pizza.idempotency.purge-interval:10m}")
+  public void purgeExpired() {
+    int purged = idempotencyKeyRepository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+    synchronized (cache) {
+      cache.values().removeIf(this::isExpired);
+    }
+    if (purged > 0) log.info("<<< Purged {} expired idempotency keys >>>", purged);
+  }
+
+  private OrderModel create(String key, String requestHash, RequestUserOrderModel model) {
+    LocalDateTime now = LocalDateTime.now();
+    OrderModel order;
+    try {
+      order =
+          transactions.execute(
+              status -> {
+                idempotencyKeyRepository.deleteExpired(key, now.minus(ttl));
+                OrderModel saved = orderService.createOrder(model);
+                idempotencyKeyRepository.saveAndFlush(
+                    IdempotencyKey.builder()
+                        .key(key)
+                        .requestHash(requestHash)
+                        .orderCode(saved.getCode())
+                        .response(toJson(saved))
+                        .createdAt(now)
+                        .build());
+                return saved;
+              });
+    } catch (DataIntegrityViolationException e) {
+      // Stored meanwhile by another instance, whose order is kept: this one was rolled back
+      CreatedOrder stored = lookup(key);
+      if (Objects.isNull(stored)) throw e;
+      return replay(key, stored, requestHash);
+    }
+    cache.put(key, new CreatedOrder(requestHash, order, now));
+    log.info("<<< Order {} created with idempotency key: {} >>>", order.getCode(), key);
+    return order;
+  }
+
+  /**
+   * Finds the unexpired order created for a key, in the cache or else in the table.
+   *
+   * @param key idempotency key
+   * @return the created order, null if the key is unknown or expired
+   */
+  private CreatedOrder lookup(String key) {
+    CreatedOrder created = cache.get(key);
+    if (Objects.isNull(created)) {
+      created =
+          idempotencyKeyRepository
+              .findById(key)
+              .map(
+                  stored ->
+                      new CreatedOrder(
+                          stored.getRequestHash(),
+                          fromJson(stored.getResponse()),
+                          stored.getCreatedAt()))
+              .orElse(null);
+      if (Objects.isNull(created)) return null;
+      cache.put(key, created);
+    }
+    if (isExpired(created)) {
+      cache.remove(key);
+      return null;
+    }
+    return created;
+  }
+
+  private OrderModel replay(String key, CreatedOrder created, String requestHash) {
+    checkSameRequest(key, created.requestHash(), requestHash);
+    log.info("<<< Order {} already created with idempotency key: {} >>>", created.code(), key);
+    return created.order();
+  }
+
+  private static void checkSameRequest(String key, String expectedHash, String requestHash) {
+    if (!expectedHash.equals(requestHash))
+      throw new OrderException(
+          Reason.IDEMPOTENCY_KEY_REUSED,
+          "Idempotency key " + key + " was already used for a different order.");
+  }
+
+  private static OrderModel await(CompletableFuture<OrderModel> result) {
+    try {
+      return result.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) throw cause;
+      throw e;
+    }
+  }
+
+  private boolean isExpired(CreatedOrder created) {
+    return created.createdAt().plus(ttl).isBefore(LocalDateTime.now());
+  }
+
+  private String fingerprint(RequestUserOrderModel model) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(model)));
+    } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+      throw new IllegalStateException("Cannot fingerprint the order request", e);
+    }
+  }
+
+  private String toJson(OrderModel order) {
+    try {
+      return objectMapper.writeValueAsString(order);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Cannot store the created order", e);
+    }
+  }
+
+  private OrderModel fromJson(String json) {
+    try {
+      return objectMapper.readValue(json, OrderModel.class);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Cannot read the stored order", e);
+    }
+  }
+
+  /** Order created for a key, with the fingerprint of its request. */
+  private record CreatedOrder(String requestHash, OrderModel order, LocalDateTime createdAt) {
+    String code() {
+      return order.getCode();
+    }
+  }
+
+  /** Creation running for a key, awaited by the duplicates of its request. */
+  private record InFlight(String requestHash, CompletableFuture<OrderModel> result) {}
+}
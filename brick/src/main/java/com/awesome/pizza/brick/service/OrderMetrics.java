@@ -0,0 +1,131 @@
+package com.awesome.pizza.brick.service;
+
+import com.awesome.pizza.brick.exception.OrderException;
+import com.awesome.pizza.brick.repository.OrderRepository;
+import com.awesome.pizza.commons.model.OrderStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Business metrics of the orders: counters of the orders created, updated, deleted and rejected
+ * (by {@link OrderException.Reason}, for the reasons that refuse an order creation or change), and
+ * a gauge of the orders in every {@link OrderStatus}.
+ *
+ * <p>The gauges read in-memory counters, so a scrape never queries the database: they are seeded
+ * from the database when the application is ready and then kept in sync by {@link OrderService}.
+ * Like the {@link KitchenQueue}, they only see the changes made through this instance until the
+ * next restart.
+ */
+@Slf4j
+@Component
+public class OrderMetrics {
+  static final String ORDERS = "awesome.pizza.orders.status";
+  // Not ".created": the suffix is reserved by Prometheus for the creation timestamp of counters
+  static final String CREATED = "awesome.pizza.orders.placed";
+  static final String UPDATED = "awesome.pizza.orders.updated";
+  static final String DELETED = "awesome.pizza.orders.deleted";
+  static final String REJECTED = "awesome.pizza.orders.rejected";
+
+  private final OrderRepository orderRepository;
+  private final Counter created;
+  private final Counter updated;
+  private final Counter deleted;
+  private final Map<OrderException.Reason, Counter> rejected =
+      new EnumMap<>(OrderException.Reason.class);
+  private final Map<OrderStatus, AtomicLong> ordersByStatus = new EnumMap<>(OrderStatus.class);
+
+  /**
+   * Creates the metrics and registers them, so that every series is exported from the start.
+   *
+   * @param registry meter registry
+   * @param orderRepository repository used to seed the gauges
+   */
+  public OrderMetrics(MeterRegistry registry, OrderRepository orderRepository) {
+    this.orderRepository = orderRepository;
+    this.created = Counter.builder(CREATED).description("Orders created").register(registry);
+    this.updated =
+        Counter.builder(UPDATED)
+            .description("Orders updated, including status changes")
+            .register(registry);
+    this.deleted = Counter.builder(DELETED).description("Orders deleted").register(registry);
+    for (OrderException.Reason reason : OrderException.Reason.values())
+      if (reason.isOrderRejection())
+        rejected.put(
+            reason,
+            Counter.builder(REJECTED)
+                .description("Order creations and changes rejected")
+                .tag("reason", reason.name())
+                .register(registry));
+    for (OrderStatus status : OrderStatus.values()) {
+      AtomicLong count = new AtomicLong();
+      ordersByStatus.put(status, count);
+      Gauge.builder(ORDERS, count, AtomicLong::get)
+          .description("Orders in each status")
+          .tag("status", status.name())
+          .register(registry);
+    }
+  }
+
+  /** Seeds the order gauges from the database, with a single grouped query. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuild() {
+    ordersByStatus.values().forEach(count -> count.set(0));
+    for (OrderStatusCount count : orderRepository.countByStatus())
+      ordersByStatus.get(count.status()).set(count.count());
+    log.info("<<< Order gauges rebuilt: {} >>>", ordersByStatus);
+  }
+
+  /**
+   * Records a new order.
+   *
+   * @param status status of the new order
+   */
+  public void created(OrderStatus status) {
+    created.increment();
+    ordersByStatus.get(status).incrementAndGet();
+  }
+
+  /**
+   * Records an order update, moving the order between the status gauges if its status changed.
+   *
+   * @param previousStatus status before the update
+   * @param status status after the update
+   */
+  public void updated(OrderStatus previousStatus, OrderStatus status) {
+    updated.increment();
+    if (previousStatus != status) {
+      ordersByStatus.get(previousStatus).decrementAndGet();
+      ordersByStatus.get(status).incrementAndGet();
+    }
+  }
+
+  /**
+   * Records a deleted order.
+   *
+   * @param status status of the order when it was deleted
+   */
+  public void deleted(OrderStatus status) {
+    deleted.increment();
+    ordersByStatus.get(status).decrementAndGet();
+  }
+
+  /**
+   * Records a rejected order request. Failures that do not refuse an order creation or change, such
+   * as a lookup of a missing order, are not counted.
+   *
+   * @param reason cause of the rejection, counted as {@link OrderException.Reason#OTHER} if null
+   */
+  public void rejected(OrderException.Reason reason) {
+    Counter counter = rejected.get(Objects.requireNonNullElse(reason, OrderException.Reason.OTHER));
+    if (Objects.nonNull(counter)) counter.increment();
+  }
+}
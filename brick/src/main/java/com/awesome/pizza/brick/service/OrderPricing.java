@@ -0,0 +1,52 @@
+package com.awesome.pizza.brick.service;
+
+import com.awesome.pizza.brick.entity.OrderPizza;
+import com.awesome.pizza.brick.exception.OrderException;
+import com.awesome.pizza.brick.exception.OrderException.Reason;
+import com.awesome.pizza.commons.money.Money;
+import java.util.Currency;
+import java.util.List;
+import java.util.Objects;
+
+/** Prices the orders of Awesome Pizza from their lines, in cents (see {@link Money}). */
+public final class OrderPricing {
+  private OrderPricing() {}
+
+  /**
+   * Calculates the total price of an order, summing the unit prices times the quantities in
+   * cents, without allocating anything but the result.
+   *
+   * @param pizzas list of ordered pizzas
+   * @return total price
+   * @throws OrderException if there is no line, if a line has no price or a price in another
+   *     currency than the first line, or if the total overflows
+   */
+  public static Money totalPrice(List<OrderPizza> pizzas) {
+    if (pizzas.isEmpty())
+      throw new OrderException(Reason.INVALID_ORDER, "An order must have at least one pizza.");
+    Currency currency = null;
+    long cents = 0;
+    try {
+      for (int i = 0; i < pizzas.size(); i++) {
+        OrderPizza line = pizzas.get(i);
+        Money unitPrice = line.getUnitPrice();
+        if (Objects.isNull(unitPrice))
+          throw new OrderException(
+              Reason.INVALID_ORDER, "Pizza " + line.getPizzaName() + " has no price.");
+        if (Objects.isNull(currency)) currency = unitPrice.currency();
+        else if (!currency.equals(unitPrice.currency()))
+          throw new OrderException(
+              Reason.INVALID_ORDER,
+              "The pizzas of an order must be priced in the same currency, found "
+                  + currency
+                  + " and "
+                  + unitPrice.currency()
+                  + ".");
+        cents = Math.addExact(cents, Math.multiplyExact(unitPrice.cents(), line.getQuantity()));
+      }
+    } catch (ArithmeticException e) {
+      throw new OrderException(Reason.INVALID_ORDER, "The total price of the order is too large.");
+    }
+    return new Money(cents, currency);
+  }
+}
@@ -4,31 +4,66 @@ import com.awesome.pizza.brick.entity.Order;
 import com.awesome.pizza.brick.entity.OrderPizza;
 import com.awesome.pizza.brick.entity.Pizza;
 import com.awesome.pizza.brick.exception.OrderException;
+import com.awesome.pizza.brick.exception.OrderException.Reason;
 import com.awesome.pizza.brick.mapper.OrderMapper;
 import com.awesome.pizza.brick.mapper.UserMapper;
+import com.awesome.pizza.brick.model.OrderBatchItemResult;
+import com.awesome.pizza.brick.model.OrderCursor;
+import com.awesome.pizza.brick.model.OrderPage;
+import com.awesome.pizza.brick.model.OrderStatusEvent;
+import com.awesome.pizza.brick.model.OrderSummaryPage;
 import com.awesome.pizza.brick.model.RequestUserOrderModel;
 import com.awesome.pizza.brick.repository.OrderRepository;
 import com.awesome.pizza.brick.repository.PizzaRepository;
 import com.awesome.pizza.commons.model.OrderModel;
 import com.awesome.pizza.commons.model.OrderPizzaModel;
 import com.awesome.pizza.commons.model.OrderStatus;
-import java.math.BigDecimal;
+import com.awesome.pizza.commons.money.Money;
+import io.micrometer.core.annotation.Timed;
+import jakarta.transaction.Transactional;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-/** Service for managing orders in Awesome Pizza. */
+/**
+ * Service for managing orders in Awesome Pizza. Every public method is timed, with a percentile
+ * histogram, as {@code awesome.pizza.order.service}.
+ */
 @Slf4j
 @Service
+@Timed(value = "awesome.pizza.order.service", histogram = true)
 @RequiredArgsConstructor
 public class OrderService {
+  private static final String KITCHEN_BUSY_MESSAGE =
+      "There is already an order IN_PROGRESS. Only one order can be in progress at a time.";
+  public static final int MAX_PAGE_SIZE = 500;
+  public static final int MAX_BATCH_SIZE = 1000;
+  private static final OrderCursor FIRST_PAGE = new OrderCursor(null, null, null, null);
+
   private final OrderRepository orderRepository;
   private final OrderMapper orderMapper;
   private final PizzaRepository pizzaRepository;
   private final UserMapper userMapper;
+  private final OrderCodeGenerator orderCodeGenerator;
+  private final KitchenQueue kitchenQueue;
+  private final OrderEventBroadcaster orderEventBroadcaster;
+  private final Validator validator;
+  private final OrderMetrics orderMetrics;
+  private final ConflictRetryPolicy conflictRetry;
 
   /**
    * Creates a new order and returns the summary model.
@@ -44,17 +79,142 @@ public class OrderService {
     checkValidDate(model);
 
     // Retrieve Pizza entities from the database for each requested pizza
-    List<OrderPizza> pizzas = getPizzaModels(model);
-    Order order =
-        Order.builder()
-            .code(generateOrderNumber(model.getUser().getName()))
-            .createdAt(LocalDateTime.now())
-            .status(OrderStatus.QUEUED)
-            .orderedPizzas(pizzas)
-            .user(userMapper.toEntity(model.getUser()))
-            .totalPrice(calculateTotalPrice(pizzas))
-            .build();
-    return orderMapper.toModel(orderRepository.saveAndFlush(order));
+    Order order = buildOrder(model, resolvePizzas(model.getPizzas()));
+    Order saved = orderRepository.saveAndFlush(order);
+    // Within a caller's transaction (idempotent creation), the order is queued only once committed
+    afterCommit(
+        () -> {
+          kitchenQueue.sync(saved);
+          orderMetrics.created(saved.getStatus());
+        });
+    return orderMapper.toModel(saved);
+  }
+
+  /**
+   * Creates a batch of orders, e.g. imported from the phone or partner channels. Every order is
+   * validated on its own; the pizzas of the whole batch are resolved with a single query and the
+   * valid orders are inserted in a single transaction, using JDBC batching.
+   *
+   * @param models orders to create, at most {@value #MAX_BATCH_SIZE}
+   * @return one result per requested order, in request order, with the created order or the error
+   * @throws OrderException if the batch is empty or too large
+   */
+  @Transactional
+  public List<OrderBatchItemResult> createOrders(List<RequestUserOrderModel> models) {
+    log.info(
+        "<<< OrderService.createOrders called with {} orders >>>",
+        Objects.isNull(models) ? 0 : models.size());
+    if (Objects.isNull(models) || models.isEmpty() || models.size() > MAX_BATCH_SIZE)
+      throw new OrderException(
+          Reason.INVALID_BATCH,
+          "A batch must contain between 1 and " + MAX_BATCH_SIZE + " orders.");
+
+    String[] errors = new String[models.size()];
+    for (int i = 0; i < models.size(); i++) {
+      try {
+        checkBatchItemValid(models.get(i));
+      } catch (OrderException e) {
+        errors[i] = e.getMessage();
+        orderMetrics.rejected(e.getReason());
+      }
+    }
+    Map<Long, Pizza> pizzasById =
+        findPizzasById(
+            IntStream.range(0, models.size())
+                .filter(i -> Objects.isNull(errors[i]))
+                .mapToObj(i -> models.get(i).getPizzas())
+                .flatMap(List::stream)
+                .map(OrderPizzaModel::getPizzaId)
+                .collect(Collectors.toSet()));
+
+    Order[] orders = new Order[models.size()];
+    for (int i = 0; i < models.size(); i++) {
+      if (Objects.nonNull(errors[i])) continue;
+      try {
+        RequestUserOrderModel model = models.get(i);
+        orders[i] = buildOrder(model, checkPizzasFound(model.getPizzas(), pizzasById));
+      } catch (OrderException e) {
+        errors[i] = e.getMessage();
+        orderMetrics.rejected(e.getReason());
+      }
+    }
+    List<Order> saved =
+        orderRepository.saveAll(Arrays.stream(orders).filter(Objects::nonNull).toList());
+    afterCommit(
+        () ->
+            saved.forEach(
+                order -> {
+                  kitchenQueue.sync(order);
+                  orderMetrics.created(order.getStatus());
+                }));
+
+    List<OrderBatchItemResult> results = new ArrayList<>(models.size());
+    for (int i = 0; i < models.size(); i++)
+      results.add(
+          Objects.nonNull(orders[i])
+              ? new OrderBatchItemResult(i, orderMapper.toModel(orders[i]), null)
+              : new OrderBatchItemResult(i, null, errors[i]));
+    log.info("<<< {} of {} orders created in batch >>>", saved.size(), models.size());
+    return results;
+  }
+
+  /**
+   * Validates one order of a batch, with the same rules applied to a single order.
+   *
+   * @param model order model
+   * @throws OrderException describing the first problem found
+   */
+  private void checkBatchItemValid(RequestUserOrderModel model) {
+    if (Objects.isNull(model))
+      throw new OrderException(Reason.INVALID_ORDER, "Order must not be null.");
+    Set<ConstraintViolation<RequestUserOrderModel>> violations = validator.validate(model);
+    if (!violations.isEmpty()) {
+      StringBuilder sb = new StringBuilder("Validation failed: ");
+      violations.forEach(
+          v -> sb.append(v.getPropertyPath()).append(" - ").append(v.getMessage()).append("; "));
+      throw new OrderException(Reason.INVALID_ORDER, sb.toString());
+    }
+    checkOrderValid(model);
+    checkValidDate(model);
+  }
+
+  /**
+   * Builds a new QUEUED order, with a fresh code, from the request and the resolved pizzas.
+   *
+   * @param model order model
+   * @param pizzasById pizzas of the order indexed by id
+   * @return the order entity, not yet persisted
+   */
+  private Order buildOrder(RequestUserOrderModel model, Map<Long, Pizza> pizzasById) {
+    List<OrderPizza> pizzas = getPizzaModels(model, pizzasById);
+    return Order.builder()
+        .code(orderCodeGenerator.nextCode())
+        .createdAt(LocalDateTime.now())
+        .status(OrderStatus.QUEUED)
+        .orderedPizzas(pizzas)
+        .user(userMapper.toEntity(model.getUser()))
+        .totalPrice(OrderPricing.totalPrice(pizzas).toBigDecimal())
+        .build();
+  }
+
+  /**
+   * Runs the given action once the current transaction commits, or immediately outside a
+   * transaction.
+   *
+   * @param action action to run
+   */
+  private static void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              action.run();
+            }
+          });
+    } else {
+      action.run();
+    }
   }
 
   /**
@@ -70,67 +230,114 @@ public class OrderService {
             || model.getUser().getPickupFrom().toLocalDate().isBefore(LocalDate.now())
             || model.getUser().getPickupTo().toLocalDate().isBefore(LocalDate.now())))
       throw new OrderException(
+          Reason.INVALID_PICKUP,
           "Invalid pickup date range: 'pickupFrom' is after 'pickupTo' or in the past.");
   }
 
   /**
-   * Calculates the total price of the order.
+   * Builds the order lines, resolving every requested pizza with a single query.
    *
-   * @param pizzas list of ordered pizzas
-   * @return total price
-   * @throws OrderException if there is an error calculating the price
+   * @param model order model
+   * @return list of OrderPizza entities
+   * @throws OrderException if one or more requested pizzas do not exist or have no price
    */
-  private BigDecimal calculateTotalPrice(List<OrderPizza> pizzas) {
-    return pizzas.stream()
-        .map(OrderPizza::getPizza)
-        .filter(Objects::nonNull)
-        .map(Pizza::getPrice)
-        .filter(Objects::nonNull)
-        .reduce(BigDecimal::add)
-        .orElseThrow(() -> new OrderException("Error calculating total price."));
+  private List<OrderPizza> getPizzaModels(RequestUserOrderModel model) {
+    return getPizzaModels(model, resolvePizzas(model.getPizzas()));
   }
 
   /**
-   * Retrieves Pizza entities from the database for each requested pizza.
+   * Builds the order lines from pizzas already resolved, capturing the current name and price of
+   * every pizza. Requested lines with the same pizza and description are merged into a single
+   * line, in the position of the first one, with the sum of their quantities.
    *
    * @param model order model
+   * @param pizzasById requested pizzas indexed by id
    * @return list of OrderPizza entities
-   * @throws OrderException if no valid pizzas are found
+   * @throws OrderException if the merged quantity of a line overflows
    */
-  private List<OrderPizza> getPizzaModels(RequestUserOrderModel model) {
-    // set description for each pizza in the order
-    List<OrderPizza> orderPizzas = new ArrayList<>();
-    model
-        .getPizzas()
-        .forEach(
-            userOrderPizza ->
-                // Request only the pizzas in the order in a single query to the database
-                pizzaRepository
-                    .findAllById(
-                        model.getPizzas().stream().map(OrderPizzaModel::getPizzaId).toList())
-                    .stream()
-                    .filter(p -> p.getId().equals(userOrderPizza.getPizzaId()))
-                    .findFirst()
-                    .ifPresent(
-                        p ->
-                            orderPizzas.add(
-                                OrderPizza.builder()
-                                    .pizza(p)
-                                    .descriptionUser(userOrderPizza.getDescriptionUser())
-                                    .build())));
-    // Check if at least one pizza was found
-    if (orderPizzas.isEmpty()) throw new OrderException("No valid pizzas found for the order.");
-    return orderPizzas;
+  private List<OrderPizza> getPizzaModels(
+      RequestUserOrderModel model, Map<Long, Pizza> pizzasById) {
+    Map<LineKey, OrderPizza> lines = new LinkedHashMap<>();
+    for (OrderPizzaModel userOrderPizza : model.getPizzas()) {
+      int quantity = Objects.requireNonNullElse(userOrderPizza.getQuantity(), 1);
+      LineKey key = new LineKey(userOrderPizza.getPizzaId(), userOrderPizza.getDescriptionUser());
+      OrderPizza line = lines.get(key);
+      if (Objects.nonNull(line)) {
+        try {
+          line.setQuantity(Math.addExact(line.getQuantity(), quantity));
+        } catch (ArithmeticException e) {
+          throw new OrderException(Reason.INVALID_ORDER, "Too many pizzas for a single line.");
+        }
+        continue;
+      }
+      Pizza pizza = pizzasById.get(userOrderPizza.getPizzaId());
+      lines.put(
+          key,
+          OrderPizza.builder()
+              .pizza(pizza)
+              .pizzaName(pizza.getName())
+              .unitPrice(Money.of(pizza.getPrice()))
+              .descriptionUser(userOrderPizza.getDescriptionUser())
+              .quantity(quantity)
+              .build());
+    }
+    return new ArrayList<>(lines.values());
+  }
+
+  /** Identity of an order line: identical pizzas with the same description share a line. */
+  private record LineKey(Long pizzaId, String descriptionUser) {}
+
+  /**
+   * Fetches each distinct requested pizza once and indexes it by id.
+   *
+   * @param orderPizzas requested order lines
+   * @return map of pizza id to Pizza entity
+   * @throws OrderException listing all the ids that do not match a pizza with a price
+   */
+  private Map<Long, Pizza> resolvePizzas(List<OrderPizzaModel> orderPizzas) {
+    return checkPizzasFound(
+        orderPizzas,
+        findPizzasById(orderPizzas.stream().map(OrderPizzaModel::getPizzaId).toList()));
   }
 
   /**
-   * Generates a simple order number.
+   * Fetches the given pizzas with a single query.
    *
-   * @param nameUser user's name
-   * @return generated order number
+   * @param ids pizza ids, possibly repeated or null
+   * @return map of pizza id to Pizza entity, for the ids that exist
    */
-  private String generateOrderNumber(String nameUser) {
-    return "ORD-" + System.currentTimeMillis() + "-" + nameUser.toUpperCase().trim();
+  private Map<Long, Pizza> findPizzasById(Collection<Long> ids) {
+    Map<Long, Pizza> pizzasById = new HashMap<>();
+    pizzaRepository
+        .findAllById(ids.stream().filter(Objects::nonNull).distinct().toList())
+        .forEach(p -> pizzasById.put(p.getId(), p));
+    return pizzasById;
+  }
+
+  /**
+   * Checks that every requested pizza has been found and can be sold, i.e. has a price.
+   *
+   * @param orderPizzas requested order lines
+   * @param pizzasById pizzas found, indexed by id
+   * @return the given pizzas
+   * @throws OrderException listing all the ids that do not match a pizza with a price
+   */
+  private Map<Long, Pizza> checkPizzasFound(
+      List<OrderPizzaModel> orderPizzas, Map<Long, Pizza> pizzasById) {
+    List<Long> unknownIds =
+        orderPizzas.stream()
+            .map(OrderPizzaModel::getPizzaId)
+            .filter(
+                id ->
+                    id == null
+                        || !pizzasById.containsKey(id)
+                        || Objects.isNull(pizzasById.get(id).getPrice()))
+            .distinct()
+            .toList();
+    if (!unknownIds.isEmpty())
+      throw new OrderException(
+          Reason.PIZZA_NOT_FOUND, "No valid pizzas found for the order with ids: " + unknownIds);
+    return pizzasById;
   }
 
   /**
@@ -143,48 +350,147 @@ public class OrderService {
     if (Objects.isNull(model.getUser())
         || Objects.isNull(model.getPizzas())
         || model.getPizzas().isEmpty())
-      throw new OrderException("Order must have a user and at least one pizza.");
+      throw new OrderException(
+          Reason.INVALID_ORDER, "Order must have a user and at least one pizza.");
+    if (model.getPizzas().stream()
+        .map(OrderPizzaModel::getQuantity)
+        .anyMatch(quantity -> Objects.nonNull(quantity) && quantity < 1))
+      throw new OrderException(Reason.INVALID_ORDER, "The quantity of a pizza must be positive.");
   }
 
   /**
-   * Returns all orders filtered by status and pickup date.
+   * Returns one page of the orders filtered by status and pickup date, sorted by pickupFrom,
+   * pickupTo, createdAt and id. Filtering, sorting and paging are done by the database, so the
+   * memory used by a call is bounded by the page size whatever the number of orders of the day.
    *
    * @param statuses list of order statuses
    * @param pickupDate pickup date
-   * @return list of orders
+   * @param limit maximum number of orders of the page
+   * @param after cursor returned with the previous page (null for the first page)
+   * @return page of orders with the cursor of the next page
+   * @throws OrderException if the limit is out of range or the cursor is malformed
    */
-  public List<OrderModel> findAllOrdersByStatusAndPickupDate(
-      List<String> statuses, LocalDateTime pickupDate) {
+  public OrderPage findAllOrdersByStatusAndPickupDate(
+      List<String> statuses, LocalDateTime pickupDate, int limit, String after) {
     log.info(
-        "<<< OrderService.findAllOrdersByStatusAndPickupDate called with status: {} and pickupDate: {} >>>",
+        "<<< OrderService.findAllOrdersByStatusAndPickupDate called with status: {}, pickupDate: {}, limit: {} and after: {} >>>",
         statuses,
-        pickupDate);
-    LocalDate date = Objects.nonNull(pickupDate) ? pickupDate.toLocalDate() : null;
-    List<Order> orders = orderRepository.findAllByStatusAndPickupDate(statuses, date);
+        pickupDate,
+        limit,
+        after);
+    checkPageSize(limit);
+    Set<OrderStatus> orderStatuses = toOrderStatuses(statuses);
+    OrderCursor cursor = Optional.ofNullable(OrderCursor.decode(after)).orElse(FIRST_PAGE);
+    // Fetch one more order than requested to know whether a next page exists
+    Limit fetch = Limit.of(limit + 1);
+    List<Order> orders =
+        Objects.nonNull(pickupDate)
+            ? orderRepository.findAllByStatusAndPickupDate(
+                orderStatuses,
+                pickupDate.toLocalDate(),
+                pickupDate.toLocalDate().plusDays(1).atStartOfDay(),
+                cursor.pickupFrom(),
+                cursor.pickupTo(),
+                cursor.createdAt(),
+                cursor.id(),
+                fetch)
+            : orderRepository.findAllByStatus(
+                orderStatuses,
+                cursor.pickupFrom(),
+                cursor.pickupTo(),
+                cursor.createdAt(),
+                cursor.id(),
+                fetch);
     log.info(
         "<<< OrderService.findAllOrdersByStatusAndPickupDate Found {} orders >>>", orders.size());
-    return sortOrders(orders);
+    boolean hasNext = orders.size() > limit;
+    List<Order> page = hasNext ? orders.subList(0, limit) : orders;
+    return new OrderPage(
+        page.stream().map(orderMapper::toModel).toList(),
+        hasNext ? OrderCursor.after(page.get(limit - 1)).encode() : null);
   }
 
   /**
-   * Sorts orders by pickupFrom, pickupTo, and createdAt.
+   * Returns the same page as {@link #findAllOrdersByStatusAndPickupDate}, as order summaries: code,
+   * status, pickup window, total and pizza names. The page is read with a single query projecting
+   * the summary columns, without loading any order, user or pizza entity.
    *
-   * @param orders list of orders
-   * @return sorted list of order models
+   * @param statuses list of order statuses
+   * @param pickupDate pickup date
+   * @param limit maximum number of orders of the page
+   * @param after cursor returned with the previous page (null for the first page)
+   * @return page of order summaries with the cursor of the next page
+   * @throws OrderException if the limit is out of range or the cursor is malformed
    */
-  private List<OrderModel> sortOrders(List<Order> orders) {
-    return orders.stream()
-        .map(orderMapper::toModel)
-        .sorted(
-            Comparator.comparing(
-                    (OrderModel o) -> o.getUser() != null ? o.getUser().getPickupFrom() : null,
-                    Comparator.nullsLast(Comparator.naturalOrder()))
-                .thenComparing(
-                    o -> o.getUser() != null ? o.getUser().getPickupTo() : null,
-                    Comparator.nullsLast(Comparator.naturalOrder()))
-                .thenComparing(
-                    OrderModel::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder())))
-        .toList();
+  public OrderSummaryPage findOrderSummaries(
+      List<String> statuses, LocalDateTime pickupDate, int limit, String after) {
+    log.info(
+        "<<< OrderService.findOrderSummaries called with status: {}, pickupDate: {}, limit: {} and after: {} >>>",
+        statuses,
+        pickupDate,
+        limit,
+        after);
+    checkPageSize(limit);
+    Set<OrderStatus> orderStatuses = toOrderStatuses(statuses);
+    OrderCursor cursor = Optional.ofNullable(OrderCursor.decode(after)).orElse(FIRST_PAGE);
+    // Fetch one more order than requested to know whether a next page exists
+    Limit fetch = Limit.of(limit + 1);
+    List<OrderSummaryRow> rows =
+        Objects.nonNull(pickupDate)
+            ? orderRepository.findSummariesByStatusAndPickupDate(
+                orderStatuses,
+                pickupDate.toLocalDate(),
+                pickupDate.toLocalDate().plusDays(1).atStartOfDay(),
+                cursor.pickupFrom(),
+                cursor.pickupTo(),
+                cursor.createdAt(),
+                cursor.id(),
+                fetch)
+            : orderRepository.findSummariesByStatus(
+                orderStatuses,
+                cursor.pickupFrom(),
+                cursor.pickupTo(),
+                cursor.createdAt(),
+                cursor.id(),
+                fetch);
+    log.info("<<< OrderService.findOrderSummaries Found {} orders >>>", rows.size());
+    boolean hasNext = rows.size() > limit;
+    List<OrderSummaryRow> page = hasNext ? rows.subList(0, limit) : rows;
+    return new OrderSummaryPage(
+        page.stream().map(OrderSummaryRow::toModel).toList(),
+        hasNext ? page.get(limit - 1).cursor().encode() : null);
+  }
+
+  /**
+   * Checks the size of a requested page.
+   *
+   * @param limit maximum number of orders of the page
+   * @throws OrderException if the limit is out of range
+   */
+  private static void checkPageSize(int limit) {
+    if (limit < 1 || limit > MAX_PAGE_SIZE)
+      throw new OrderException(
+          Reason.INVALID_QUERY, "Invalid limit: it must be between 1 and " + MAX_PAGE_SIZE);
+  }
+
+  /**
+   * Converts the requested statuses, defaulting to every status when none is given.
+   *
+   * @param statuses status names (optional)
+   * @return set of order statuses
+   * @throws OrderException if a status name is unknown
+   */
+  private Set<OrderStatus> toOrderStatuses(List<String> statuses) {
+    if (Objects.isNull(statuses) || statuses.isEmpty()) return EnumSet.allOf(OrderStatus.class);
+    Set<OrderStatus> orderStatuses = EnumSet.noneOf(OrderStatus.class);
+    for (String status : statuses) {
+      try {
+        orderStatuses.add(OrderStatus.valueOf(status.trim().toUpperCase()));
+      } catch (IllegalArgumentException e) {
+        throw new OrderException(Reason.INVALID_QUERY, "Invalid order status: " + status);
+      }
+    }
+    return orderStatuses;
   }
 
   /**
@@ -197,8 +503,11 @@ public class OrderService {
     log.info("<<< OrderService.getOrderById called with id: {} >>>", id);
     return orderMapper.toModel(
         orderRepository
-            .findById(id)
-            .orElseThrow(() -> new OrderException("Order with id " + id + " not found")));
+            .findWithDetailsById(id)
+            .orElseThrow(
+                () ->
+                    new OrderException(
+                        Reason.ORDER_NOT_FOUND, "Order with id " + id + " not found")));
   }
 
   /**
@@ -210,20 +519,23 @@ public class OrderService {
    */
   public OrderModel getOrderByCode(String code) {
     log.info("<<< OrderService.getOrderByCode called with code: {} >>>", code);
-    Order order = orderRepository.findByCode(code);
-    if (Objects.isNull(order)) throw new OrderException("Order with code " + code + " not found");
+    Order order = orderRepository.findWithDetailsByCode(code);
+    if (Objects.isNull(order)) throw orderNotFound(code);
     return orderMapper.toModel(order);
   }
 
   /**
-   * Updates an order by its code.
+   * Updates an order by its code. The update is rejected, instead of overwriting it, if the order
+   * is changed concurrently.
    *
    * @param code order code
    * @param model new order model
+   * @param expectedVersion version the update is based on (If-Match), null to update any version
    * @return updated order model
-   * @throws OrderException if trying to update an order not in QUEUED status
+   * @throws OrderException if trying to update an order not in QUEUED status, if the order is not
+   *     at the expected version or if it is changed concurrently
    */
-  public OrderModel updateOrder(String code, RequestUserOrderModel model) {
+  public OrderModel updateOrder(String code, RequestUserOrderModel model, Long expectedVersion) {
     log.info("<<< OrderService.updateOrder called with code: {} and model: {} >>>", code, model);
     // Validate the order
     checkOrderValid(model);
@@ -232,9 +544,10 @@ public class OrderService {
 
     Order order = orderRepository.findByCode(code);
     if (Objects.nonNull(order)) {
+      checkVersion(order, expectedVersion);
       // Only QUEUED orders can be updated
       if (checkStatus(order.getStatus()))
-        throw new OrderException("Only QUEUED orders can be updated.");
+        throw new OrderException(Reason.NOT_QUEUED, "Only QUEUED orders can be updated.");
 
       // Retrieve Pizza entities from the database for each requested pizza
       List<OrderPizza> pizzas = getPizzaModels(model);
@@ -243,62 +556,213 @@ public class OrderService {
       order.getOrderedPizzas().clear();
       order.getOrderedPizzas().addAll(pizzas);
       order.setUser(userMapper.toEntity(model.getUser()));
-      order.setTotalPrice(calculateTotalPrice(pizzas));
-      order = orderRepository.saveAndFlush(order);
+      order.setTotalPrice(OrderPricing.totalPrice(pizzas).toBigDecimal());
+      Order saved;
+      try {
+        saved = orderRepository.saveAndFlush(order);
+      } catch (OptimisticLockingFailureException e) {
+        throw conflict(code, expectedVersion);
+      }
+      afterCommit(
+          () -> {
+            kitchenQueue.sync(saved);
+            orderMetrics.updated(saved.getStatus(), saved.getStatus());
+          });
 
-      log.info("<<< Order updated with id: {} >>>", order.getId());
-      return orderMapper.toModel(order);
+      log.info("<<< Order updated with id: {} >>>", saved.getId());
+      return orderMapper.toModel(saved);
     }
-    throw new OrderException("Order with code " + code + " not found");
+    throw orderNotFound(code);
   }
 
   /**
-   * Updates the status of an order by its code.
+   * Updates the status of an order by its code. Without an expected version, a transition that
+   * meets a concurrent change of the order is retried on the fresh order (see {@link
+   * ConflictRetryPolicy}); with an expected version, it is rejected.
    *
    * @param code order code
    * @param status new status
+   * @param expectedVersion version the update is based on (If-Match), null to update any version
    * @return updated order model
+   * @throws OrderException if the order is not at the expected version or keeps being changed
+   *     concurrently
    */
-  public OrderModel updateOrderStatus(String code, String status) {
+  public OrderModel updateOrderStatus(String code, String status, Long expectedVersion) {
     log.info(
         "<<< OrderService.updateOrderStatus called with code: {} and status: {} >>>", code, status);
-    // If the new status is IN_PROGRESS, check that no other order is already IN_PROGRESS
-    if (OrderStatus.IN_PROGRESS.name().equalsIgnoreCase(status)) {
-      boolean alreadyInProgress =
-          orderRepository.findAll().stream()
-              .anyMatch(o -> o.getStatus() == OrderStatus.IN_PROGRESS && !o.getCode().equals(code));
-      if (alreadyInProgress) {
-        throw new OrderException(
-            "There is already an order IN_PROGRESS. Only one order can be in progress at a time.");
-      }
+    OrderStatus newStatus = OrderStatus.valueOf(status.toUpperCase());
+    if (Objects.isNull(expectedVersion))
+      return conflictRetry.run(() -> transition(code, newStatus, null));
+    try {
+      return transition(code, newStatus, expectedVersion);
+    } catch (OptimisticLockingFailureException e) {
+      throw conflict(code, expectedVersion);
     }
+  }
+
+  private OrderModel transition(String code, OrderStatus newStatus, Long expectedVersion) {
+    // If the new status is IN_PROGRESS, check that no other order is already IN_PROGRESS
+    if (newStatus == OrderStatus.IN_PROGRESS
+        && orderRepository.existsByStatusAndCodeNot(OrderStatus.IN_PROGRESS, code))
+      throw new OrderException(Reason.KITCHEN_BUSY, KITCHEN_BUSY_MESSAGE);
+
     Order order = orderRepository.findByCode(code);
-    if (Objects.isNull(order)) throw new OrderException("Order with code " + code + " not found");
+    if (Objects.isNull(order)) throw orderNotFound(code);
+    checkVersion(order, expectedVersion);
 
-    order.setStatus(OrderStatus.valueOf(status.toUpperCase()));
-    Order saved = orderRepository.saveAndFlush(order);
-    log.info("<<< Order status updated with id: {} to status: {} >>>", saved.getId(), status);
+    OrderStatus previousStatus = order.getStatus();
+    order.setStatus(newStatus);
+    Order saved;
+    try {
+      saved = orderRepository.saveAndFlush(order);
+    } catch (DataIntegrityViolationException e) {
+      if (!isKitchenSlotTaken(e)) throw e;
+      // Another transition took the kitchen slot between the check above and the flush
+      log.warn("<<< Kitchen slot already taken, order {} not moved to {} >>>", code, newStatus);
+      throw new OrderException(Reason.KITCHEN_BUSY, KITCHEN_BUSY_MESSAGE);
+    }
+    afterCommit(
+        () -> {
+          kitchenQueue.sync(saved);
+          orderMetrics.updated(previousStatus, saved.getStatus());
+          publishStatusChange(saved, previousStatus);
+        });
+    log.info("<<< Order status updated with id: {} to status: {} >>>", saved.getId(), newStatus);
+    return orderMapper.toModel(saved);
+  }
+
+  /**
+   * Claims the next order to bake, i.e. the head of the kitchen queue, and moves it to
+   * IN_PROGRESS. Tickets of orders that are no longer QUEUED are discarded; once the queue is
+   * exhausted, the head is read from the database, where orders queued by other instances may be
+   * waiting. The kitchen slot constraint alone decides between concurrent claims, also across
+   * instances: a claim that meets a concurrent change of the head order is retried, and a claim
+   * that finds the slot taken is rejected as kitchen busy, leaving its ticket in the queue.
+   *
+   * @return the order now IN_PROGRESS
+   * @throws OrderException if another order is IN_PROGRESS or no order is queued
+   */
+  public OrderModel claimNextOrder() {
+    log.info("<<< OrderService.claimNextOrder called >>>");
+    if (orderRepository.existsByStatus(OrderStatus.IN_PROGRESS))
+      throw new OrderException(Reason.KITCHEN_BUSY, KITCHEN_BUSY_MESSAGE);
+    return conflictRetry.run(this::claimHead);
+  }
+
+  private OrderModel claimHead() {
+    Optional<KitchenTicket> next;
+    while ((next = kitchenQueue.peek()).isPresent()) {
+      String code = next.get().code();
+      Order order = orderRepository.findByCode(code);
+      if (Objects.nonNull(order) && order.getStatus() == OrderStatus.QUEUED) return claim(order);
+      log.info("<<< Discarding stale kitchen ticket for order {} >>>", code);
+      kitchenQueue.remove(code);
+    }
+    // Orders created by other instances are not in this queue
+    List<Order> head = orderRepository.findKitchenHead(OrderStatus.QUEUED, Limit.of(1));
+    if (head.isEmpty()) throw new OrderException(Reason.QUEUE_EMPTY, "Next QUEUED order not found");
+    return claim(head.get(0));
+  }
+
+  private OrderModel claim(Order order) {
+    order.setStatus(OrderStatus.IN_PROGRESS);
+    Order saved;
+    try {
+      saved = orderRepository.saveAndFlush(order);
+    } catch (DataIntegrityViolationException e) {
+      if (!isKitchenSlotTaken(e)) throw e;
+      throw new OrderException(Reason.KITCHEN_BUSY, KITCHEN_BUSY_MESSAGE);
+    }
+    afterCommit(
+        () -> {
+          kitchenQueue.sync(saved);
+          orderMetrics.updated(OrderStatus.QUEUED, saved.getStatus());
+          publishStatusChange(saved, OrderStatus.QUEUED);
+        });
+    log.info("<<< Order {} claimed by the kitchen >>>", saved.getCode());
     return orderMapper.toModel(saved);
   }
 
   /**
-   * Deletes an order by its code.
+   * Tells whether a failed write violated the kitchen slot constraint, i.e. another order was moved
+   * to IN_PROGRESS in the meantime, rather than any other constraint.
+   *
+   * @param e failure of the write
+   * @return true if the kitchen slot was already taken
+   */
+  private static boolean isKitchenSlotTaken(DataIntegrityViolationException e) {
+    for (Throwable cause = e; Objects.nonNull(cause); cause = cause.getCause())
+      if (cause instanceof ConstraintViolationException violation
+          && Objects.nonNull(violation.getConstraintName()))
+        return violation
+            .getConstraintName()
+            .toUpperCase(Locale.ROOT)
+            .contains(Order.KITCHEN_SLOT_CONSTRAINT);
+    return false;
+  }
+
+  private void publishStatusChange(Order order, OrderStatus previousStatus) {
+    if (order.getStatus() != previousStatus)
+      orderEventBroadcaster.publish(
+          new OrderStatusEvent(
+              order.getCode(), previousStatus, order.getStatus(), LocalDateTime.now()));
+  }
+
+  /**
+   * Opens a Server-Sent Events stream of the status changes of an order. The first event carries
+   * the current status; the stream ends once the order is DELIVERED.
+   *
+   * @param code order code
+   * @return the event stream
+   * @throws OrderException if the order is not found
+   */
+  public SseEmitter subscribeToOrder(String code) {
+    log.info("<<< OrderService.subscribeToOrder called with code: {} >>>", code);
+    Order order = orderRepository.findByCode(code);
+    if (Objects.isNull(order)) throw orderNotFound(code);
+    return orderEventBroadcaster.subscribe(code, order.getStatus());
+  }
+
+  /**
+   * Opens a Server-Sent Events stream of the status changes of every order.
+   *
+   * @return the event stream
+   */
+  public SseEmitter subscribeToAllOrders() {
+    log.info("<<< OrderService.subscribeToAllOrders called >>>");
+    return orderEventBroadcaster.subscribeAll();
+  }
+
+  /**
+   * Deletes an order by its code. The delete is rejected if the order is changed concurrently.
    *
    * @param code order code
    * @param forceDelete force delete flag
+   * @param expectedVersion version the delete is based on (If-Match), null to delete any version
    * @return true if deleted, false otherwise
-   * @throws OrderException if trying to delete an order not in QUEUED status without forceDelete
+   * @throws OrderException if trying to delete an order not in QUEUED status without forceDelete,
+   *     if the order is not at the expected version or if it is changed concurrently
    */
-  public boolean deleteByCode(String code, boolean forceDelete) {
+  public boolean deleteByCode(String code, boolean forceDelete, Long expectedVersion) {
     log.info("<<< OrderService.deleteByCode called with code: {} >>>", code);
     Order order = orderRepository.findByCode(code);
     if (Objects.nonNull(order)) {
+      checkVersion(order, expectedVersion);
 
       // Only QUEUED orders can be deleted
       if (checkStatus(order.getStatus()) && !forceDelete)
-        throw new OrderException("Only QUEUED orders can be deleted.");
+        throw new OrderException(Reason.NOT_QUEUED, "Only QUEUED orders can be deleted.");
 
-      orderRepository.delete(order);
+      try {
+        orderRepository.delete(order);
+      } catch (OptimisticLockingFailureException e) {
+        throw conflict(code, expectedVersion);
+      }
+      afterCommit(
+          () -> {
+            kitchenQueue.remove(code);
+            orderMetrics.deleted(order.getStatus());
+          });
       log.info("<<< Order with code: {} deleted >>>", code);
       return true;
     }
@@ -306,6 +770,39 @@ public class OrderService {
     return false;
   }
 
+  private static OrderException orderNotFound(String code) {
+    return new OrderException(Reason.ORDER_NOT_FOUND, "Order with code " + code + " not found");
+  }
+
+  /**
+   * Checks that the order is at the version the request is based on.
+   *
+   * @param order order read from the database
+   * @param expectedVersion expected version, null to accept any version
+   * @throws OrderException if the order is at another version
+   */
+  private static void checkVersion(Order order, Long expectedVersion) {
+    if (Objects.nonNull(expectedVersion) && !expectedVersion.equals(order.getVersion()))
+      throw conflict(order.getCode(), expectedVersion);
+  }
+
+  /**
+   * Describes a change lost to a concurrent change of the order.
+   *
+   * @param code order code
+   * @param expectedVersion version the change was based on, if any
+   * @return a VERSION_MISMATCH exception if a version was expected, CONCURRENT_UPDATE otherwise
+   */
+  private static OrderException conflict(String code, Long expectedVersion) {
+    return Objects.nonNull(expectedVersion)
+        ? new OrderException(
+            Reason.VERSION_MISMATCH,
+            "Order with code " + code + " is no longer at version " + expectedVersion + ".")
+        : new OrderException(
+            Reason.CONCURRENT_UPDATE,
+            "Order with code " + code + " was changed concurrently, reload it and retry.");
+  }
+
   /**
    * Checks if only QUEUED orders can be updated or deleted.
    *
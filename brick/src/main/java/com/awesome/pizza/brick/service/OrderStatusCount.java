@@ -0,0 +1,11 @@
+package com.awesome.pizza.brick.service;
+
+import com.awesome.pizza.commons.model.OrderStatus;
+
+/**
+ * Number of orders in a status, used to seed the order gauges of {@link OrderMetrics}.
+ *
+ * @param status order status
+ * @param count number of orders in the status
+ */
+public record OrderStatusCount(OrderStatus status, long count) {}
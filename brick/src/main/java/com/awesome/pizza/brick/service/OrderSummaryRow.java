@@ -0,0 +1,76 @@
+package com.awesome.pizza.brick.service;
+
+import com.awesome.pizza.brick.model.OrderCursor;
+import com.awesome.pizza.commons.model.OrderStatus;
+import com.awesome.pizza.commons.model.OrderSummaryModel;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Row of the order summary listing, read straight from the database without loading the entities:
+ * the summary columns, the keyset of the listing and the names and quantities of the ordered pizzas,
+ * each aggregated in a single string.
+ *
+ * @param id order id
+ * @param code order code
+ * @param status order status
+ * @param pickupFrom start of the pickup window
+ * @param pickupTo end of the pickup window
+ * @param createdAt creation timestamp of the order
+ * @param totalPrice total price of the order
+ * @param pizzaNames names of the ordered pizzas joined by {@link #NAME_SEPARATOR}, null if none
+ * @param pizzaQuantities quantities of the ordered pizzas, in the same order and joined the same
+ *     way, null if none
+ */
+public record OrderSummaryRow(
+    Long id,
+    String code,
+    OrderStatus status,
+    LocalDateTime pickupFrom,
+    LocalDateTime pickupTo,
+    LocalDateTime createdAt,
+    BigDecimal totalPrice,
+    String pizzaNames,
+    String pizzaQuantities) {
+  /** Separator of the aggregated pizza names, a control character that no name contains */
+  public static final String NAME_SEPARATOR = "\u001F";
+
+  private static final Pattern SEPARATOR = Pattern.compile(NAME_SEPARATOR);
+
+  /**
+   * Converts the row to its API model.
+   *
+   * @return the order summary
+   */
+  public OrderSummaryModel toModel() {
+    return OrderSummaryModel.builder()
+        .code(code)
+        .status(Objects.nonNull(status) ? status.name() : null)
+        .pickupFrom(pickupFrom)
+        .pickupTo(pickupTo)
+        .totalPrice(totalPrice)
+        .pizzaNames(split(pizzaNames).toList())
+        .pizzaQuantities(split(pizzaQuantities).map(Integer::valueOf).toList())
+        .build();
+  }
+
+  private static Stream<String> split(String aggregated) {
+    return Objects.isNull(aggregated)
+        ? Stream.empty()
+        : Arrays.stream(SEPARATOR.split(aggregated, -1));
+  }
+
+  /**
+   * Returns the cursor pointing right after this order.
+   *
+   * @return the cursor
+   */
+  public OrderCursor cursor() {
+    return new OrderCursor(pickupFrom, pickupTo, createdAt, id);
+  }
+}
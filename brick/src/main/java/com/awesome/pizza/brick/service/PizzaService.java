@@ -5,21 +5,48 @@ import com.awesome.pizza.brick.mapper.PizzaMapper;
 import com.awesome.pizza.brick.repository.PizzaRepository;
 import com.awesome.pizza.commons.model.IngredientModel;
 import com.awesome.pizza.commons.model.PizzaModel;
+import io.micrometer.core.annotation.Timed;
 import jakarta.transaction.Transactional;
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-/** Service for managing pizzas in Awesome Pizza. */
+/**
+ * Service for managing pizzas in Awesome Pizza. Every public method is timed, with a percentile
+ * histogram, as {@code awesome.pizza.pizza.service}.
+ */
 @Slf4j
 @Service
+@Timed(value = "awesome.pizza.pizza.service", histogram = true)
 @RequiredArgsConstructor
 public class PizzaService {
   private final PizzaRepository pizzaRepository;
   private final PizzaMapper pizzaMapper;
   private final IngredientService ingredientService;
 
+  /** Generation of the menu, bumped after every committed menu change. */
+  private final AtomicLong menuVersion = new AtomicLong();
+
+  /** Last built menu snapshot, swapped atomically. */
+  private final AtomicReference<MenuSnapshot> menu = new AtomicReference<>();
+
+  /**
+   * Longest time a snapshot is served: changes made by other brick instances are seen at most this
+   * late, since only the changes made through this instance mark the snapshot as stale.
+   */
+  @Value("${awesome-pizza.menu.ttl:30s}")
+  private Duration menuTtl = Duration.ofSeconds(30);
+
   /**
    * Creates a new pizza and returns the created model.
    *
@@ -29,17 +56,52 @@ public class PizzaService {
   @Transactional
   public PizzaModel createPizza(PizzaModel model) {
     log.info("<<< PizzaService.createPizza called with model: {} >>>", model);
-    // Retrieve Ingredient entities from the database for each requested ingredient
-    List<IngredientModel> ingredients =
-        model.getIngredients().stream()
-            .map(i -> ingredientService.addIngredientIfNotExists(i.getName()))
-            .toList();
-    model.setIngredients(ingredients);
+    // Resolve all the requested ingredients at once, adding the missing ones
+    model.setIngredients(
+        ingredientService.resolveIngredients(
+            model.getIngredients().stream().map(IngredientModel::getName).toList()));
     Pizza saved = pizzaRepository.saveAndFlush(pizzaMapper.toEntity(model));
     log.info("<<< Pizza created with id: {} >>>", saved.getId());
+    invalidateMenu();
     return pizzaMapper.toModel(saved);
   }
 
+  /**
+   * Creates several pizzas at once: their ingredients are resolved together and the pizzas are
+   * inserted, with their ingredient links, in JDBC batches flushed once.
+   *
+   * @param models pizza data to create
+   * @return created pizzas, in the same order
+   */
+  @Transactional
+  public List<PizzaModel> createPizzas(List<PizzaModel> models) {
+    log.info("<<< PizzaService.createPizzas called with {} pizzas >>>", models.size());
+    Map<String, IngredientModel> ingredients = new HashMap<>();
+    ingredientService
+        .resolveIngredients(
+            models.stream()
+                .flatMap(model -> model.getIngredients().stream())
+                .map(IngredientModel::getName)
+                .toList())
+        .forEach(ingredient -> ingredients.put(ingredient.getName(), ingredient));
+    List<Pizza> pizzas =
+        models.stream()
+            .map(
+                model -> {
+                  model.setIngredients(
+                      model.getIngredients().stream()
+                          .map(i -> ingredients.get(IngredientService.normalize(i.getName())))
+                          .distinct()
+                          .toList());
+                  return pizzaMapper.toEntity(model);
+                })
+            .toList();
+    List<Pizza> saved = pizzaRepository.saveAllAndFlush(pizzas);
+    log.info("<<< {} pizzas created >>>", saved.size());
+    invalidateMenu();
+    return saved.stream().map(pizzaMapper::toModel).toList();
+  }
+
   /**
    * Returns the list of all pizzas.
    *
@@ -47,9 +109,9 @@ public class PizzaService {
    */
   public List<PizzaModel> getAllPizzas() {
     log.info("<<< PizzaService.getAllPizzas called >>>");
-    List<Pizza> pizzas = pizzaRepository.findAll();
+    List<PizzaModel> pizzas = getMenu().pizzas();
     log.info("<<< Found {} pizzas >>>", pizzas.size());
-    return pizzas.stream().map(pizzaMapper::toModel).toList();
+    return pizzas;
   }
 
   /**
@@ -60,7 +122,50 @@ public class PizzaService {
    */
   public List<PizzaModel> getPizzasByIds(List<Long> ids) {
     log.info("<<< PizzaService.getPizzasByIds called with ids: {} >>>", ids);
-    return pizzaRepository.findAllById(ids).stream().map(pizzaMapper::toModel).toList();
+    return getMenu().findByIds(ids);
+  }
+
+  /**
+   * Returns the current menu snapshot. The snapshot is rebuilt from the database, in a single
+   * query, on the first read after a menu change made through this instance or once it is older
+   * than the menu TTL; every other read is served from memory.
+   *
+   * @return current menu snapshot
+   */
+  public MenuSnapshot getMenu() {
+    long version = menuVersion.get();
+    MenuSnapshot current = menu.get();
+    if (Objects.nonNull(current)
+        && current.version() == version
+        && System.nanoTime() - current.builtAt() < menuTtl.toNanos()) return current;
+
+    List<PizzaModel> pizzas =
+        pizzaRepository.findAllWithIngredients().stream().map(pizzaMapper::toModel).toList();
+    MenuSnapshot rebuilt = MenuSnapshot.of(version, pizzas);
+    // Never replace a snapshot built for a newer menu version
+    menu.accumulateAndGet(
+        rebuilt,
+        (prev, next) -> Objects.nonNull(prev) && prev.version() > next.version() ? prev : next);
+    log.info("<<< Menu snapshot rebuilt for version {} with {} pizzas >>>", version, pizzas.size());
+    return rebuilt;
+  }
+
+  /**
+   * Marks the menu snapshot as stale. Inside a transaction this happens only after commit, so that
+   * a concurrent rebuild cannot cache data that is about to change.
+   */
+  private void invalidateMenu() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              menuVersion.incrementAndGet();
+            }
+          });
+    } else {
+      menuVersion.incrementAndGet();
+    }
   }
 
   /**
@@ -71,7 +176,9 @@ public class PizzaService {
    */
   @Transactional
   public PizzaModel updatePizza(PizzaModel model) {
-    return pizzaMapper.toModel(pizzaRepository.saveAndFlush(pizzaMapper.toEntity(model)));
+    Pizza saved = pizzaRepository.saveAndFlush(pizzaMapper.toEntity(model));
+    invalidateMenu();
+    return pizzaMapper.toModel(saved);
   }
 
   /**
@@ -84,6 +191,7 @@ public class PizzaService {
     log.info("<<< PizzaService.deletePizza called with id: {} >>>", id);
     if (pizzaRepository.existsById(id)) {
       pizzaRepository.deleteById(id);
+      invalidateMenu();
       log.info("<<< Pizza with id: {} deleted >>>", id);
       return true;
     }
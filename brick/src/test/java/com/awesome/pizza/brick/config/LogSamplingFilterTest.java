@@ -0,0 +1,87 @@
+package com.awesome.pizza.brick.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LogSamplingFilterTest {
+  private final LoggerContext context = new LoggerContext();
+  private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+  @BeforeEach
+  void setUp() {
+    LogSamplingFilter filter = new LogSamplingFilter();
+    filter.setContext(context);
+    filter.addSample("hot=10");
+    filter.addSample("hot.path.Quiet=1000");
+    filter.addSample("broken");
+    filter.start();
+    context.addTurboFilter(filter);
+    appender.setContext(context);
+    appender.start();
+    Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+    root.setLevel(Level.INFO);
+    root.addAppender(appender);
+  }
+
+  @Test
+  void sampledLogger_emitsOneInfoEventOutOfN() {
+    Logger logger = context.getLogger("hot.path.Service");
+    for (int i = 0; i < 100; i++) logger.info("event {}", i);
+    assertThat(appender.list).hasSize(10);
+    assertThat(appender.list.get(1).getFormattedMessage()).isEqualTo("event 10");
+  }
+
+  @Test
+  void closestConfiguredLogger_setsTheRate() {
+    Logger logger = context.getLogger("hot.path.Quiet");
+    for (int i = 0; i < 1000; i++) logger.info("event");
+    assertThat(appender.list).hasSize(1);
+  }
+
+  @Test
+  void warningsAndOtherLoggers_areNotSampled() {
+    Logger sampled = context.getLogger("hot.path.Service");
+    Logger other = context.getLogger("cold.Service");
+    for (int i = 0; i < 20; i++) {
+      sampled.warn("warning");
+      other.info("event");
+    }
+    assertThat(appender.list).hasSize(40);
+  }
+
+  @Test
+  void droppedEvents_doNotFormatTheirArguments() {
+    AtomicInteger formatted = new AtomicInteger();
+    Object model =
+        new Object() {
+          @Override
+          public String toString() {
+            formatted.incrementAndGet();
+            return "model";
+          }
+        };
+    Logger logger = context.getLogger("hot.path.Service");
+    for (int i = 0; i < 100; i++) logger.info("called with model: {}", model);
+    appender.list.forEach(ILoggingEvent::getFormattedMessage);
+    assertThat(formatted).hasValue(10);
+  }
+
+  @Test
+  void disabledLevelsAndEnabledChecks_doNotConsumeSamples() {
+    Logger logger = context.getLogger("hot.path.Service");
+    for (int i = 0; i < 5; i++) {
+      logger.debug("disabled");
+      assertThat(logger.isInfoEnabled()).isTrue();
+    }
+    logger.info("first");
+    assertThat(appender.list).extracting(ILoggingEvent::getMessage).containsExactly("first");
+  }
+}
@@ -1,23 +1,45 @@
 package com.awesome.pizza.brick.config;
 
-import static org.mockito.Mockito.times;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import com.awesome.pizza.brick.service.PizzaService;
+import com.awesome.pizza.commons.model.PizzaModel;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.metrics.ApplicationStartup;
 
 @ExtendWith(MockitoExtension.class)
 class PizzaBootstrapTest {
   @Mock private PizzaService pizzaService;
+  @Captor private ArgumentCaptor<List<PizzaModel>> created;
 
-  @InjectMocks private PizzaBootstrap pizzaBootstrap;
+  private PizzaBootstrap pizzaBootstrap;
+
+  @BeforeEach
+  void setUp() {
+    pizzaBootstrap = new PizzaBootstrap(pizzaService, ApplicationStartup.DEFAULT);
+  }
+
+  @Test
+  void run_shouldCreateTheDefaultPizzasInOneCall() {
+    pizzaBootstrap.run();
+    verify(pizzaService).createPizzas(created.capture());
+    assertThat(created.getValue()).hasSize(10).allMatch(p -> !p.getIngredients().isEmpty());
+  }
 
   @Test
-  void run_shouldCallPizzaService() {
+  void run_shouldNotCreatePizzasWhenTheMenuIsSeeded() {
+    when(pizzaService.getAllPizzas())
+        .thenReturn(Collections.nCopies(10, PizzaModel.builder().build()));
     pizzaBootstrap.run();
-    verify(pizzaService, times(10)).createPizza(ArgumentMatchers.any());
+    verify(pizzaService, never()).createPizzas(ArgumentMatchers.any());
   }
 }
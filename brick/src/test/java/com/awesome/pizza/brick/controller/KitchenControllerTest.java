@@ -0,0 +1,44 @@
+package com.awesome.pizza.brick.controller;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.awesome.pizza.brick.exception.OrderException;
+import com.awesome.pizza.brick.service.OrderService;
+import com.awesome.pizza.commons.model.OrderModel;
+import com.awesome.pizza.commons.model.OrderStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.OverrideAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+@WebMvcTest(KitchenController.class)
+@OverrideAutoConfiguration(enabled = true)
+class KitchenControllerTest {
+  @Autowired private MockMvc mockMvc;
+  @MockBean private OrderService orderService;
+
+  @Test
+  void claimNextOrder_returnsOk() throws Exception {
+    OrderModel orderModel = new OrderModel();
+    orderModel.setCode("CODE123");
+    orderModel.setStatus(OrderStatus.IN_PROGRESS.name());
+    when(orderService.claimNextOrder()).thenReturn(orderModel);
+    mockMvc
+        .perform(post("/api/kitchen/next"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.code").value("CODE123"))
+        .andExpect(jsonPath("$.status").value("IN_PROGRESS"));
+  }
+
+  @Test
+  void claimNextOrder_returnsNotFoundWhenQueueIsEmpty() throws Exception {
+    when(orderService.claimNextOrder())
+        .thenThrow(
+            new OrderException(OrderException.Reason.QUEUE_EMPTY, "Next QUEUED order not found"));
+    mockMvc.perform(post("/api/kitchen/next")).andExpect(status().isNotFound());
+  }
+}
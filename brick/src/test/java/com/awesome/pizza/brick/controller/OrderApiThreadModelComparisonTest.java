@@ -0,0 +1,158 @@
+package com.awesome.pizza.brick.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.awesome.pizza.brick.BrickApplication;
+import com.awesome.pizza.brick.entity.Pizza;
+import com.awesome.pizza.brick.repository.PizzaRepository;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Runs the same load against {@code POST /api/orders} and {@code GET /api/orders} on an instance
+ * using platform threads and on one using virtual threads ({@code spring.threads.virtual.enabled}),
+ * logging requests/s and p99 latency of both. The load can be changed with {@code
+ * -Dawesome-pizza.test.load-requests=<n>} and {@code -Dawesome-pizza.test.load-concurrency=<n>}.
+ *
+ * <p>Tagged {@code load}: it only runs with the {@code load-tests} Maven profile.
+ */
+@Slf4j
+@Tag("load")
+class OrderApiThreadModelComparisonTest {
+  private static final int REQUESTS = Integer.getInteger("awesome-pizza.test.load-requests", 2_000);
+  private static final int CONCURRENCY =
+      Integer.getInteger("awesome-pizza.test.load-concurrency", 400);
+
+  private final HttpClient client =
+      HttpClient.newBuilder()
+          .version(HttpClient.Version.HTTP_1_1)
+          .connectTimeout(Duration.ofSeconds(30))
+          .build();
+
+  @Test
+  void platformAndVirtualThreads_serveTheSameLoad() throws Exception {
+    Result platform = run(false);
+    Result virtual = run(true);
+
+    log.info(
+        "<<< {} requests, {} concurrent clients: platform threads {}, virtual threads {} >>>",
+        REQUESTS,
+        CONCURRENCY,
+        platform,
+        virtual);
+    assertThat(List.of(platform.create(), platform.find(), virtual.create(), virtual.find()))
+        .allSatisfy(load -> assertThat(load.failures()).isZero());
+  }
+
+  private Result run(boolean virtualThreads) throws Exception {
+    try (ConfigurableApplicationContext context =
+        new SpringApplicationBuilder(BrickApplication.class)
+            .profiles("test")
+            // Arguments, so that they take precedence over application.yml
+            .run(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--spring.datasource.url=jdbc:h2:mem:threads-" + virtualThreads,
+                "--logging.level.org.springframework.orm=WARN",
+                "--logging.level.org.springframework.jdbc=WARN",
+                "--logging.level.com.awesome.pizza.brick.controller.OrderController=WARN",
+                "--logging.level.com.awesome.pizza.brick.service=WARN")) {
+      assertThat(context.getBean("applicationTaskExecutor"))
+          .isInstanceOf(
+              virtualThreads ? SimpleAsyncTaskExecutor.class : ThreadPoolTaskExecutor.class);
+      String baseUrl =
+          "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+      List<Long> pizzaIds =
+          context.getBean(PizzaRepository.class).findAll().stream().map(Pizza::getId).toList();
+      LocalDateTime pickup = LocalDateTime.now().plusDays(1);
+
+      Load create =
+          load(
+              i ->
+                  HttpRequest.newBuilder(URI.create(baseUrl + "/api/orders"))
+                      .header("Content-Type", "application/json")
+                      .POST(HttpRequest.BodyPublishers.ofString(orderJson(i, pickup, pizzaIds)))
+                      .build());
+      Load find =
+          load(
+              i ->
+                  HttpRequest.newBuilder(URI.create(baseUrl + "/api/orders?limit=20")).GET().build());
+      return new Result(create, find);
+    }
+  }
+
+  /** Sends {@link #REQUESTS} requests keeping {@link #CONCURRENCY} of them in flight. */
+  private Load load(IntFunction<HttpRequest> requests) throws InterruptedException {
+    Semaphore inFlight = new Semaphore(CONCURRENCY);
+    AtomicInteger failures = new AtomicInteger();
+    long[] latencies = new long[REQUESTS];
+    CompletableFuture<?>[] responses = new CompletableFuture<?>[REQUESTS];
+    long start = System.nanoTime();
+    for (int i = 0; i < REQUESTS; i++) {
+      inFlight.acquire();
+      int index = i;
+      long sent = System.nanoTime();
+      responses[i] =
+          client
+              .sendAsync(requests.apply(i), HttpResponse.BodyHandlers.discarding())
+              .whenComplete(
+                  (response, error) -> {
+                    latencies[index] = System.nanoTime() - sent;
+                    if (Objects.nonNull(error) || response.statusCode() >= 400)
+                      failures.incrementAndGet();
+                    inFlight.release();
+                  });
+    }
+    CompletableFuture.allOf(responses).exceptionally(e -> null).join();
+    long elapsed = System.nanoTime() - start;
+    Arrays.sort(latencies);
+    return new Load(
+        REQUESTS * 1_000_000_000L / elapsed,
+        latencies[(int) Math.ceil(REQUESTS * 0.99) - 1] / 1_000_000,
+        failures.get());
+  }
+
+  private static String orderJson(int i, LocalDateTime pickup, List<Long> pizzaIds) {
+    return """
+        {"user":{"name":"Customer %d","pickupFrom":"%s","pickupTo":"%s"},\
+        "pizzas":[{"pizzaId":%d},{"pizzaId":%d}]}"""
+        .formatted(
+            i,
+            pickup,
+            pickup.plusMinutes(30),
+            pizzaIds.get(i % pizzaIds.size()),
+            pizzaIds.get((i + 1) % pizzaIds.size()));
+  }
+
+  private record Load(long requestsPerSecond, long p99Millis, int failures) {
+    @Override
+    public String toString() {
+      return "%d req/s p99 %d ms".formatted(requestsPerSecond, p99Millis);
+    }
+  }
+
+  private record Result(Load create, Load find) {
+    @Override
+    public String toString() {
+      return "[POST %s, GET %s]".formatted(create, find);
+    }
+  }
+}
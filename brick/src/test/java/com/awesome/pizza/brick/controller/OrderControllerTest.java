@@ -1,13 +1,20 @@
 package com.awesome.pizza.brick.controller;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.awesome.pizza.brick.exception.OrderException;
+import com.awesome.pizza.brick.model.OrderBatchItemResult;
+import com.awesome.pizza.brick.model.OrderPage;
+import com.awesome.pizza.brick.model.OrderSummaryPage;
+import com.awesome.pizza.brick.service.OrderIdempotency;
 import com.awesome.pizza.brick.service.OrderService;
 import com.awesome.pizza.commons.model.OrderModel;
+import com.awesome.pizza.commons.model.OrderSummaryModel;
 import java.time.LocalDateTime;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
@@ -23,6 +30,7 @@ import org.springframework.test.web.servlet.MockMvc;
 class OrderControllerTest {
   @Autowired private MockMvc mockMvc;
   @MockBean private OrderService orderService;
+  @MockBean private OrderIdempotency orderIdempotency;
   private OrderModel orderModel;
 
   @BeforeEach
@@ -33,29 +41,63 @@ class OrderControllerTest {
 
   @Test
   void findAllOrdersByStatusAndPickupDate_returnsOk() throws Exception {
-    when(orderService.findAllOrdersByStatusAndPickupDate(any(), any()))
-        .thenReturn(List.of(orderModel));
+    when(orderService.findAllOrdersByStatusAndPickupDate(any(), any(), eq(100), isNull()))
+        .thenReturn(new OrderPage(List.of(orderModel), null));
     mockMvc
         .perform(
             get("/api/orders")
                 .param("status", "QUEUED")
                 .param("pickupDate", LocalDateTime.now().toString()))
         .andExpect(status().isOk())
+        .andExpect(header().doesNotExist("X-Next-Cursor"))
         .andExpect(jsonPath("$[0].code").value("CODE123"));
   }
 
+  @Test
+  void findAllOrdersByStatusAndPickupDate_returnsNextCursor() throws Exception {
+    when(orderService.findAllOrdersByStatusAndPickupDate(any(), any(), eq(1), eq("CURSOR1")))
+        .thenReturn(new OrderPage(List.of(orderModel), "CURSOR2"));
+    mockMvc
+        .perform(get("/api/orders").param("limit", "1").param("after", "CURSOR1"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("X-Next-Cursor", "CURSOR2"))
+        .andExpect(jsonPath("$[0].code").value("CODE123"));
+  }
+
+  @Test
+  void findOrderSummaries_returnsSummariesAndNextCursor() throws Exception {
+    OrderSummaryModel summary =
+        OrderSummaryModel.builder()
+            .code("CODE123")
+            .status("QUEUED")
+            .pizzaNames(List.of("Margherita", "Diavola"))
+            .build();
+    when(orderService.findOrderSummaries(eq(List.of("QUEUED")), isNull(), eq(1), isNull()))
+        .thenReturn(new OrderSummaryPage(List.of(summary), "CURSOR2"));
+    mockMvc
+        .perform(get("/api/orders/summaries").param("statuses", "QUEUED").param("limit", "1"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("X-Next-Cursor", "CURSOR2"))
+        .andExpect(jsonPath("$[0].code").value("CODE123"))
+        .andExpect(jsonPath("$[0].pizzaNames[1]").value("Diavola"))
+        .andExpect(jsonPath("$[0].orderedPizzas").doesNotExist());
+  }
+
   @Test
   void getOrderById_shouldReturnOk() throws Exception {
+    orderModel.setVersion(2L);
     when(orderService.getOrderById(1L)).thenReturn(orderModel);
     mockMvc
         .perform(get("/api/orders/1"))
         .andExpect(status().isOk())
+        .andExpect(header().string("ETag", "\"2\""))
         .andExpect(jsonPath("$.code").value("CODE123"));
   }
 
   @Test
   void getOrderById_shouldReturnNotFound() throws Exception {
-    when(orderService.getOrderById(99L)).thenThrow(new OrderException("Order not found"));
+    when(orderService.getOrderById(99L))
+        .thenThrow(new OrderException(OrderException.Reason.ORDER_NOT_FOUND, "Order not found"));
     mockMvc.perform(get("/api/orders/99")).andExpect(status().isNotFound());
   }
 
@@ -71,7 +113,8 @@ class OrderControllerTest {
 
   @Test
   void getOrderByCode_shouldReturnNotFound() throws Exception {
-    when(orderService.getOrderByCode("NOTFOUND")).thenThrow(new OrderException("Order not found"));
+    when(orderService.getOrderByCode("NOTFOUND"))
+        .thenThrow(new OrderException(OrderException.Reason.ORDER_NOT_FOUND, "Order not found"));
     mockMvc
         .perform(get("/api/orders/by-code").param("code", "NOTFOUND"))
         .andExpect(status().isNotFound());
@@ -91,6 +134,118 @@ class OrderControllerTest {
         .andExpect(status().isOk());
   }
 
+  @Test
+  void createOrder_returnsTheVersionAsETag() throws Exception {
+    orderModel.setVersion(0L);
+    when(orderService.createOrder(any())).thenReturn(orderModel);
+    String validOrderJson =
+        "{"
+            + "\"user\": {\"name\": \"Mario\", \"pickupFrom\": \"2025-10-01T13:00:00\", \"pickupTo\": \"2025-10-01T14:00:00\"},"
+            + "\"pizzas\": [{\"pizzaId\": 1}]"
+            + "}";
+    mockMvc
+        .perform(post("/api/orders").contentType("application/json").content(validOrderJson))
+        .andExpect(status().isOk())
+        .andExpect(header().string("ETag", "\"0\""))
+        .andExpect(jsonPath("$.code").value("CODE123"));
+  }
+
+  @Test
+  void createOrder_replayedWithIdempotencyKey_returnsTheETagEveryTime() throws Exception {
+    orderModel.setVersion(0L);
+    // The replay returns the order stored with the key, at the version it was created at
+    when(orderIdempotency.createOrder(eq("KEY-1"), any())).thenReturn(orderModel);
+    String validOrderJson =
+        "{"
+            + "\"user\": {\"name\": \"Mario\", \"pickupFrom\": \"2025-10-01T13:00:00\", \"pickupTo\": \"2025-10-01T14:00:00\"},"
+            + "\"pizzas\": [{\"pizzaId\": 1}]"
+            + "}";
+    for (int attempt = 0; attempt < 2; attempt++)
+      mockMvc
+          .perform(
+              post("/api/orders")
+                  .header("Idempotency-Key", "KEY-1")
+                  .contentType("application/json")
+                  .content(validOrderJson))
+          .andExpect(status().isOk())
+          .andExpect(header().string("ETag", "\"0\""))
+          .andExpect(jsonPath("$.code").value("CODE123"));
+  }
+
+  @Test
+  void createOrder_withUnknownPizza_returnsBadRequestWhateverTheMessage() throws Exception {
+    when(orderService.createOrder(any()))
+        .thenThrow(new OrderException(OrderException.Reason.PIZZA_NOT_FOUND, "Pizza 9 not found"));
+    String orderJson =
+        "{"
+            + "\"user\": {\"name\": \"Mario\", \"pickupFrom\": \"2025-10-01T13:00:00\", \"pickupTo\": \"2025-10-01T14:00:00\"},"
+            + "\"pizzas\": [{\"pizzaId\": 9}]"
+            + "}";
+    mockMvc
+        .perform(post("/api/orders").contentType("application/json").content(orderJson))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void createOrder_withIdempotencyKey_createsThroughTheKey() throws Exception {
+    when(orderIdempotency.createOrder(eq("KEY-1"), any())).thenReturn(orderModel);
+    String validOrderJson =
+        "{"
+            + "\"user\": {\"name\": \"Mario\", \"pickupFrom\": \"2025-10-01T13:00:00\", \"pickupTo\": \"2025-10-01T14:00:00\"},"
+            + "\"pizzas\": [{\"pizzaId\": 1}]"
+            + "}";
+    mockMvc
+        .perform(
+            post("/api/orders")
+                .header("Idempotency-Key", "KEY-1")
+                .contentType("application/json")
+                .content(validOrderJson))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.code").value("CODE123"));
+    verify(orderService, never()).createOrder(any());
+  }
+
+  @Test
+  void createOrder_withReusedIdempotencyKey_returnsUnprocessableEntity() throws Exception {
+    when(orderIdempotency.createOrder(eq("KEY-1"), any()))
+        .thenThrow(
+            new OrderException(
+                OrderException.Reason.IDEMPOTENCY_KEY_REUSED,
+                "Idempotency key KEY-1 was already used for a different order."));
+    String validOrderJson =
+        "{"
+            + "\"user\": {\"name\": \"Mario\", \"pickupFrom\": \"2025-10-01T13:00:00\", \"pickupTo\": \"2025-10-01T14:00:00\"},"
+            + "\"pizzas\": [{\"pizzaId\": 1}]"
+            + "}";
+    mockMvc
+        .perform(
+            post("/api/orders")
+                .header("Idempotency-Key", "KEY-1")
+                .contentType("application/json")
+                .content(validOrderJson))
+        .andExpect(status().isUnprocessableEntity());
+  }
+
+  @Test
+  void createOrders_shouldReturnOneResultPerOrder() throws Exception {
+    when(orderService.createOrders(any()))
+        .thenReturn(
+            List.of(
+                new OrderBatchItemResult(0, orderModel, null),
+                new OrderBatchItemResult(1, null, "Order must have a user and at least one pizza.")));
+    String batchJson =
+        "[{"
+            + "\"user\": {\"name\": \"Mario\", \"pickupFrom\": \"2025-10-01T13:00:00\", \"pickupTo\": \"2025-10-01T14:00:00\"},"
+            + "\"pizzas\": [{\"pizzaId\": 1}]"
+            + "}, {}]";
+    mockMvc
+        .perform(post("/api/orders/batch").contentType("application/json").content(batchJson))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].order.code").value("CODE123"))
+        .andExpect(jsonPath("$[1].index").value(1))
+        .andExpect(jsonPath("$[1].error").exists());
+  }
+
   @Test
   void createOrder_shouldReturnBadRequest() throws Exception {
     // JSON non valido: manca 'user' e 'pizzas'
@@ -103,7 +258,7 @@ class OrderControllerTest {
   @Test
   void updateOrder_shouldReturnOk() throws Exception {
     var response = new OrderModel();
-    when(orderService.updateOrder(eq("CODE123"), any())).thenReturn(response);
+    when(orderService.updateOrder(eq("CODE123"), any(), isNull())).thenReturn(response);
     String validOrderJson =
         "{"
             + "\"user\": {\"name\": \"Mario\", \"pickupFrom\": \"2025-10-01T13:00:00\", \"pickupTo\": \"2025-10-01T14:00:00\"},"
@@ -120,8 +275,8 @@ class OrderControllerTest {
 
   @Test
   void updateOrder_shouldReturnNotFound() throws Exception {
-    when(orderService.updateOrder(eq("NOTFOUND"), any()))
-        .thenThrow(new OrderException("Order not found"));
+    when(orderService.updateOrder(eq("NOTFOUND"), any(), isNull()))
+        .thenThrow(new OrderException(OrderException.Reason.ORDER_NOT_FOUND, "Order not found"));
     String validOrderJson =
         "{"
             + "\"user\": {\"name\": \"Mario\", \"pickupFrom\": \"2025-10-01T13:00:00\", \"pickupTo\": \"2025-10-01T14:00:00\"},"
@@ -138,7 +293,8 @@ class OrderControllerTest {
 
   @Test
   void updateOrderByCode_shouldReturnOk() throws Exception {
-    when(orderService.updateOrderStatus(eq("CODE123"), eq("IN_PROGRESS"))).thenReturn(orderModel);
+    when(orderService.updateOrderStatus(eq("CODE123"), eq("IN_PROGRESS"), isNull()))
+        .thenReturn(orderModel);
     mockMvc
         .perform(
             put("/api/orders/update-status")
@@ -149,8 +305,8 @@ class OrderControllerTest {
 
   @Test
   void updateOrderByCode_shouldReturnNotFound() throws Exception {
-    when(orderService.updateOrderStatus(eq("NOTFOUND"), any()))
-        .thenThrow(new OrderException("Order not found"));
+    when(orderService.updateOrderStatus(eq("NOTFOUND"), any(), isNull()))
+        .thenThrow(new OrderException(OrderException.Reason.ORDER_NOT_FOUND, "Order not found"));
     mockMvc
         .perform(
             put("/api/orders/update-status")
@@ -159,9 +315,63 @@ class OrderControllerTest {
         .andExpect(status().isNotFound());
   }
 
+  @Test
+  void updateOrderByCode_withIfMatch_passesVersionAndReturnsETag() throws Exception {
+    orderModel.setVersion(4L);
+    when(orderService.updateOrderStatus(eq("CODE123"), eq("READY"), eq(3L)))
+        .thenReturn(orderModel);
+    mockMvc
+        .perform(
+            put("/api/orders/update-status")
+                .param("code", "CODE123")
+                .param("status", "READY")
+                .header("If-Match", "\"3\""))
+        .andExpect(status().isOk())
+        .andExpect(header().string("ETag", "\"4\""))
+        .andExpect(jsonPath("$.version").value(4));
+  }
+
+  @Test
+  void updateOrderByCode_withStaleIfMatch_returnsPreconditionFailed() throws Exception {
+    when(orderService.updateOrderStatus(eq("CODE123"), eq("READY"), eq(3L)))
+        .thenThrow(
+            new OrderException(
+                OrderException.Reason.VERSION_MISMATCH, "Order CODE123 is no longer at version 3."));
+    mockMvc
+        .perform(
+            put("/api/orders/update-status")
+                .param("code", "CODE123")
+                .param("status", "READY")
+                .header("If-Match", "\"3\""))
+        .andExpect(status().isPreconditionFailed());
+  }
+
+  @Test
+  void updateOrderByCode_withInvalidIfMatch_returnsBadRequest() throws Exception {
+    mockMvc
+        .perform(
+            put("/api/orders/update-status")
+                .param("code", "CODE123")
+                .param("status", "READY")
+                .header("If-Match", "W/\"abc\""))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void updateOrderByCode_concurrentUpdate_returnsConflict() throws Exception {
+    when(orderService.updateOrderStatus(eq("CODE123"), eq("READY"), isNull()))
+        .thenThrow(
+            new OrderException(
+                OrderException.Reason.CONCURRENT_UPDATE, "Order CODE123 was changed concurrently."));
+    mockMvc
+        .perform(
+            put("/api/orders/update-status").param("code", "CODE123").param("status", "READY"))
+        .andExpect(status().isConflict());
+  }
+
   @Test
   void deleteOrderByCode_shouldReturnNoContent() throws Exception {
-    when(orderService.deleteByCode(eq("CODE123"), eq(true))).thenReturn(true);
+    when(orderService.deleteByCode(eq("CODE123"), eq(true), isNull())).thenReturn(true);
     mockMvc
         .perform(delete("/api/orders").param("code", "CODE123").param("force", "true"))
         .andExpect(status().isNoContent());
@@ -169,7 +379,7 @@ class OrderControllerTest {
 
   @Test
   void deleteOrderByCode_shouldReturnNotFound() throws Exception {
-    when(orderService.deleteByCode(eq("NOTFOUND"), eq(false))).thenReturn(false);
+    when(orderService.deleteByCode(eq("NOTFOUND"), eq(false), isNull())).thenReturn(false);
     mockMvc
         .perform(delete("/api/orders").param("code", "NOTFOUND").param("force", "false"))
         .andExpect(status().isNotFound());
@@ -0,0 +1,128 @@
+package com.awesome.pizza.brick.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.awesome.pizza.brick.entity.Order;
+import com.awesome.pizza.brick.entity.User;
+import com.awesome.pizza.brick.repository.OrderRepository;
+import com.awesome.pizza.brick.service.OrderEventBroadcaster;
+import com.awesome.pizza.brick.service.OrderService;
+import com.awesome.pizza.commons.model.OrderStatus;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+/** Opens thousands of real SSE connections to one instance and pushes a status change. */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class OrderEventsStreamTest {
+  private static final int ORDER_SUBSCRIBERS = 2_000;
+  private static final int STAFF_SUBSCRIBERS = 200;
+
+  @LocalServerPort private int port;
+  @Autowired private OrderService orderService;
+  @Autowired private OrderRepository orderRepository;
+  @Autowired private OrderEventBroadcaster orderEventBroadcaster;
+
+  private final HttpClient client = HttpClient.newHttpClient();
+  private final List<CompletableFuture<?>> streams = new ArrayList<>();
+
+  @AfterEach
+  void tearDown() {
+    streams.forEach(s -> s.cancel(true));
+    orderRepository.deleteAll();
+  }
+
+  @Test
+  void statusChange_isPushedToEveryOpenStream() throws Exception {
+    String code = orderRepository.save(queuedOrder()).getCode();
+    CountDownLatch currentStatus = new CountDownLatch(ORDER_SUBSCRIBERS);
+    CountDownLatch inProgress = new CountDownLatch(ORDER_SUBSCRIBERS + STAFF_SUBSCRIBERS);
+    for (int i = 0; i < ORDER_SUBSCRIBERS; i++)
+      open("/api/orders/" + code + "/events", currentStatus, inProgress);
+    for (int i = 0; i < STAFF_SUBSCRIBERS; i++)
+      open("/api/orders/events", new CountDownLatch(0), inProgress);
+
+    assertThat(currentStatus.await(60, TimeUnit.SECONDS)).isTrue();
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+    while (orderEventBroadcaster.subscriberCount() < ORDER_SUBSCRIBERS + STAFF_SUBSCRIBERS
+        && System.nanoTime() < deadline) Thread.sleep(10);
+
+    orderService.updateOrderStatus(code, OrderStatus.IN_PROGRESS.name(), null);
+
+    assertThat(inProgress.await(60, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test
+  void orderStream_returnsNotFoundForUnknownOrder() throws Exception {
+    HttpResponse<Void> response =
+        client.send(
+            HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/orders/NOPE/events"))
+                .header("Accept", "text/event-stream")
+                .build(),
+            HttpResponse.BodyHandlers.discarding());
+    assertThat(response.statusCode()).isEqualTo(404);
+  }
+
+  private void open(String path, CountDownLatch queued, CountDownLatch inProgress) {
+    HttpRequest request =
+        HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+            .header("Accept", "text/event-stream")
+            .timeout(Duration.ofMinutes(2))
+            .build();
+    streams.add(
+        client.sendAsync(
+            request,
+            HttpResponse.BodyHandlers.fromLineSubscriber(
+                new Flow.Subscriber<String>() {
+                  @Override
+                  public void onSubscribe(Flow.Subscription subscription) {
+                    subscription.request(Long.MAX_VALUE);
+                  }
+
+                  @Override
+                  public void onNext(String line) {
+                    if (!line.startsWith("data:")) return;
+                    if (line.contains("\"status\":\"QUEUED\"")) queued.countDown();
+                    if (line.contains("\"status\":\"IN_PROGRESS\"")) inProgress.countDown();
+                  }
+
+                  @Override
+                  public void onError(Throwable throwable) {}
+
+                  @Override
+                  public void onComplete() {}
+                })));
+  }
+
+  private Order queuedOrder() {
+    return Order.builder()
+        .code("SSE-1")
+        .status(OrderStatus.QUEUED)
+        .orderedPizzas(new ArrayList<>())
+        .totalPrice(BigDecimal.TEN)
+        .user(
+            User.builder()
+                .name("Mario")
+                .pickupFrom(LocalDateTime.now().plusHours(1))
+                .pickupTo(LocalDateTime.now().plusHours(2))
+                .build())
+        .build();
+  }
+}
@@ -1,5 +1,6 @@
 package com.awesome.pizza.brick.controller;
 
+import com.awesome.pizza.brick.service.MenuSnapshot;
 import com.awesome.pizza.brick.service.PizzaService;
 import com.awesome.pizza.commons.model.IngredientModel;
 import com.awesome.pizza.commons.model.PizzaModel;
@@ -60,22 +61,34 @@ class PizzaControllerTest {
 
   @Test
   void getAllPizzas_shouldReturnOk() throws Exception {
-    when(pizzaService.getAllPizzas()).thenReturn(List.of(pizzaModel));
+    when(pizzaService.getMenu()).thenReturn(MenuSnapshot.of(1L, List.of(pizzaModel)));
     mockMvc
         .perform(get("/api/pizzas"))
         .andExpect(status().isOk())
+        .andExpect(header().exists("ETag"))
         .andExpect(jsonPath("$[0].name").value("Margherita"));
   }
 
   @Test
   void getAllPizzas_shouldReturnEmptyList() throws Exception {
-    when(pizzaService.getAllPizzas()).thenReturn(Collections.emptyList());
+    when(pizzaService.getMenu()).thenReturn(MenuSnapshot.of(1L, Collections.emptyList()));
     mockMvc.perform(get("/api/pizzas")).andExpect(status().isOk()).andExpect(content().json("[]"));
   }
 
+  @Test
+  void getAllPizzas_shouldReturnNotModifiedForCurrentETag() throws Exception {
+    MenuSnapshot menu = MenuSnapshot.of(1L, List.of(pizzaModel));
+    when(pizzaService.getMenu()).thenReturn(menu);
+    mockMvc
+        .perform(get("/api/pizzas").header("If-None-Match", menu.etag()))
+        .andExpect(status().isNotModified())
+        .andExpect(content().string(""));
+  }
+
   @Test
   void getPizzasByIds_shouldReturnOk() throws Exception {
-    when(pizzaService.getPizzasByIds(any())).thenReturn(List.of(pizzaModel));
+    pizzaModel.setId(1L);
+    when(pizzaService.getMenu()).thenReturn(MenuSnapshot.of(1L, List.of(pizzaModel)));
     mockMvc
         .perform(post("/api/pizzas/by-ids").contentType(MediaType.APPLICATION_JSON).content("[1]"))
         .andExpect(status().isOk())
@@ -84,13 +97,28 @@ class PizzaControllerTest {
 
   @Test
   void getPizzasByIds_shouldReturnEmptyList() throws Exception {
-    when(pizzaService.getPizzasByIds(any())).thenReturn(Collections.emptyList());
+    pizzaModel.setId(1L);
+    when(pizzaService.getMenu()).thenReturn(MenuSnapshot.of(1L, List.of(pizzaModel)));
     mockMvc
         .perform(post("/api/pizzas/by-ids").contentType(MediaType.APPLICATION_JSON).content("[99]"))
         .andExpect(status().isOk())
         .andExpect(content().json("[]"));
   }
 
+  @Test
+  void getPizzasByIds_shouldReturnNotModifiedForCurrentETag() throws Exception {
+    pizzaModel.setId(1L);
+    MenuSnapshot menu = MenuSnapshot.of(1L, List.of(pizzaModel));
+    when(pizzaService.getMenu()).thenReturn(menu);
+    mockMvc
+        .perform(
+            post("/api/pizzas/by-ids")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("If-None-Match", menu.etagFor(List.of(1L)))
+                .content("[1]"))
+        .andExpect(status().isNotModified());
+  }
+
   @Test
   void updatePizza_shouldReturnOk() throws Exception {
     when(pizzaService.updatePizza(any(PizzaModel.class))).thenReturn(pizzaModel);
@@ -0,0 +1,60 @@
+package com.awesome.pizza.brick.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+/** Scrapes the Prometheus endpoint after a few API calls. */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class PrometheusEndpointTest {
+  @LocalServerPort private int port;
+
+  private final HttpClient client = HttpClient.newHttpClient();
+
+  @Test
+  void prometheus_exposesServiceTimersRepositoryTimersAndOrderMetrics() throws Exception {
+    assertThat(get("/api/orders/by-code?code=NOPE").statusCode()).isEqualTo(404);
+    assertThat(get("/api/pizzas").statusCode()).isEqualTo(200);
+
+    HttpResponse<String> response = get("/actuator/prometheus");
+    assertThat(response.statusCode()).isEqualTo(200);
+    List<String> lines = response.body().lines().toList();
+
+    assertThat(lines)
+        .anyMatch(
+            l ->
+                l.startsWith("awesome_pizza_order_service_seconds_bucket{")
+                    && l.contains("method=\"getOrderByCode\""))
+        .anyMatch(
+            l ->
+                l.startsWith("awesome_pizza_pizza_service_seconds_bucket{")
+                    && l.contains("method=\"getAllPizzas\""))
+        .anyMatch(
+            l ->
+                l.startsWith("spring_data_repository_invocations_seconds_bucket{")
+                    && l.contains("method=\"findWithDetailsByCode\"")
+                    && l.contains("repository=\"OrderRepository\""))
+        .contains("awesome_pizza_orders_rejected_total{reason=\"KITCHEN_BUSY\"} 0.0")
+        // A lookup of a missing order is not a rejected order
+        .noneMatch(l -> l.contains("reason=\"ORDER_NOT_FOUND\""))
+        .anyMatch(l -> l.startsWith("awesome_pizza_orders_status{status=\"QUEUED\"} "))
+        .anyMatch(l -> l.startsWith("awesome_pizza_orders_placed_total "));
+  }
+
+  private HttpResponse<String> get(String path) throws Exception {
+    return client.send(
+        HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build(),
+        HttpResponse.BodyHandlers.ofString());
+  }
+}
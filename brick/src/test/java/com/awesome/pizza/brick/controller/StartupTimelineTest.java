@@ -0,0 +1,45 @@
+package com.awesome.pizza.brick.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+/** Reads the startup timeline of the application started through its main method. */
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    useMainMethod = SpringBootTest.UseMainMethod.ALWAYS)
+@ActiveProfiles("test")
+class StartupTimelineTest {
+  @LocalServerPort private int port;
+  @Autowired private ObjectMapper objectMapper;
+
+  private final HttpClient client = HttpClient.newHttpClient();
+
+  @Test
+  void startup_exposesTheTimelineWithThePizzaSeedingStep() throws Exception {
+    HttpResponse<String> response =
+        client.send(
+            HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/startup"))
+                .build(),
+            HttpResponse.BodyHandlers.ofString());
+
+    assertThat(response.statusCode()).isEqualTo(200);
+    JsonNode events = objectMapper.readTree(response.body()).path("timeline").path("events");
+    List<String> steps = new ArrayList<>();
+    events.forEach(event -> steps.add(event.path("startupStep").path("name").asText()));
+    assertThat(steps).contains("spring.beans.instantiate", "awesome-pizza.bootstrap.pizzas");
+    events.forEach(event -> assertThat(event.path("duration").asText()).startsWith("PT"));
+  }
+}
@@ -0,0 +1,156 @@
+package com.awesome.pizza.brick.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.awesome.pizza.brick.entity.Pizza;
+import com.awesome.pizza.brick.model.RequestUserOrderModel;
+import com.awesome.pizza.brick.service.KitchenQueue;
+import com.awesome.pizza.brick.service.OrderService;
+import com.awesome.pizza.commons.model.OrderModel;
+import com.awesome.pizza.commons.model.OrderPizzaModel;
+import com.awesome.pizza.commons.model.UserModel;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Checks, with the Hibernate statistics, that every order read mapped to an OrderModel costs the
+ * same number of queries whatever the number of pizzas per order, and never loads a pizza: the
+ * ordered pizzas carry their own name and price. The second-level cache is evicted before every
+ * read, so that nothing is served from it.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderFetchPlanTest {
+  private static final List<Integer> PIZZAS_PER_ORDER = List.of(1, 4, 8);
+  private static final int ORDERS_PER_DAY = 3;
+
+  @Autowired private OrderService orderService;
+  @Autowired private OrderRepository orderRepository;
+  @Autowired private PizzaRepository pizzaRepository;
+  @Autowired private KitchenQueue kitchenQueue;
+  @Autowired private EntityManagerFactory entityManagerFactory;
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  private List<Pizza> pizzas;
+  private Statistics statistics;
+  private TransactionTemplate readOnly;
+
+  @BeforeEach
+  void setUp() {
+    pizzas = pizzaRepository.findAll();
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    // Like open-session-in-view, the read and the mapping share one session
+    readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+  }
+
+  @AfterEach
+  void tearDown() {
+    orderRepository.deleteAll();
+    kitchenQueue.rebuild();
+  }
+
+  @Test
+  void getOrderById_costsTheSameQueriesWhateverThePizzasPerOrder() {
+    List<Long> queries =
+        PIZZAS_PER_ORDER.stream()
+            .map(n -> orderService.createOrder(order(n, pickupDay(n))))
+            .map(order -> queries(service -> checkPizzas(service.getOrderById(order.getId()))))
+            .toList();
+
+    assertThat(queries).containsOnly(1L);
+  }
+
+  @Test
+  void getOrderByCode_costsTheSameQueriesWhateverThePizzasPerOrder() {
+    List<Long> queries =
+        PIZZAS_PER_ORDER.stream()
+            .map(n -> orderService.createOrder(order(n, pickupDay(n))))
+            .map(order -> queries(service -> checkPizzas(service.getOrderByCode(order.getCode()))))
+            .toList();
+
+    assertThat(queries).containsOnly(1L);
+  }
+
+  @Test
+  void findAllOrdersByStatusAndPickupDate_costsTheSameQueriesWhateverThePizzasPerOrder() {
+    List<Long> queries =
+        PIZZAS_PER_ORDER.stream()
+            .map(
+                n -> {
+                  LocalDateTime day = pickupDay(n);
+                  IntStream.range(0, ORDERS_PER_DAY)
+                      .forEach(i -> orderService.createOrder(order(n, day)));
+                  return queries(
+                      service ->
+                          service
+                              .findAllOrdersByStatusAndPickupDate(null, day, 100, null)
+                              .orders()
+                              .forEach(this::checkPizzas));
+                })
+            .toList();
+
+    assertThat(queries).containsOnly(2L);
+  }
+
+  /**
+   * Counts the statements of a read, mapping included, with the second-level cache empty, and
+   * checks that no pizza has been loaded.
+   */
+  private long queries(Consumer<OrderService> read) {
+    entityManagerFactory.getCache().evictAll();
+    long before = statistics.getPrepareStatementCount();
+    long pizzaLoads = statistics.getEntityStatistics(Pizza.class.getName()).getLoadCount();
+    readOnly.executeWithoutResult(status -> read.accept(orderService));
+    assertThat(statistics.getEntityStatistics(Pizza.class.getName()).getLoadCount())
+        .isEqualTo(pizzaLoads);
+    return statistics.getPrepareStatementCount() - before;
+  }
+
+  private void checkPizzas(OrderModel order) {
+    assertThat(order.getUser().getName()).isEqualTo("Mario");
+    assertThat(order.getOrderedPizzas())
+        .allMatch(p -> p.getPizzaId() != null && p.getNamePizza() != null)
+        .allMatch(p -> p.getUnitPrice() != null);
+  }
+
+  private LocalDateTime pickupDay(int pizzasPerOrder) {
+    return LocalDateTime.now()
+        .plusDays(10 + pizzasPerOrder)
+        .withHour(19)
+        .truncatedTo(ChronoUnit.HOURS);
+  }
+
+  private RequestUserOrderModel order(int pizzasPerOrder, LocalDateTime pickup) {
+    return RequestUserOrderModel.builder()
+        .user(
+            UserModel.builder()
+                .name("Mario")
+                .pickupFrom(pickup)
+                .pickupTo(pickup.plusMinutes(30))
+                .build())
+        .pizzas(
+            IntStream.range(0, pizzasPerOrder)
+                .mapToObj(
+                    i ->
+                        OrderPizzaModel.builder()
+                            .pizzaId(pizzas.get(i % pizzas.size()).getId())
+                            .build())
+                .toList())
+        .build();
+  }
+}
@@ -0,0 +1,194 @@
+package com.awesome.pizza.brick.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.awesome.pizza.brick.entity.Order;
+import com.awesome.pizza.brick.model.OrderCursor;
+import com.awesome.pizza.commons.model.OrderStatus;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Checks the pickup date lookup against a seeded dataset of orders spread over 100 days, and
+ * captures the H2 query plan of the statement actually generated by Hibernate. The default dataset
+ * of {@value #DEFAULT_ORDERS} orders keeps the test fast; the plan is checked at production scale
+ * with {@code -Dawesome-pizza.test.seed-orders=1000000}.
+ */
+@DataJpaTest(
+    properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+            + "com.awesome.pizza.brick.repository.OrderRepositoryPickupDateTest$LastStatement")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrderRepositoryPickupDateTest {
+  private static final int DEFAULT_ORDERS = 10_000;
+  private static final int ORDERS =
+      Integer.getInteger("awesome-pizza.test.seed-orders", DEFAULT_ORDERS);
+  private static final int CHUNK = 100_000;
+  private static final int DAYS = 100;
+  private static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 1);
+
+  @Autowired private OrderRepository orderRepository;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @BeforeAll
+  void seed() {
+    // Order n is picked up on day (n % DAYS), from 12:00 + (n % 480) minutes, for 30 minutes
+    jdbcTemplate.update(
+        "INSERT INTO users (id, name, pickup_from, pickup_to) "
+            + "SELECT X, 'User ' || X, "
+            + "DATEADD(MINUTE, 720 + MOD(X, 480), DATEADD(DAY, MOD(X, ?), CAST(? AS TIMESTAMP))), "
+            + "DATEADD(MINUTE, 750 + MOD(X, 480), DATEADD(DAY, MOD(X, ?), CAST(? AS TIMESTAMP))) "
+            + "FROM SYSTEM_RANGE(1, ?)",
+        DAYS,
+        FIRST_DAY.atStartOfDay(),
+        DAYS,
+        FIRST_DAY.atStartOfDay(),
+        ORDERS);
+    // Chunked, because one huge insert into an indexed table is much slower in H2
+    for (int from = 1; from <= ORDERS; from += CHUNK)
+      jdbcTemplate.update(
+          "INSERT INTO orders (id, code, status, user_id, created_at, total_price, "
+              + "pickup_date, pickup_from, pickup_to) "
+              + "SELECT u.id, 'SEED-' || u.id, CASE MOD(u.id, 4) "
+              + "WHEN 0 THEN 'QUEUED' WHEN 1 THEN 'READY' ELSE 'DELIVERED' END, "
+              + "u.id, u.pickup_from, 10, CAST(u.pickup_from AS DATE), u.pickup_from, u.pickup_to "
+              + "FROM users u WHERE u.id BETWEEN ? AND ?",
+          from,
+          from + CHUNK - 1);
+  }
+
+  @Test
+  void findAllByStatusAndPickupDate_returnsTheOrdersOfThatDay() {
+    // Seeded ids picked up on day 40 are multiples of 4, hence QUEUED
+    LocalDate day = FIRST_DAY.plusDays(40);
+    List<Order> orders =
+        orderRepository.findAllByStatusAndPickupDate(
+            EnumSet.of(OrderStatus.QUEUED),
+            day,
+            day.plusDays(1).atStartOfDay(),
+            null,
+            null,
+            null,
+            null,
+            Limit.unlimited());
+
+    Integer expected =
+        jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM orders o JOIN users u ON o.user_id = u.id "
+                + "WHERE o.status = 'QUEUED' AND CAST(u.pickup_from AS DATE) = ?",
+            Integer.class,
+            day);
+    assertThat(orders).hasSize(expected).isNotEmpty();
+    assertThat(orders)
+        .allSatisfy(
+            o -> {
+              assertThat(o.getStatus()).isEqualTo(OrderStatus.QUEUED);
+              assertThat(o.getPickupDate()).isEqualTo(day);
+            });
+  }
+
+  @Test
+  void findAllByStatusAndPickupDate_usesTheCompositeIndex() {
+    LocalDate day = FIRST_DAY.plusDays(7);
+    Set<OrderStatus> statuses = EnumSet.of(OrderStatus.QUEUED, OrderStatus.READY);
+    LocalDateTime dayEnd = day.plusDays(1).atStartOfDay();
+    orderRepository.findAllByStatusAndPickupDate(
+        statuses, day, dayEnd, null, null, null, null, Limit.of(100));
+
+    List<Object> parameters = new ArrayList<>();
+    statuses.forEach(s -> parameters.add(s.name()));
+    parameters.add(day);
+    parameters.add(dayEnd);
+    // Empty cursor (afterId checked first, then the keyset columns), then the limit
+    parameters.addAll(Arrays.asList(null, null, null, null, null, null, null, null));
+    parameters.add(100);
+    String plan =
+        jdbcTemplate.queryForObject(
+            "EXPLAIN " + LastStatement.sql, String.class, parameters.toArray());
+
+    assertThat(plan).contains("IDX_ORDERS_STATUS_PICKUP").doesNotContain("tableScan");
+    // The users of the page are joined (listing fetch plan), by primary key only
+    assertThat(plan).containsPattern("\"USERS\" \"\\w+\"\\s+/\\* PUBLIC\\.PRIMARY_KEY\\w*: ID = ");
+  }
+
+  @Test
+  void findAllByStatusAndPickupDate_pagesThroughTheDayInListingOrder() {
+    LocalDate day = FIRST_DAY.plusDays(40);
+    LocalDateTime dayEnd = day.plusDays(1).atStartOfDay();
+    Set<OrderStatus> statuses = EnumSet.of(OrderStatus.QUEUED);
+    List<Order> all = new ArrayList<>();
+    List<Order> page;
+    OrderCursor cursor = new OrderCursor(null, null, null, null);
+    do {
+      page =
+          orderRepository.findAllByStatusAndPickupDate(
+              statuses,
+              day,
+              dayEnd,
+              cursor.pickupFrom(),
+              cursor.pickupTo(),
+              cursor.createdAt(),
+              cursor.id(),
+              Limit.of(500));
+      assertThat(page.size()).isLessThanOrEqualTo(500);
+      all.addAll(page);
+      if (!page.isEmpty()) cursor = OrderCursor.after(page.get(page.size() - 1));
+    } while (page.size() == 500);
+
+    List<OrderCursor> keys = all.stream().map(OrderCursor::after).toList();
+    Comparator<OrderCursor> listingOrder =
+        Comparator.comparing(OrderCursor::pickupFrom)
+            .thenComparing(OrderCursor::pickupTo)
+            .thenComparing(OrderCursor::createdAt)
+            .thenComparing(OrderCursor::id);
+    assertThat(keys).hasSize(ORDERS / DAYS).isSortedAccordingTo(listingOrder);
+    assertThat(keys.stream().map(OrderCursor::id).distinct()).hasSize(keys.size());
+  }
+
+  @Test
+  void findKitchenHead_readsTheFirstQueuedOrderFromTheCompositeIndex() {
+    List<Order> head = orderRepository.findKitchenHead(OrderStatus.QUEUED, Limit.of(1));
+    String plan =
+        jdbcTemplate.queryForObject(
+            "EXPLAIN " + LastStatement.ordersSql, String.class, OrderStatus.QUEUED.name(), 1);
+
+    Long expected =
+        jdbcTemplate.queryForObject(
+            "SELECT id FROM orders WHERE status = 'QUEUED' ORDER BY pickup_from, created_at, id "
+                + "FETCH FIRST ROW ONLY",
+            Long.class);
+    assertThat(head).extracting(Order::getId).containsExactly(expected);
+    assertThat(plan).contains("IDX_ORDERS_STATUS_PICKUP").doesNotContain("tableScan");
+  }
+
+  /** Records the last SQL statement prepared by Hibernate. */
+  public static class LastStatement implements StatementInspector {
+    static volatile String sql;
+    // Last statement reading the orders, before the separate reads of their users
+    static volatile String ordersSql;
+
+    @Override
+    public String inspect(String statement) {
+      sql = statement;
+      if (statement.contains(" from orders ")) ordersSql = statement;
+      return statement;
+    }
+  }
+}
@@ -0,0 +1,139 @@
+package com.awesome.pizza.brick.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.awesome.pizza.brick.entity.Pizza;
+import com.awesome.pizza.brick.model.OrderSummaryPage;
+import com.awesome.pizza.brick.model.RequestUserOrderModel;
+import com.awesome.pizza.brick.service.KitchenQueue;
+import com.awesome.pizza.brick.service.OrderService;
+import com.awesome.pizza.commons.model.OrderModel;
+import com.awesome.pizza.commons.model.OrderPizzaModel;
+import com.awesome.pizza.commons.model.OrderSummaryModel;
+import com.awesome.pizza.commons.model.UserModel;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Checks, through the SQL actually sent to the database, that every page of order summaries is
+ * read with a single query and without loading any entity, whatever the number of pizzas.
+ */
+@SpringBootTest(
+    properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+            + "com.awesome.pizza.brick.repository.OrderSummaryQueryTest$Statements")
+@ActiveProfiles("test")
+class OrderSummaryQueryTest {
+  @Autowired private OrderService orderService;
+  @Autowired private OrderRepository orderRepository;
+  @Autowired private PizzaRepository pizzaRepository;
+  @Autowired private KitchenQueue kitchenQueue;
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  private List<Pizza> pizzas;
+  private LocalDateTime pickup;
+
+  @BeforeEach
+  void setUp() {
+    pizzas = pizzaRepository.findAll();
+    pickup = LocalDateTime.now().plusDays(3).withHour(19).truncatedTo(ChronoUnit.HOURS);
+  }
+
+  @AfterEach
+  void tearDown() {
+    orderRepository.deleteAll();
+    kitchenQueue.rebuild();
+  }
+
+  @Test
+  void summaryPages_costOneQueryAndNoEntityWhateverThePizzasPerOrder() {
+    Map<String, OrderModel> created =
+        IntStream.rangeClosed(1, 6)
+            .mapToObj(pizzasPerOrder -> orderService.createOrder(order(pizzasPerOrder)))
+            .collect(Collectors.toMap(OrderModel::getCode, Function.identity()));
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    long entityLoads = statistics.getEntityLoadCount();
+    long collectionLoads = statistics.getCollectionLoadCount();
+
+    List<OrderSummaryModel> summaries = new ArrayList<>();
+    List<Integer> queriesPerPage = new ArrayList<>();
+    String after = null;
+    do {
+      Statements.SQL.clear();
+      OrderSummaryPage page = orderService.findOrderSummaries(null, pickup, 2, after);
+      queriesPerPage.add(Statements.onThisThread().size());
+      summaries.addAll(page.orders());
+      after = page.nextCursor();
+    } while (after != null);
+
+    assertThat(queriesPerPage).containsOnly(1).hasSize(3);
+    assertThat(statistics.getEntityLoadCount()).isEqualTo(entityLoads);
+    assertThat(statistics.getCollectionLoadCount()).isEqualTo(collectionLoads);
+    assertThat(summaries).hasSize(created.size());
+    for (OrderSummaryModel summary : summaries) {
+      OrderModel order = created.get(summary.getCode());
+      assertThat(summary.getStatus()).isEqualTo(order.getStatus());
+      assertThat(summary.getTotalPrice()).isEqualByComparingTo(order.getTotalPrice());
+      assertThat(summary.getPickupFrom()).isEqualTo(pickup);
+      assertThat(summary.getPizzaNames())
+          .containsExactlyElementsOf(
+              order.getOrderedPizzas().stream().map(OrderPizzaModel::getNamePizza).toList());
+      assertThat(summary.getPizzaQuantities())
+          .containsExactlyElementsOf(
+              order.getOrderedPizzas().stream().map(OrderPizzaModel::getQuantity).toList());
+    }
+  }
+
+  private RequestUserOrderModel order(int pizzasPerOrder) {
+    return RequestUserOrderModel.builder()
+        .user(
+            UserModel.builder()
+                .name("Mario")
+                .pickupFrom(pickup)
+                .pickupTo(pickup.plusMinutes(30))
+                .build())
+        .pizzas(
+            IntStream.range(0, pizzasPerOrder)
+                .mapToObj(
+                    i ->
+                        OrderPizzaModel.builder()
+                            .pizzaId(pizzas.get(i % pizzas.size()).getId())
+                            .build())
+                .toList())
+        .build();
+  }
+
+  public static class Statements implements StatementInspector {
+    static final List<Map.Entry<Thread, String>> SQL = new CopyOnWriteArrayList<>();
+
+    static List<String> onThisThread() {
+      return SQL.stream()
+          .filter(statement -> statement.getKey() == Thread.currentThread())
+          .map(Map.Entry::getValue)
+          .toList();
+    }
+
+    @Override
+    public String inspect(String sql) {
+      SQL.add(Map.entry(Thread.currentThread(), sql));
+      return sql;
+    }
+  }
+}
@@ -0,0 +1,141 @@
+package com.awesome.pizza.brick.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.awesome.pizza.brick.entity.Pizza;
+import com.awesome.pizza.brick.model.RequestUserOrderModel;
+import com.awesome.pizza.brick.service.KitchenQueue;
+import com.awesome.pizza.brick.service.OrderService;
+import com.awesome.pizza.commons.model.OrderPizzaModel;
+import com.awesome.pizza.commons.model.UserModel;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Checks, through the SQL actually sent to the database, that pizzas and ingredients are served by
+ * the second-level cache once loaded, and loaded again once evicted, while order reads never need
+ * them.
+ */
+@SpringBootTest(
+    properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+            + "com.awesome.pizza.brick.repository.SecondLevelCacheTest$MenuStatements")
+@ActiveProfiles("test")
+class SecondLevelCacheTest {
+  private static final Pattern MENU_TABLES = Pattern.compile("\\b(pizzas|ingredient)\\b");
+
+  @Autowired private OrderService orderService;
+  @Autowired private OrderRepository orderRepository;
+  @Autowired private PizzaRepository pizzaRepository;
+  @Autowired private KitchenQueue kitchenQueue;
+  @Autowired private EntityManagerFactory entityManagerFactory;
+  @Autowired private PlatformTransactionManager transactionManager;
+  @Autowired private MeterRegistry meterRegistry;
+
+  private TransactionTemplate readOnly;
+  private List<Long> pizzaIds;
+
+  @BeforeEach
+  void setUp() {
+    readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+    pizzaIds = pizzaRepository.findAll().stream().map(Pizza::getId).limit(3).toList();
+    entityManagerFactory.getCache().evictAll();
+  }
+
+  @AfterEach
+  void tearDown() {
+    orderRepository.deleteAll();
+    kitchenQueue.rebuild();
+  }
+
+  @Test
+  void orderReads_issueNoPizzaQueriesEvenWithAnEmptyCache() {
+    String code = orderService.createOrder(order()).getCode();
+
+    MenuStatements.SQL.clear();
+    entityManagerFactory.getCache().evictAll();
+    readOrder(code);
+    readOrder(code);
+
+    assertThat(MenuStatements.SQL).isNotEmpty().noneMatch(sql -> MENU_TABLES.matcher(sql).find());
+  }
+
+  @Test
+  void repeatedPizzaReads_issueNoPizzaOrIngredientQueries() {
+    readPizzaIngredients(pizzaIds.get(0));
+
+    MenuStatements.SQL.clear();
+    readPizzaIngredients(pizzaIds.get(0));
+    readPizzaIngredients(pizzaIds.get(0));
+
+    assertThat(MenuStatements.SQL).isEmpty();
+    FunctionCounter hits =
+        meterRegistry
+            .find("hibernate.second.level.cache.requests")
+            .tags("region", "pizzas", "result", "hit")
+            .functionCounter();
+    assertThat(hits).isNotNull();
+    assertThat(hits.count()).isPositive();
+  }
+
+  @Test
+  void pizzaReadsAfterEviction_loadThePizzasAgain() {
+    MenuStatements.SQL.clear();
+    entityManagerFactory.getCache().evictAll();
+    readPizzaIngredients(pizzaIds.get(0));
+    entityManagerFactory.getCache().evictAll();
+    readPizzaIngredients(pizzaIds.get(0));
+
+    assertThat(MenuStatements.SQL)
+        .filteredOn(sql -> MENU_TABLES.matcher(sql).find())
+        .hasSizeGreaterThanOrEqualTo(2);
+  }
+
+  private void readOrder(String code) {
+    readOnly.executeWithoutResult(status -> orderService.getOrderByCode(code));
+  }
+
+  private void readPizzaIngredients(Long id) {
+    readOnly.executeWithoutResult(
+        status -> pizzaRepository.findById(id).orElseThrow().getIngredients().forEach(i -> {}));
+  }
+
+  private RequestUserOrderModel order() {
+    LocalDateTime pickup = LocalDateTime.now().plusHours(2);
+    return RequestUserOrderModel.builder()
+        .user(
+            UserModel.builder()
+                .name("Mario")
+                .pickupFrom(pickup)
+                .pickupTo(pickup.plusMinutes(30))
+                .build())
+        .pizzas(
+            pizzaIds.stream().map(id -> OrderPizzaModel.builder().pizzaId(id).build()).toList())
+        .build();
+  }
+
+  public static class MenuStatements implements StatementInspector {
+    static final List<String> SQL = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String statement) {
+      SQL.add(statement);
+      return statement;
+    }
+  }
+}
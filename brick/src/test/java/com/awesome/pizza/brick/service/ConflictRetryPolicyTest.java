@@ -0,0 +1,59 @@
+package com.awesome.pizza.brick.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.awesome.pizza.brick.exception.OrderException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+class ConflictRetryPolicyTest {
+  private final ConflictRetryPolicy policy =
+      new ConflictRetryPolicy(3, Duration.ofMillis(1), Duration.ofMillis(2));
+
+  @Test
+  void run_retriesUntilTheTransitionSucceeds() {
+    AtomicInteger attempts = new AtomicInteger();
+    String result =
+        policy.run(
+            () -> {
+              if (attempts.incrementAndGet() < 3)
+                throw new OptimisticLockingFailureException("stale");
+              return "done";
+            });
+    assertThat(result).isEqualTo("done");
+    assertThat(attempts).hasValue(3);
+  }
+
+  @Test
+  void run_givesUpAfterMaxAttempts() {
+    AtomicInteger attempts = new AtomicInteger();
+    OrderException ex =
+        Assertions.assertThrows(
+            OrderException.class,
+            () ->
+                policy.run(
+                    () -> {
+                      attempts.incrementAndGet();
+                      throw new OptimisticLockingFailureException("stale");
+                    }));
+    assertThat(ex.getReason()).isEqualTo(OrderException.Reason.CONCURRENT_UPDATE);
+    assertThat(attempts).hasValue(3);
+  }
+
+  @Test
+  void run_doesNotRetryOtherFailures() {
+    AtomicInteger attempts = new AtomicInteger();
+    Assertions.assertThrows(
+        OrderException.class,
+        () ->
+            policy.run(
+                () -> {
+                  attempts.incrementAndGet();
+                  throw new OrderException(OrderException.Reason.KITCHEN_BUSY, "busy");
+                }));
+    assertThat(attempts).hasValue(1);
+  }
+}
@@ -0,0 +1,151 @@
+package com.awesome.pizza.brick.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.awesome.pizza.brick.repository.IngredientRepository;
+import com.awesome.pizza.commons.model.IngredientModel;
+import com.awesome.pizza.commons.model.PizzaModel;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Checks, through the SQL actually sent to the database, that creating a pizza costs the same
+ * statements whatever the number of its ingredients, and that concurrent resolutions of the same
+ * new names store every ingredient once.
+ */
+@SpringBootTest(
+    properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+            + "com.awesome.pizza.brick.service.IngredientResolutionTest$Statements")
+@ActiveProfiles("test")
+class IngredientResolutionTest {
+  private static final Pattern SEQUENCE = Pattern.compile("(?i)next value for");
+  private static final Pattern INGREDIENT_TABLE = Pattern.compile("(?i)\\bingredient\\b");
+
+  @Autowired private PizzaService pizzaService;
+  @Autowired private IngredientService ingredientService;
+  @Autowired private IngredientRepository ingredientRepository;
+
+  private final List<Long> createdPizzas = new ArrayList<>();
+  private String prefix;
+
+  @BeforeEach
+  void setUp() {
+    prefix = UUID.randomUUID().toString().substring(0, 8);
+  }
+
+  @AfterEach
+  void tearDown() {
+    createdPizzas.forEach(pizzaService::deletePizza);
+  }
+
+  @Test
+  void createPizza_withNewIngredients_issuesTheSameStatementsWhateverTheirNumber() {
+    List<String> fewIngredients = statementsCreating("few", ingredients("a", 2));
+    List<String> manyIngredients = statementsCreating("many", ingredients("b", 12));
+
+    assertThat(fewIngredients).filteredOn(this::onIngredients).hasSize(2);
+    assertThat(manyIngredients).hasSameSizeAs(fewIngredients);
+  }
+
+  @Test
+  void createPizza_withKnownIngredients_issuesNoIngredientStatement() {
+    statementsCreating("first", ingredients("c", 6));
+
+    List<String> fewIngredients = statementsCreating("few", ingredients("c", 2));
+    List<String> manyIngredients = statementsCreating("many", ingredients("c", 6));
+
+    assertThat(fewIngredients).noneMatch(this::onIngredients);
+    assertThat(manyIngredients).hasSameSizeAs(fewIngredients);
+  }
+
+  @Test
+  void concurrentResolutions_storeEveryIngredientOnce() throws Exception {
+    List<String> names = ingredients("d", 20);
+    int threads = 8;
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<List<IngredientModel>>> results = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        List<String> shuffled = new ArrayList<>(names);
+        Collections.shuffle(shuffled);
+        results.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  return ingredientService.resolveIngredients(shuffled);
+                }));
+      }
+      start.countDown();
+
+      List<Long> expected = sortedIds(results.get(0).get());
+      for (Future<List<IngredientModel>> result : results)
+        assertThat(sortedIds(result.get())).isEqualTo(expected);
+      assertThat(ingredientRepository.findAllByNameIn(names)).hasSize(names.size());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private List<String> statementsCreating(String name, List<String> ingredients) {
+    PizzaModel pizza =
+        PizzaModel.builder()
+            .name(prefix + " " + name)
+            .description("Test pizza")
+            .price(BigDecimal.TEN)
+            .ingredients(
+                ingredients.stream()
+                    .map(i -> IngredientModel.builder().name(i).build())
+                    .toList())
+            .build();
+    Statements.SQL.clear();
+    createdPizzas.add(pizzaService.createPizza(pizza).getId());
+    return Statements.SQL.stream()
+        .filter(statement -> statement.thread() == Thread.currentThread())
+        .map(Statement::sql)
+        .filter(sql -> !SEQUENCE.matcher(sql).find())
+        .toList();
+  }
+
+  private List<String> ingredients(String group, int count) {
+    return IntStream.range(0, count).mapToObj(i -> prefix + " " + group + i).toList();
+  }
+
+  private boolean onIngredients(String sql) {
+    return INGREDIENT_TABLE.matcher(sql).find();
+  }
+
+  private static List<Long> sortedIds(List<IngredientModel> ingredients) {
+    return ingredients.stream().map(IngredientModel::getId).sorted().toList();
+  }
+
+  public static class Statements implements StatementInspector {
+    static final List<Statement> SQL = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+      SQL.add(new Statement(Thread.currentThread(), sql));
+      return sql;
+    }
+  }
+
+  record Statement(Thread thread, String sql) {}
+}
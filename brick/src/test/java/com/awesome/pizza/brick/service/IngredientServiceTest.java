@@ -2,45 +2,130 @@ package com.awesome.pizza.brick.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.awesome.pizza.brick.entity.Ingredient;
-import com.awesome.pizza.brick.mapper.IngredientMapper;
 import com.awesome.pizza.brick.repository.IngredientRepository;
 import com.awesome.pizza.commons.model.IngredientModel;
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
 
 @ExtendWith(MockitoExtension.class)
 class IngredientServiceTest {
+  private static final int DICTIONARY_SIZE = 100;
+
   @Mock private IngredientRepository ingredientRepository;
-  @Mock private IngredientMapper ingredientMapper;
-  @InjectMocks private IngredientService ingredientService;
+  @Mock private PlatformTransactionManager transactionManager;
+  private IngredientService ingredientService;
+
+  @BeforeEach
+  void setUp() {
+    ingredientService =
+        new IngredientService(ingredientRepository, transactionManager, DICTIONARY_SIZE);
+  }
 
   @Test
   void addIngredientIfNotExists_shouldAddNewIngredient() {
-    String name = "Mozzarella";
-    Ingredient ingredient = Ingredient.builder().name(name.toLowerCase()).build();
-    IngredientModel model = new IngredientModel();
-    when(ingredientRepository.findByName(name.toLowerCase())).thenReturn(Optional.empty());
-    when(ingredientRepository.save(any(Ingredient.class))).thenReturn(ingredient);
-    when(ingredientMapper.toModel(any(Ingredient.class))).thenReturn(model);
-    IngredientModel result = ingredientService.addIngredientIfNotExists(name);
-    assertThat(result).isNotNull();
+    when(ingredientRepository.findAllByNameIn(Set.of("mozzarella"))).thenReturn(List.of());
+    when(ingredientRepository.saveAllAndFlush(any()))
+        .thenReturn(List.of(ingredient(1L, "mozzarella")));
+    IngredientModel result = ingredientService.addIngredientIfNotExists(" Mozzarella ");
+    assertThat(result).isEqualTo(new IngredientModel(1L, "mozzarella"));
   }
 
   @Test
   void addIngredientIfNotExists_shouldReturnExistingIngredient() {
-    String name = "Pomodoro";
-    Ingredient ingredient = Ingredient.builder().name(name.toLowerCase()).build();
-    IngredientModel model = new IngredientModel();
-    when(ingredientRepository.findByName(name.toLowerCase())).thenReturn(Optional.of(ingredient));
-    when(ingredientMapper.toModel(ingredient)).thenReturn(model);
-    IngredientModel result = ingredientService.addIngredientIfNotExists(name);
-    assertThat(result).isNotNull();
+    when(ingredientRepository.findAllByNameIn(Set.of("pomodoro")))
+        .thenReturn(List.of(ingredient(2L, "pomodoro")));
+    IngredientModel result = ingredientService.addIngredientIfNotExists("Pomodoro");
+    assertThat(result).isEqualTo(new IngredientModel(2L, "pomodoro"));
+    verify(ingredientRepository, never()).saveAllAndFlush(any());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void resolveIngredients_shouldInsertMissingNamesInOneBatch() {
+    when(ingredientRepository.findAllByNameIn(
+            Set.of("mozzarella", "pomodoro", "basilico fresco")))
+        .thenReturn(List.of(ingredient(1L, "mozzarella")));
+    when(ingredientRepository.saveAllAndFlush(any()))
+        .thenReturn(List.of(ingredient(2L, "pomodoro"), ingredient(3L, "basilico fresco")));
+
+    List<IngredientModel> result =
+        ingredientService.resolveIngredients(
+            List.of("Mozzarella", " pomodoro", "MOZZARELLA", "Basilico   Fresco"));
+
+    assertThat(result)
+        .containsExactly(
+            new IngredientModel(1L, "mozzarella"),
+            new IngredientModel(2L, "pomodoro"),
+            new IngredientModel(3L, "basilico fresco"));
+    ArgumentCaptor<List<Ingredient>> inserted = ArgumentCaptor.forClass(List.class);
+    verify(ingredientRepository).saveAllAndFlush(inserted.capture());
+    assertThat(inserted.getValue())
+        .extracting(Ingredient::getName)
+        .containsExactly("basilico fresco", "pomodoro");
+  }
+
+  @Test
+  void resolveIngredients_shouldServeKnownNamesFromMemory() {
+    when(ingredientRepository.findAllByNameIn(Set.of("mozzarella", "pomodoro")))
+        .thenReturn(List.of(ingredient(1L, "mozzarella"), ingredient(2L, "pomodoro")));
+    ingredientService.resolveIngredients(List.of("mozzarella", "pomodoro"));
+
+    List<IngredientModel> result =
+        ingredientService.resolveIngredients(List.of("Pomodoro", "Mozzarella"));
+
+    assertThat(result).extracting(IngredientModel::getId).containsExactly(2L, 1L);
+    verify(ingredientRepository, times(1)).findAllByNameIn(anyCollection());
+    verify(ingredientRepository, never()).saveAllAndFlush(any());
+  }
+
+  @Test
+  void resolveIngredients_shouldReadBackNamesInsertedConcurrently() {
+    when(ingredientRepository.findAllByNameIn(Set.of("mozzarella")))
+        .thenReturn(List.of())
+        .thenReturn(List.of(ingredient(1L, "mozzarella")));
+    when(ingredientRepository.saveAllAndFlush(any()))
+        .thenThrow(new DataIntegrityViolationException("Unique index violation"));
+
+    List<IngredientModel> result = ingredientService.resolveIngredients(List.of("mozzarella"));
+
+    assertThat(result).containsExactly(new IngredientModel(1L, "mozzarella"));
+    verify(ingredientRepository, times(1)).saveAllAndFlush(any());
+  }
+
+  @Test
+  void resolveIngredients_keepsTheDictionaryBounded() {
+    when(ingredientRepository.findAllByNameIn(anyCollection()))
+        .thenAnswer(
+            invocation ->
+                invocation.<Collection<String>>getArgument(0).stream()
+                    .map(name -> ingredient(Long.valueOf(name.substring(11)), name))
+                    .toList());
+
+    // Every request brings a name never seen before
+    for (int i = 0; i < DICTIONARY_SIZE * 10; i++)
+      assertThat(ingredientService.resolveIngredients(List.of("Ingredient " + i)))
+          .containsExactly(new IngredientModel((long) i, "ingredient " + i));
+
+    assertThat(ingredientService.dictionarySize()).isLessThanOrEqualTo(DICTIONARY_SIZE);
+  }
+
+  private static Ingredient ingredient(Long id, String name) {
+    return Ingredient.builder().id(id).name(name).build();
   }
 }
@@ -0,0 +1,136 @@
+package com.awesome.pizza.brick.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import com.awesome.pizza.brick.entity.Order;
+import com.awesome.pizza.brick.entity.User;
+import com.awesome.pizza.brick.repository.OrderRepository;
+import com.awesome.pizza.commons.model.OrderStatus;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class KitchenQueueTest {
+  private static final LocalDateTime NOON = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+  @Mock private OrderRepository orderRepository;
+  @InjectMocks private KitchenQueue kitchenQueue;
+
+  @Test
+  void peek_returnsTicketsByPickupFromThenCreatedAt() {
+    kitchenQueue.offer(new KitchenTicket("C", 3L, NOON.plusMinutes(30), NOON.minusHours(3)));
+    kitchenQueue.offer(new KitchenTicket("B", 2L, NOON, NOON.minusHours(1)));
+    kitchenQueue.offer(new KitchenTicket("A", 1L, NOON, NOON.minusHours(2)));
+    kitchenQueue.offer(new KitchenTicket("D", 4L, null, NOON.minusHours(4)));
+
+    assertThat(kitchenQueue.peek()).map(KitchenTicket::code).contains("A");
+    assertThat(kitchenQueue.size()).isEqualTo(4);
+    assertThat(drain()).containsExactly("A", "B", "C", "D");
+    assertThat(kitchenQueue.peek()).isEmpty();
+  }
+
+  @Test
+  void sync_movesUpdatedOrdersAndDropsOrdersThatLeftTheQueue() {
+    kitchenQueue.sync(order("A", 1L, NOON, OrderStatus.QUEUED));
+    kitchenQueue.sync(order("B", 2L, NOON.plusMinutes(10), OrderStatus.QUEUED));
+    kitchenQueue.sync(order("C", 3L, NOON.plusMinutes(20), OrderStatus.QUEUED));
+
+    // A is postponed after C, B is taken by the kitchen
+    kitchenQueue.sync(order("A", 1L, NOON.plusMinutes(30), OrderStatus.QUEUED));
+    kitchenQueue.sync(order("B", 2L, NOON.plusMinutes(10), OrderStatus.IN_PROGRESS));
+    kitchenQueue.remove("missing");
+
+    assertThat(kitchenQueue.size()).isEqualTo(2);
+    assertThat(drain()).containsExactly("C", "A");
+  }
+
+  @Test
+  void rebuild_loadsTheQueuedOrders() {
+    kitchenQueue.offer(new KitchenTicket("OLD", 9L, NOON, NOON));
+    when(orderRepository.findKitchenTicketsByStatus(OrderStatus.QUEUED))
+        .thenReturn(
+            List.of(
+                new KitchenTicket("B", 2L, NOON.plusMinutes(5), NOON),
+                new KitchenTicket("A", 1L, NOON, NOON)));
+
+    kitchenQueue.rebuild();
+
+    assertThat(drain()).containsExactly("A", "B");
+  }
+
+  @Test
+  void resync_addsTheOrdersQueuedElsewhereWithoutDroppingTheLocalOnes() {
+    kitchenQueue.offer(new KitchenTicket("LOCAL", 1L, NOON.plusMinutes(10), NOON));
+    when(orderRepository.findKitchenTicketsByStatus(OrderStatus.QUEUED))
+        .thenReturn(List.of(new KitchenTicket("REMOTE", 2L, NOON, NOON)));
+
+    kitchenQueue.resync();
+
+    assertThat(kitchenQueue.peek()).map(KitchenTicket::code).contains("REMOTE");
+    assertThat(drain()).containsExactly("REMOTE", "LOCAL");
+  }
+
+  @Test
+  void peekAndRemove_drainTheQueueAcrossConcurrentClaimers() throws Exception {
+    int tickets = 20_000;
+    int claimers = 8;
+    for (int i = 0; i < tickets; i++)
+      kitchenQueue.offer(new KitchenTicket("ORD-" + i, (long) i, NOON.plusSeconds(i % 600), NOON));
+
+    // Each claimer discards the head as claimHead() does with stale tickets
+    Set<String> seen = ConcurrentHashMap.newKeySet();
+    ExecutorService executor = Executors.newFixedThreadPool(claimers);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int t = 0; t < claimers; t++)
+      futures.add(
+          executor.submit(
+              () -> {
+                start.await();
+                Optional<KitchenTicket> ticket;
+                while ((ticket = kitchenQueue.peek()).isPresent()) {
+                  seen.add(ticket.get().code());
+                  kitchenQueue.remove(ticket.get().code());
+                }
+                return null;
+              }));
+    start.countDown();
+    for (Future<?> future : futures) future.get(30, TimeUnit.SECONDS);
+    executor.shutdown();
+
+    assertThat(seen).hasSize(tickets);
+    assertThat(kitchenQueue.size()).isZero();
+    assertThat(kitchenQueue.peek()).isEmpty();
+  }
+
+  private List<String> drain() {
+    List<String> codes = new ArrayList<>();
+    Optional<KitchenTicket> ticket;
+    while ((ticket = kitchenQueue.peek()).isPresent()) {
+      codes.add(ticket.get().code());
+      kitchenQueue.remove(ticket.get().code());
+    }
+    return codes;
+  }
+
+  private static Order order(String code, Long id, LocalDateTime pickupFrom, OrderStatus status) {
+    return Order.builder()
+        .id(id)
+        .code(code)
+        .status(status)
+        .createdAt(NOON.minusHours(1))
+        .pickupFrom(pickupFrom)
+        .user(User.builder().pickupFrom(pickupFrom).pickupTo(pickupFrom.plusMinutes(30)).build())
+        .build();
+  }
+}
@@ -0,0 +1,122 @@
+package com.awesome.pizza.brick.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class MonotonicOrderCodeGeneratorTest {
+  private static final int THREADS = 8;
+  private static final int CODES_PER_THREAD = 250_000;
+
+  @Test
+  void nextCode_isUniqueAcrossThreads() throws Exception {
+    MonotonicOrderCodeGenerator generator =
+        new MonotonicOrderCodeGenerator(7, System::currentTimeMillis);
+    Set<String> codes = ConcurrentHashMap.newKeySet(THREADS * CODES_PER_THREAD);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      futures.add(
+          executor.submit(
+              () -> {
+                start.await();
+                String previous = "";
+                for (int i = 0; i < CODES_PER_THREAD; i++) {
+                  String code = generator.nextCode();
+                  // Codes issued to the same thread must sort in creation order
+                  if (code.compareTo(previous) <= 0)
+                    throw new AssertionError(code + " issued after " + previous);
+                  codes.add(code);
+                  previous = code;
+                }
+                return null;
+              }));
+    }
+    start.countDown();
+    for (Future<?> future : futures) future.get(2, TimeUnit.MINUTES);
+    executor.shutdown();
+
+    assertThat(codes).hasSize(THREADS * CODES_PER_THREAD);
+  }
+
+  @Test
+  void nextCode_hasFixedLength() {
+    MonotonicOrderCodeGenerator generator =
+        new MonotonicOrderCodeGenerator(1023, System::currentTimeMillis);
+    assertThat(generator.nextCode()).startsWith("ORD-").hasSize(17);
+  }
+
+  @Test
+  void nextCode_differsBetweenNodesInTheSameMillisecond() {
+    MonotonicOrderCodeGenerator first = new MonotonicOrderCodeGenerator(1, () -> 1_800_000_000_000L);
+    MonotonicOrderCodeGenerator second =
+        new MonotonicOrderCodeGenerator(2, () -> 1_800_000_000_000L);
+    Set<String> codes = ConcurrentHashMap.newKeySet();
+    for (int i = 0; i < 10_000; i++) {
+      codes.add(first.nextCode());
+      codes.add(second.nextCode());
+    }
+    assertThat(codes).hasSize(20_000);
+  }
+
+  @Test
+  void nextId_staysMonotonicWhenTheClockGoesBackwards() {
+    AtomicLong now = new AtomicLong(1_800_000_000_000L);
+    MonotonicOrderCodeGenerator generator = new MonotonicOrderCodeGenerator(3, now::get);
+    long before = generator.nextId();
+    now.addAndGet(-60_000);
+    assertThat(generator.nextId()).isGreaterThan(before);
+  }
+
+  @Test
+  void constructor_rejectsOutOfRangeNodeId() {
+    Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () -> new MonotonicOrderCodeGenerator(1024, System::currentTimeMillis));
+  }
+
+  @Test
+  void resolveNodeId_prefersTheConfiguredIdThenTheReplicaOrdinal() {
+    assertThat(MonotonicOrderCodeGenerator.resolveNodeId(5, true, "brick", "brick-3"))
+        .isEqualTo(5);
+    assertThat(MonotonicOrderCodeGenerator.resolveNodeId(null, true, "brick", "brick-3"))
+        .isEqualTo(3);
+    assertThat(MonotonicOrderCodeGenerator.resolveNodeId(null, false, "brick", "brick-0"))
+        .isZero();
+  }
+
+  @Test
+  void resolveNodeId_ignoresHostNameNumbersWithoutStatefulSet() {
+    assertThat(MonotonicOrderCodeGenerator.resolveNodeId(null, false, null, "ip-10-0-1-17"))
+        .isZero();
+    assertThat(MonotonicOrderCodeGenerator.resolveNodeId(null, false, null, "brick-3")).isZero();
+    assertThat(MonotonicOrderCodeGenerator.resolveNodeId(null, false, null, null)).isZero();
+  }
+
+  @Test
+  void resolveNodeId_failsWhenRequiredAndMissingOrOutOfRange() {
+    Assertions.assertThrows(
+        IllegalStateException.class,
+        () -> MonotonicOrderCodeGenerator.resolveNodeId(null, true, null, "brick-3"));
+    Assertions.assertThrows(
+        IllegalStateException.class,
+        () -> MonotonicOrderCodeGenerator.resolveNodeId(null, false, "brick", "brick-1024"));
+  }
+
+  @Test
+  void resolveNodeId_failsWhenTheHostIsNotAReplicaOfTheStatefulSet() {
+    Assertions.assertThrows(
+        IllegalStateException.class,
+        () -> MonotonicOrderCodeGenerator.resolveNodeId(null, false, "brick", "ip-10-0-1-17"));
+    Assertions.assertThrows(
+        IllegalStateException.class,
+        () -> MonotonicOrderCodeGenerator.resolveNodeId(null, false, "brick", "brick-db-3"));
+  }
+}
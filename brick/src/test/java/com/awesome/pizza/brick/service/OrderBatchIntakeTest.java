@@ -0,0 +1,113 @@
+package com.awesome.pizza.brick.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.awesome.pizza.brick.model.OrderBatchItemResult;
+import com.awesome.pizza.brick.model.RequestUserOrderModel;
+import com.awesome.pizza.brick.repository.OrderRepository;
+import com.awesome.pizza.brick.repository.PizzaRepository;
+import com.awesome.pizza.commons.model.OrderPizzaModel;
+import com.awesome.pizza.commons.model.UserModel;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Compares the batch intake with the one-by-one path on the same orders, counting transactions and
+ * prepared JDBC statements (one per batch when inserts are batched) through the Hibernate
+ * statistics and logging the throughput of both paths.
+ */
+@Slf4j
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class OrderBatchIntakeTest {
+  private static final int ORDERS = 500;
+  private static final int PIZZAS_PER_ORDER = 3;
+
+  @Autowired private OrderService orderService;
+  @Autowired private OrderRepository orderRepository;
+  @Autowired private PizzaRepository pizzaRepository;
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  private Statistics statistics;
+  private List<RequestUserOrderModel> orders;
+
+  @BeforeEach
+  void setUp() {
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    List<Long> pizzaIds = pizzaRepository.findAll().stream().map(p -> p.getId()).toList();
+    LocalDateTime pickup = LocalDateTime.now().plusDays(1);
+    orders =
+        IntStream.range(0, ORDERS)
+            .mapToObj(
+                i ->
+                    RequestUserOrderModel.builder()
+                        .user(
+                            UserModel.builder()
+                                .name("Customer " + i)
+                                .pickupFrom(pickup.plusMinutes(i))
+                                .pickupTo(pickup.plusMinutes(i + 30))
+                                .build())
+                        .pizzas(
+                            IntStream.range(0, PIZZAS_PER_ORDER)
+                                .mapToObj(
+                                    p ->
+                                        OrderPizzaModel.builder()
+                                            .pizzaId(pizzaIds.get((i + p) % pizzaIds.size()))
+                                            .build())
+                                .toList())
+                        .build())
+            .toList();
+  }
+
+  @AfterEach
+  void tearDown() {
+    orderRepository.deleteAll();
+  }
+
+  @Test
+  void createOrders_usesOneTransactionAndFewerStatementsThanOneByOne() {
+    statistics.clear();
+    long start = System.nanoTime();
+    orders.forEach(orderService::createOrder);
+    long oneByOneNanos = System.nanoTime() - start;
+    long oneByOneTransactions = statistics.getTransactionCount();
+    long oneByOneStatements = statistics.getPrepareStatementCount();
+    orderRepository.deleteAll();
+
+    statistics.clear();
+    start = System.nanoTime();
+    List<OrderBatchItemResult> results = orderService.createOrders(orders);
+    long batchNanos = System.nanoTime() - start;
+    long batchTransactions = statistics.getTransactionCount();
+    long batchStatements = statistics.getPrepareStatementCount();
+
+    log.info(
+        "<<< {} orders: one by one {} orders/s ({} transactions, {} statements), "
+            + "batch {} orders/s ({} transactions, {} statements) >>>",
+        ORDERS,
+        ORDERS * 1_000_000_000L / oneByOneNanos,
+        oneByOneTransactions,
+        oneByOneStatements,
+        ORDERS * 1_000_000_000L / batchNanos,
+        batchTransactions,
+        batchStatements);
+    assertThat(results).allSatisfy(r -> assertThat(r.error()).isNull());
+    assertThat(orderRepository.count()).isEqualTo(ORDERS);
+    assertThat(batchTransactions).isEqualTo(1);
+    assertThat(oneByOneTransactions).isGreaterThanOrEqualTo(ORDERS);
+    // Sequence ids let Hibernate send the inserts in JDBC batches: far fewer than one per order
+    assertThat(batchStatements).isLessThan(ORDERS / 2);
+    assertThat(oneByOneStatements).isGreaterThan(ORDERS);
+  }
+}
@@ -0,0 +1,185 @@
+package com.awesome.pizza.brick.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.awesome.pizza.brick.model.OrderStatusEvent;
+import com.awesome.pizza.commons.model.OrderStatus;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+class OrderEventBroadcasterTest {
+  private static final int BUFFER_SIZE = 4;
+
+  private ExecutorService executor;
+  private OrderEventBroadcaster broadcaster;
+
+  @BeforeEach
+  void setUp() {
+    executor = OrderEventBroadcaster.newSenderExecutor();
+    broadcaster = new OrderEventBroadcaster(BUFFER_SIZE, Duration.ofMinutes(1), executor);
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void publish_reachesThousandsOfSubscribers() throws Exception {
+    int orders = 100;
+    int perOrder = 4_000;
+    int staff = 1_000;
+    broadcaster = new OrderEventBroadcaster(orders, Duration.ofMinutes(1), executor);
+    // Order subscribers receive the event of their own order only, staff subscribers all of them
+    CountDownLatch delivered = new CountDownLatch(perOrder + staff * orders);
+    for (int i = 0; i < perOrder; i++)
+      broadcaster.register("ORD-" + (i % orders), new RecordingEmitter(delivered));
+    for (int i = 0; i < staff; i++) broadcaster.register(null, new RecordingEmitter(delivered));
+
+    for (int i = 0; i < orders; i++) broadcaster.publish(event("ORD-" + i, OrderStatus.READY));
+
+    assertThat(delivered.await(30, TimeUnit.SECONDS)).isTrue();
+    assertThat(broadcaster.subscriberCount()).isEqualTo(perOrder + staff);
+  }
+
+  @Test
+  void publish_evictsSlowSubscribersWithoutDelayingTheOthers() throws Exception {
+    CountDownLatch stuck = new CountDownLatch(1);
+    RecordingEmitter slow = new RecordingEmitter(null, stuck, false);
+    RecordingEmitter fast = new RecordingEmitter(null);
+    broadcaster.register(null, slow);
+    broadcaster.register(null, fast);
+
+    // The slow subscriber holds at most one event in send() and buffers BUFFER_SIZE more
+    for (int i = 0; i < BUFFER_SIZE + 2; i++) {
+      broadcaster.publish(event("ORD-" + i, OrderStatus.READY));
+      int sent = i + 1;
+      awaitUntil(() -> fast.events.size() == sent);
+    }
+
+    assertThat(fast.events).hasSize(BUFFER_SIZE + 2);
+    assertThat(broadcaster.subscriberCount()).isEqualTo(1);
+    stuck.countDown();
+  }
+
+  @Test
+  void publish_reachesHealthySubscribersWhileManyOthersNeverRead() throws Exception {
+    // More stalled clients than any platform thread pool the writes could share
+    int stalled = 64;
+    int healthy = 8;
+    CountDownLatch stuck = new CountDownLatch(1);
+    for (int i = 0; i < stalled; i++)
+      broadcaster.register(null, new RecordingEmitter(null, stuck, false));
+    List<RecordingEmitter> readers = new ArrayList<>();
+    for (int i = 0; i < healthy; i++) {
+      RecordingEmitter reader = new RecordingEmitter(null);
+      readers.add(reader);
+      broadcaster.register(null, reader);
+    }
+
+    // Every stalled subscriber holds one event in send() and overflows its buffer
+    for (int i = 0; i < BUFFER_SIZE + 2; i++) {
+      broadcaster.publish(event("ORD-" + i, OrderStatus.READY));
+      int sent = i + 1;
+      awaitUntil(() -> readers.stream().allMatch(reader -> reader.events.size() == sent));
+    }
+
+    assertThat(readers).allSatisfy(reader -> assertThat(reader.events).hasSize(BUFFER_SIZE + 2));
+    assertThat(broadcaster.subscriberCount()).isEqualTo(healthy);
+    stuck.countDown();
+  }
+
+  @Test
+  void orderStream_endsWhenTheOrderIsDelivered() throws Exception {
+    CountDownLatch delivered = new CountDownLatch(2);
+    RecordingEmitter emitter = new RecordingEmitter(delivered);
+    broadcaster.register("ORD-1", emitter);
+
+    broadcaster.publish(event("ORD-1", OrderStatus.READY));
+    broadcaster.publish(event("ORD-1", OrderStatus.DELIVERED));
+
+    assertThat(delivered.await(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(emitter.events)
+        .extracting(OrderStatusEvent::status)
+        .containsExactly(OrderStatus.READY, OrderStatus.DELIVERED);
+    awaitUntil(() -> broadcaster.subscriberCount() == 0);
+    assertThat(broadcaster.subscriberCount()).isZero();
+  }
+
+  @Test
+  void publish_dropsDisconnectedSubscribers() throws Exception {
+    RecordingEmitter disconnected = new RecordingEmitter(null, null, true);
+    broadcaster.register("ORD-1", disconnected);
+
+    broadcaster.publish(event("ORD-1", OrderStatus.READY));
+
+    awaitUntil(() -> broadcaster.subscriberCount() == 0);
+    assertThat(broadcaster.subscriberCount()).isZero();
+  }
+
+  @Test
+  void completeAll_closesEveryStream() {
+    broadcaster.register("ORD-1", new RecordingEmitter(null));
+    broadcaster.register(null, new RecordingEmitter(null));
+
+    broadcaster.completeAll();
+
+    assertThat(broadcaster.subscriberCount()).isZero();
+  }
+
+  private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (!condition.getAsBoolean() && System.nanoTime() < deadline) Thread.sleep(5);
+  }
+
+  private static OrderStatusEvent event(String code, OrderStatus status) {
+    return new OrderStatusEvent(code, OrderStatus.IN_PROGRESS, status, LocalDateTime.now());
+  }
+
+  /** Emitter recording the events instead of writing them to a response. */
+  private static class RecordingEmitter extends SseEmitter {
+    final List<OrderStatusEvent> events = new CopyOnWriteArrayList<>();
+    private final CountDownLatch delivered;
+    private final CountDownLatch blockUntil;
+    private final boolean fail;
+
+    RecordingEmitter(CountDownLatch delivered) {
+      this(delivered, null, false);
+    }
+
+    RecordingEmitter(CountDownLatch delivered, CountDownLatch blockUntil, boolean fail) {
+      this.delivered = delivered;
+      this.blockUntil = blockUntil;
+      this.fail = fail;
+    }
+
+    @Override
+    public void send(SseEventBuilder builder) throws IOException {
+      if (fail) throw new IOException("Broken pipe");
+      if (Objects.nonNull(blockUntil)) {
+        try {
+          blockUntil.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return;
+      }
+      builder.build().stream()
+          .map(DataWithMediaType::getData)
+          .filter(OrderStatusEvent.class::isInstance)
+          .map(OrderStatusEvent.class::cast)
+          .forEach(events::add);
+      if (Objects.nonNull(delivered)) delivered.countDown();
+    }
+  }
+}
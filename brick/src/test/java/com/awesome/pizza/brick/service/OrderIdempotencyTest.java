@@ -0,0 +1,157 @@
+package com.awesome.pizza.brick.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.awesome.pizza.brick.exception.OrderException;
+import com.awesome.pizza.brick.model.RequestUserOrderModel;
+import com.awesome.pizza.brick.repository.IdempotencyKeyRepository;
+import com.awesome.pizza.brick.repository.OrderRepository;
+import com.awesome.pizza.brick.repository.PizzaRepository;
+import com.awesome.pizza.commons.model.OrderModel;
+import com.awesome.pizza.commons.model.OrderPizzaModel;
+import com.awesome.pizza.commons.model.UserModel;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderIdempotencyTest {
+  private static final int CONTENDERS = 16;
+
+  @Autowired private OrderIdempotency orderIdempotency;
+  @Autowired private OrderService orderService;
+  @Autowired private OrderRepository orderRepository;
+  @Autowired private PizzaRepository pizzaRepository;
+  @Autowired private IdempotencyKeyRepository idempotencyKeyRepository;
+  @Autowired private KitchenQueue kitchenQueue;
+  @Autowired private PlatformTransactionManager transactionManager;
+  @Autowired private ObjectMapper objectMapper;
+
+  private Long pizzaId;
+  // Unique per test, as the cache of the shared instance outlives the tables cleaned after a test
+  private String key;
+
+  @BeforeEach
+  void setUp() {
+    key = "KEY-" + UUID.randomUUID();
+    pizzaId = pizzaRepository.findAll().get(0).getId();
+  }
+
+  @AfterEach
+  void tearDown() {
+    idempotencyKeyRepository.deleteAll();
+    orderRepository.deleteAll();
+    kitchenQueue.rebuild();
+  }
+
+  @Test
+  void createOrder_repeatedKey_returnsTheOriginalOrder() {
+    OrderModel first = orderIdempotency.createOrder(key, order("Mario"));
+    OrderModel retried = orderIdempotency.createOrder(key, order("Mario"));
+
+    assertThat(retried.getCode()).isEqualTo(first.getCode());
+    assertThat(orderRepository.count()).isEqualTo(1);
+    assertThat(kitchenQueue.size()).isEqualTo(1);
+    assertThat(orderIdempotency.createOrder(key + "-2", order("Mario")).getCode())
+        .isNotEqualTo(first.getCode());
+  }
+
+  @Test
+  void createOrder_parallelDuplicates_createOneOrder() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(CONTENDERS);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<OrderModel>> futures = new ArrayList<>();
+    for (int i = 0; i < CONTENDERS; i++) {
+      futures.add(
+          executor.submit(
+              () -> {
+                start.await();
+                return orderIdempotency.createOrder(key, order("Mario"));
+              }));
+    }
+    start.countDown();
+    List<String> codes = new ArrayList<>();
+    for (Future<OrderModel> future : futures) codes.add(future.get(30, TimeUnit.SECONDS).getCode());
+    executor.shutdown();
+
+    assertThat(codes).hasSize(CONTENDERS).containsOnly(codes.get(0));
+    assertThat(orderRepository.count()).isEqualTo(1);
+  }
+
+  @Test
+  void createOrder_keyReusedForAnotherOrder_isRejected() {
+    orderIdempotency.createOrder(key, order("Mario"));
+    OrderException ex =
+        Assertions.assertThrows(
+            OrderException.class, () -> orderIdempotency.createOrder(key, order("Luigi")));
+    assertThat(ex.getReason()).isEqualTo(OrderException.Reason.IDEMPOTENCY_KEY_REUSED);
+    assertThat(orderRepository.count()).isEqualTo(1);
+  }
+
+  @Test
+  void createOrder_afterRestart_replaysTheStoredOrder() {
+    OrderModel first = orderIdempotency.createOrder(key, order("Mario"));
+    // A new instance starts with an empty cache, as after a restart
+    OrderIdempotency restarted = newInstance(Duration.ofHours(1));
+
+    OrderModel retried = restarted.createOrder(key, order("Mario"));
+    assertThat(retried.getCode()).isEqualTo(first.getCode());
+    assertThat(retried.getTotalPrice()).isEqualByComparingTo(first.getTotalPrice());
+    // The stored order keeps its version, returned as ETag by the replayed creation
+    assertThat(retried.getVersion()).isNotNull().isEqualTo(first.getVersion());
+    assertThat(orderRepository.count()).isEqualTo(1);
+  }
+
+  @Test
+  void createOrder_expiredKey_createsANewOrder() {
+    OrderIdempotency expiring = newInstance(Duration.ZERO);
+    String first = expiring.createOrder(key, order("Mario")).getCode();
+    String second = expiring.createOrder(key, order("Mario")).getCode();
+
+    assertThat(second).isNotEqualTo(first);
+    assertThat(orderRepository.count()).isEqualTo(2);
+    expiring.purgeExpired();
+    assertThat(idempotencyKeyRepository.count()).isZero();
+  }
+
+  @Test
+  void createOrder_invalidOrder_storesNoKey() {
+    RequestUserOrderModel invalid = order("Mario");
+    invalid.setPizzas(List.of());
+    Assertions.assertThrows(
+        OrderException.class, () -> orderIdempotency.createOrder(key, invalid));
+    assertThat(idempotencyKeyRepository.count()).isZero();
+    assertThat(orderIdempotency.createOrder(key, order("Mario"))).isNotNull();
+  }
+
+  private OrderIdempotency newInstance(Duration ttl) {
+    return new OrderIdempotency(
+        orderService, idempotencyKeyRepository, transactionManager, objectMapper, ttl, 100);
+  }
+
+  private RequestUserOrderModel order(String name) {
+    LocalDateTime pickup = LocalDateTime.now().plusHours(2).withNano(0);
+    return RequestUserOrderModel.builder()
+        .user(
+            UserModel.builder()
+                .name(name)
+                .pickupFrom(pickup.withMinute(0).withSecond(0))
+                .pickupTo(pickup.withMinute(30).withSecond(0))
+                .build())
+        .pizzas(List.of(OrderPizzaModel.builder().pizzaId(pizzaId).build()))
+        .build();
+  }
+}
@@ -0,0 +1,99 @@
+package com.awesome.pizza.brick.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import com.awesome.pizza.brick.exception.OrderException;
+import com.awesome.pizza.brick.repository.OrderRepository;
+import com.awesome.pizza.commons.model.OrderStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class OrderMetricsTest {
+  @Mock private OrderRepository orderRepository;
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private OrderMetrics orderMetrics;
+
+  @BeforeEach
+  void setUp() {
+    orderMetrics = new OrderMetrics(registry, orderRepository);
+  }
+
+  @Test
+  void everySeriesIsRegisteredUpFront() {
+    for (OrderStatus status : OrderStatus.values()) assertThat(orders(status)).isZero();
+    for (OrderException.Reason reason : OrderException.Reason.values())
+      if (reason.isOrderRejection()) assertThat(rejected(reason)).isZero();
+    assertThat(registry.get(OrderMetrics.CREATED).counter().count()).isZero();
+  }
+
+  @Test
+  void rebuild_seedsTheGaugesFromTheDatabase() {
+    orderMetrics.created(OrderStatus.DELIVERED);
+    when(orderRepository.countByStatus())
+        .thenReturn(
+            List.of(
+                new OrderStatusCount(OrderStatus.QUEUED, 7),
+                new OrderStatusCount(OrderStatus.IN_PROGRESS, 1)));
+
+    orderMetrics.rebuild();
+
+    assertThat(orders(OrderStatus.QUEUED)).isEqualTo(7);
+    assertThat(orders(OrderStatus.IN_PROGRESS)).isEqualTo(1);
+    assertThat(orders(OrderStatus.DELIVERED)).isZero();
+  }
+
+  @Test
+  void lifecycle_movesTheOrderBetweenTheGauges() {
+    orderMetrics.created(OrderStatus.QUEUED);
+    orderMetrics.created(OrderStatus.QUEUED);
+    orderMetrics.updated(OrderStatus.QUEUED, OrderStatus.QUEUED);
+    orderMetrics.updated(OrderStatus.QUEUED, OrderStatus.IN_PROGRESS);
+    orderMetrics.deleted(OrderStatus.QUEUED);
+
+    assertThat(orders(OrderStatus.QUEUED)).isZero();
+    assertThat(orders(OrderStatus.IN_PROGRESS)).isEqualTo(1);
+    assertThat(registry.get(OrderMetrics.CREATED).counter().count()).isEqualTo(2);
+    assertThat(registry.get(OrderMetrics.UPDATED).counter().count()).isEqualTo(2);
+    assertThat(registry.get(OrderMetrics.DELETED).counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  void rejected_countsByReason() {
+    orderMetrics.rejected(OrderException.Reason.KITCHEN_BUSY);
+    orderMetrics.rejected(OrderException.Reason.KITCHEN_BUSY);
+    orderMetrics.rejected(null);
+
+    assertThat(rejected(OrderException.Reason.KITCHEN_BUSY)).isEqualTo(2);
+    assertThat(rejected(OrderException.Reason.OTHER)).isEqualTo(1);
+    assertThat(rejected(OrderException.Reason.NOT_QUEUED)).isZero();
+  }
+
+  @Test
+  void rejected_ignoresLookupsAndInvalidQueries() {
+    orderMetrics.rejected(OrderException.Reason.ORDER_NOT_FOUND);
+    orderMetrics.rejected(OrderException.Reason.QUEUE_EMPTY);
+    orderMetrics.rejected(OrderException.Reason.INVALID_QUERY);
+
+    assertThat(registry.find(OrderMetrics.REJECTED).counters())
+        .allSatisfy(counter -> assertThat(counter.count()).isZero())
+        .noneMatch(counter -> "ORDER_NOT_FOUND".equals(counter.getId().getTag("reason")))
+        .noneMatch(counter -> "QUEUE_EMPTY".equals(counter.getId().getTag("reason")))
+        .noneMatch(counter -> "INVALID_QUERY".equals(counter.getId().getTag("reason")));
+  }
+
+  private double orders(OrderStatus status) {
+    return registry.get(OrderMetrics.ORDERS).tag("status", status.name()).gauge().value();
+  }
+
+  private double rejected(OrderException.Reason reason) {
+    return registry.get(OrderMetrics.REJECTED).tag("reason", reason.name()).counter().count();
+  }
+}
@@ -0,0 +1,151 @@
+package com.awesome.pizza.brick.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.awesome.pizza.brick.entity.Order;
+import com.awesome.pizza.brick.exception.OrderException;
+import com.awesome.pizza.brick.model.RequestUserOrderModel;
+import com.awesome.pizza.brick.repository.OrderRepository;
+import com.awesome.pizza.brick.repository.PizzaRepository;
+import com.awesome.pizza.commons.model.OrderModel;
+import com.awesome.pizza.commons.model.OrderPizzaModel;
+import com.awesome.pizza.commons.model.OrderStatus;
+import com.awesome.pizza.commons.model.UserModel;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Parallel updaters of the same order: conditional updates (If-Match) never overwrite each other,
+ * and unconditional status transitions are retried until they are applied. Every updater holds an
+ * entity manager without transaction, as the requests do (open entity manager in view).
+ */
+@SpringBootTest(properties = "awesome-pizza.conflict-retry.max-attempts=50")
+@ActiveProfiles("test")
+class OrderOptimisticLockingTest {
+  private static final int UPDATERS = 8;
+  private static final int UPDATES_PER_UPDATER = 10;
+  private static final LocalDateTime PICKUP = LocalDateTime.now().plusHours(2);
+
+  @Autowired private OrderService orderService;
+  @Autowired private OrderRepository orderRepository;
+  @Autowired private PizzaRepository pizzaRepository;
+  @Autowired private KitchenQueue kitchenQueue;
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  private Long pizzaId;
+  private String code;
+
+  @BeforeEach
+  void setUp() {
+    pizzaId = pizzaRepository.findAll().get(0).getId();
+    code = orderService.createOrder(counterOrder(0)).getCode();
+  }
+
+  @AfterEach
+  void tearDown() {
+    orderRepository.deleteAll();
+    kitchenQueue.rebuild();
+  }
+
+  @Test
+  void updateOrder_parallelConditionalUpdates_loseNoUpdate() throws Exception {
+    AtomicInteger mismatches = new AtomicInteger();
+    runInParallel(
+        () -> {
+          for (int i = 0; i < UPDATES_PER_UPDATER; i++) {
+            // Read-modify-write of the counter, re-read whenever another updater got there first
+            while (true) {
+              OrderModel order = inView(() -> orderService.getOrderByCode(code));
+              int counter = Integer.parseInt(order.getUser().getName().substring(8));
+              try {
+                inView(
+                    () ->
+                        orderService.updateOrder(
+                            code, counterOrder(counter + 1), order.getVersion()));
+                break;
+              } catch (OrderException e) {
+                assertThat(e.getReason()).isEqualTo(OrderException.Reason.VERSION_MISMATCH);
+                mismatches.incrementAndGet();
+              }
+            }
+          }
+        });
+
+    Order order = orderRepository.findByCode(code);
+    assertThat(order.getUser().getName()).isEqualTo("Counter " + UPDATERS * UPDATES_PER_UPDATER);
+    assertThat(order.getVersion()).isEqualTo(UPDATERS * UPDATES_PER_UPDATER);
+    assertThat(mismatches.get()).isPositive();
+  }
+
+  @Test
+  void updateOrderStatus_parallelUnconditionalTransitions_areAllApplied() throws Exception {
+    AtomicInteger applied = new AtomicInteger();
+    runInParallel(
+        () -> {
+          for (int i = 0; i < UPDATES_PER_UPDATER; i++) {
+            OrderStatus status = i % 2 == 0 ? OrderStatus.READY : OrderStatus.QUEUED;
+            inView(() -> orderService.updateOrderStatus(code, status.name(), null));
+            applied.incrementAndGet();
+          }
+        });
+
+    assertThat(applied.get()).isEqualTo(UPDATERS * UPDATES_PER_UPDATER);
+    assertThat(orderRepository.findByCode(code).getVersion()).isPositive();
+  }
+
+  private void runInParallel(Runnable updater) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(UPDATERS);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < UPDATERS; i++) {
+      futures.add(
+          executor.submit(
+              () -> {
+                start.await();
+                updater.run();
+                return null;
+              }));
+    }
+    start.countDown();
+    for (Future<?> future : futures) future.get(60, TimeUnit.SECONDS);
+    executor.shutdown();
+  }
+
+  private <T> T inView(Supplier<T> call) {
+    EntityManager entityManager = entityManagerFactory.createEntityManager();
+    TransactionSynchronizationManager.bindResource(
+        entityManagerFactory, new EntityManagerHolder(entityManager));
+    try {
+      return call.get();
+    } finally {
+      TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+      entityManager.close();
+    }
+  }
+
+  private RequestUserOrderModel counterOrder(int counter) {
+    return RequestUserOrderModel.builder()
+        .user(
+            UserModel.builder()
+                .name("Counter " + counter)
+                .pickupFrom(PICKUP)
+                .pickupTo(PICKUP.plusMinutes(30))
+                .build())
+        .pizzas(List.of(OrderPizzaModel.builder().pizzaId(pizzaId).build()))
+        .build();
+  }
+}
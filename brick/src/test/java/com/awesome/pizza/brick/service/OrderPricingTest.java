@@ -0,0 +1,55 @@
+package com.awesome.pizza.brick.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.awesome.pizza.brick.entity.OrderPizza;
+import com.awesome.pizza.brick.exception.OrderException;
+import com.awesome.pizza.commons.money.Money;
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class OrderPricingTest {
+  @Test
+  void totalPrice_shouldSumRoundedCentsAndRejectAnOverflow() {
+    Money roundedUp = Money.of(new BigDecimal("6.555"));
+    List<OrderPizza> lines =
+        List.of(
+            OrderPizza.builder().unitPrice(roundedUp).quantity(3).build(),
+            OrderPizza.builder().unitPrice(Money.ofCents(100)).quantity(2).build());
+    assertThat(OrderPricing.totalPrice(lines)).isEqualTo(Money.ofCents(2168));
+    assertThat(OrderPricing.totalPrice(lines).toBigDecimal()).isEqualTo("21.68");
+
+    List<OrderPizza> huge =
+        List.of(
+            OrderPizza.builder().unitPrice(Money.ofCents(Long.MAX_VALUE / 2)).quantity(3).build());
+    OrderException exception =
+        Assertions.assertThrows(OrderException.class, () -> OrderPricing.totalPrice(huge));
+    assertThat(exception.getReason()).isEqualTo(OrderException.Reason.INVALID_ORDER);
+  }
+
+  @Test
+  void totalPrice_shouldRejectALineWithoutPriceOrInAnotherCurrency() {
+    OrderPizza euro = OrderPizza.builder().unitPrice(Money.ofCents(650)).quantity(1).build();
+    OrderPizza unpriced = OrderPizza.builder().pizzaName("Special").quantity(1).build();
+    OrderPizza dollar =
+        OrderPizza.builder()
+            .unitPrice(new Money(700, Currency.getInstance("USD")))
+            .quantity(1)
+            .build();
+
+    OrderException noPrice =
+        Assertions.assertThrows(
+            OrderException.class, () -> OrderPricing.totalPrice(List.of(euro, unpriced)));
+    assertThat(noPrice.getReason()).isEqualTo(OrderException.Reason.INVALID_ORDER);
+    assertThat(noPrice.getMessage()).contains("Special");
+    OrderException mixed =
+        Assertions.assertThrows(
+            OrderException.class, () -> OrderPricing.totalPrice(List.of(euro, dollar)));
+    assertThat(mixed.getReason()).isEqualTo(OrderException.Reason.INVALID_ORDER);
+    assertThat(mixed.getMessage()).contains("EUR", "USD");
+    Assertions.assertThrows(OrderException.class, () -> OrderPricing.totalPrice(List.of()));
+  }
+}
@@ -0,0 +1,156 @@
+package com.awesome.pizza.brick.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.awesome.pizza.brick.entity.Order;
+import com.awesome.pizza.brick.entity.User;
+import com.awesome.pizza.brick.exception.OrderException;
+import com.awesome.pizza.brick.repository.OrderRepository;
+import com.awesome.pizza.commons.model.OrderStatus;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderServiceKitchenSlotTest {
+  private static final int CONTENDERS = 16;
+  private static final LocalDateTime PICKUP = LocalDateTime.now().plusHours(1);
+
+  @Autowired private OrderService orderService;
+  @Autowired private OrderRepository orderRepository;
+  @Autowired private KitchenQueue kitchenQueue;
+
+  @AfterEach
+  void tearDown() {
+    orderRepository.deleteAll();
+    kitchenQueue.rebuild();
+  }
+
+  @Test
+  void updateOrderStatus_parallelTransitionsToInProgress_haveExactlyOneWinner() throws Exception {
+    List<String> codes = new ArrayList<>();
+    for (int i = 0; i < CONTENDERS; i++) codes.add(orderRepository.save(queuedOrder(i)).getCode());
+
+    ExecutorService executor = Executors.newFixedThreadPool(CONTENDERS);
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicInteger winners = new AtomicInteger();
+    AtomicInteger rejected = new AtomicInteger();
+    List<Future<?>> futures = new ArrayList<>();
+    for (String code : codes) {
+      futures.add(
+          executor.submit(
+              () -> {
+                start.await();
+                try {
+                  orderService.updateOrderStatus(code, OrderStatus.IN_PROGRESS.name(), null);
+                  winners.incrementAndGet();
+                } catch (OrderException e) {
+                  rejected.incrementAndGet();
+                }
+                return null;
+              }));
+    }
+    start.countDown();
+    for (Future<?> future : futures) future.get(30, TimeUnit.SECONDS);
+    executor.shutdown();
+
+    assertThat(winners.get()).isEqualTo(1);
+    assertThat(rejected.get()).isEqualTo(CONTENDERS - 1);
+    assertThat(
+            orderRepository.findAll().stream()
+                .filter(o -> o.getStatus() == OrderStatus.IN_PROGRESS)
+                .count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void updateOrderStatus_releasesKitchenSlotWhenOrderLeavesInProgress() {
+    String first = orderRepository.save(queuedOrder(0)).getCode();
+    String second = orderRepository.save(queuedOrder(1)).getCode();
+
+    orderService.updateOrderStatus(first, OrderStatus.IN_PROGRESS.name(), null);
+    Assertions.assertThrows(
+        OrderException.class,
+        () -> orderService.updateOrderStatus(second, OrderStatus.IN_PROGRESS.name(), null));
+
+    orderService.updateOrderStatus(first, OrderStatus.READY.name(), null);
+    orderService.updateOrderStatus(second, OrderStatus.IN_PROGRESS.name(), null);
+    assertThat(orderRepository.findByCode(second).getStatus()).isEqualTo(OrderStatus.IN_PROGRESS);
+  }
+
+  @Test
+  void claimNextOrder_parallelClaimers_takeOnlyTheHeadOrder() throws Exception {
+    // Saved in reverse, so the head (earliest pickup) is the last inserted order
+    for (int i = CONTENDERS - 1; i >= 0; i--) orderRepository.save(queuedOrder(i));
+    kitchenQueue.rebuild();
+    assertThat(kitchenQueue.size()).isEqualTo(CONTENDERS);
+
+    ExecutorService executor = Executors.newFixedThreadPool(CONTENDERS);
+    CountDownLatch start = new CountDownLatch(1);
+    List<String> claimed = new CopyOnWriteArrayList<>();
+    AtomicInteger rejected = new AtomicInteger();
+    List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < CONTENDERS; i++) {
+      futures.add(
+          executor.submit(
+              () -> {
+                start.await();
+                try {
+                  claimed.add(orderService.claimNextOrder().getCode());
+                } catch (OrderException e) {
+                  rejected.incrementAndGet();
+                }
+                return null;
+              }));
+    }
+    start.countDown();
+    for (Future<?> future : futures) future.get(30, TimeUnit.SECONDS);
+    executor.shutdown();
+
+    assertThat(claimed).containsExactly("SLOT-0");
+    assertThat(rejected.get()).isEqualTo(CONTENDERS - 1);
+    assertThat(kitchenQueue.size()).isEqualTo(CONTENDERS - 1);
+    assertThat(orderRepository.findByCode("SLOT-0").getStatus())
+        .isEqualTo(OrderStatus.IN_PROGRESS);
+
+    // Once the head is ready, the next claim takes the following order
+    orderService.updateOrderStatus("SLOT-0", OrderStatus.READY.name(), null);
+    assertThat(orderService.claimNextOrder().getCode()).isEqualTo("SLOT-1");
+  }
+
+  @Test
+  void claimNextOrder_takesTheOrdersMissingFromTheQueueFromTheDatabase() {
+    // Saved without the service, as another instance would: this queue never sees them
+    for (int i = 2; i >= 0; i--) orderRepository.save(queuedOrder(i));
+    assertThat(kitchenQueue.size()).isZero();
+
+    assertThat(orderService.claimNextOrder().getCode()).isEqualTo("SLOT-0");
+    orderService.updateOrderStatus("SLOT-0", OrderStatus.READY.name(), null);
+    assertThat(orderService.claimNextOrder().getCode()).isEqualTo("SLOT-1");
+  }
+
+  private Order queuedOrder(int index) {
+    return Order.builder()
+        .code("SLOT-" + index)
+        .status(OrderStatus.QUEUED)
+        .orderedPizzas(new ArrayList<>())
+        .totalPrice(BigDecimal.TEN)
+        .user(
+            User.builder()
+                .name("Mario " + index)
+                .pickupFrom(PICKUP.plusMinutes(index))
+                .pickupTo(PICKUP.plusMinutes(index + 30))
+                .build())
+        .build();
+  }
+}
@@ -1,29 +1,59 @@
 package com.awesome.pizza.brick.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.awesome.pizza.brick.entity.Order;
+import com.awesome.pizza.brick.entity.OrderPizza;
 import com.awesome.pizza.brick.entity.Pizza;
 import com.awesome.pizza.brick.entity.User;
 import com.awesome.pizza.brick.exception.OrderException;
 import com.awesome.pizza.brick.mapper.OrderMapper;
 import com.awesome.pizza.brick.mapper.UserMapper;
+import com.awesome.pizza.brick.model.OrderBatchItemResult;
+import com.awesome.pizza.brick.model.OrderCursor;
+import com.awesome.pizza.brick.model.OrderPage;
+import com.awesome.pizza.brick.model.OrderStatusEvent;
+import com.awesome.pizza.brick.model.OrderSummaryPage;
 import com.awesome.pizza.brick.model.RequestUserOrderModel;
 import com.awesome.pizza.brick.repository.OrderRepository;
 import com.awesome.pizza.brick.repository.PizzaRepository;
 import com.awesome.pizza.commons.model.*;
+import com.awesome.pizza.commons.money.Money;
+import jakarta.validation.Validator;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @ExtendWith(MockitoExtension.class)
 class OrderServiceTest {
@@ -31,6 +61,16 @@ class OrderServiceTest {
   @Mock private PizzaRepository pizzaRepository;
   @Mock private OrderMapper orderMapper;
   @Mock private UserMapper userMapper;
+  @Mock private OrderCodeGenerator orderCodeGenerator;
+  @Mock private KitchenQueue kitchenQueue;
+  @Mock private OrderEventBroadcaster orderEventBroadcaster;
+  @Mock private Validator validator;
+  @Mock private OrderMetrics orderMetrics;
+
+  @Spy
+  private ConflictRetryPolicy conflictRetry =
+      new ConflictRetryPolicy(3, Duration.ZERO, Duration.ZERO);
+
   @InjectMocks private OrderService orderService;
 
   RequestUserOrderModel request;
@@ -52,17 +92,146 @@ class OrderServiceTest {
                     .pickupTo(LocalDateTime.now().plusHours(1))
                     .build())
             .build();
-    when(orderRepository.findAllByStatusAndPickupDate(null, null)).thenReturn(List.of(order));
+    when(orderRepository.findAllByStatus(
+            EnumSet.allOf(OrderStatus.class), null, null, null, null, Limit.of(101)))
+        .thenReturn(List.of(order));
     OrderModel orderModel = new OrderModel();
     when(orderMapper.toModel(order)).thenReturn(orderModel);
-    List<OrderModel> result = orderService.findAllOrdersByStatusAndPickupDate(null, null);
-    assertThat(result).hasSize(1);
+    OrderPage result = orderService.findAllOrdersByStatusAndPickupDate(null, null, 100, null);
+    assertThat(result.orders()).hasSize(1);
+    assertThat(result.nextCursor()).isNull();
+  }
+
+  @Test
+  void findAllOrdersByStatusAndPickupDate_withDate_usesPickupDateRange() {
+    LocalDateTime pickupDate = LocalDateTime.of(2025, 10, 1, 12, 0);
+    when(orderRepository.findAllByStatusAndPickupDate(
+            EnumSet.of(OrderStatus.QUEUED),
+            LocalDate.of(2025, 10, 1),
+            LocalDateTime.of(2025, 10, 2, 0, 0),
+            null,
+            null,
+            null,
+            null,
+            Limit.of(11)))
+        .thenReturn(List.of());
+    OrderPage result =
+        orderService.findAllOrdersByStatusAndPickupDate(List.of("queued"), pickupDate, 10, null);
+    assertThat(result.orders()).isEmpty();
+  }
+
+  @Test
+  void findAllOrdersByStatusAndPickupDate_returnsCursorOfTheLastOrderOfAFullPage() {
+    LocalDateTime pickupFrom = LocalDateTime.of(2025, 10, 1, 12, 0);
+    List<Order> orders =
+        LongStream.rangeClosed(1, 3)
+            .mapToObj(
+                id ->
+                    Order.builder()
+                        .id(id)
+                        .createdAt(pickupFrom.minusDays(1))
+                        .pickupFrom(pickupFrom.plusMinutes(id))
+                        .pickupTo(pickupFrom.plusHours(1))
+                        .build())
+            .toList();
+    OrderCursor after = new OrderCursor(pickupFrom, pickupFrom, pickupFrom, 9L);
+    when(orderRepository.findAllByStatus(
+            EnumSet.allOf(OrderStatus.class),
+            after.pickupFrom(),
+            after.pickupTo(),
+            after.createdAt(),
+            after.id(),
+            Limit.of(3)))
+        .thenReturn(orders);
+    when(orderMapper.toModel(any())).thenReturn(new OrderModel());
+
+    OrderPage result =
+        orderService.findAllOrdersByStatusAndPickupDate(null, null, 2, after.encode());
+
+    assertThat(result.orders()).hasSize(2);
+    assertThat(OrderCursor.decode(result.nextCursor()))
+        .isEqualTo(OrderCursor.after(orders.get(1)));
+  }
+
+  @Test
+  void findOrderSummaries_mapsRowsAndReturnsCursorOfTheLastOrderOfAFullPage() {
+    LocalDateTime pickupFrom = LocalDateTime.of(2025, 10, 1, 12, 0);
+    List<OrderSummaryRow> rows =
+        LongStream.rangeClosed(1, 3)
+            .mapToObj(
+                id ->
+                    new OrderSummaryRow(
+                        id,
+                        "CODE" + id,
+                        OrderStatus.QUEUED,
+                        pickupFrom.plusMinutes(id),
+                        pickupFrom.plusHours(1),
+                        pickupFrom.minusDays(1),
+                        BigDecimal.TEN,
+                        "Margherita" + OrderSummaryRow.NAME_SEPARATOR + "Diavola",
+                        "3" + OrderSummaryRow.NAME_SEPARATOR + "1"))
+            .toList();
+    when(orderRepository.findSummariesByStatusAndPickupDate(
+            EnumSet.of(OrderStatus.QUEUED),
+            LocalDate.of(2025, 10, 1),
+            LocalDateTime.of(2025, 10, 2, 0, 0),
+            null,
+            null,
+            null,
+            null,
+            Limit.of(3)))
+        .thenReturn(rows);
+
+    OrderSummaryPage result =
+        orderService.findOrderSummaries(List.of("QUEUED"), pickupFrom, 2, null);
+
+    assertThat(result.orders())
+        .extracting(OrderSummaryModel::getCode)
+        .containsExactly("CODE1", "CODE2");
+    assertThat(result.orders().get(0).getStatus()).isEqualTo("QUEUED");
+    assertThat(result.orders().get(0).getPizzaNames()).containsExactly("Margherita", "Diavola");
+    assertThat(result.orders().get(0).getPizzaQuantities()).containsExactly(3, 1);
+    assertThat(OrderCursor.decode(result.nextCursor())).isEqualTo(rows.get(1).cursor());
+    verify(orderMapper, never()).toModel(any());
+  }
+
+  @Test
+  void findOrderSummaries_withoutPizzas_returnsNoNames() {
+    OrderSummaryRow row =
+        new OrderSummaryRow(1L, "CODE1", OrderStatus.READY, null, null, null, null, null, null);
+    when(orderRepository.findSummariesByStatus(
+            EnumSet.allOf(OrderStatus.class), null, null, null, null, Limit.of(11)))
+        .thenReturn(List.of(row));
+
+    OrderSummaryPage result = orderService.findOrderSummaries(null, null, 10, null);
+
+    assertThat(result.orders()).hasSize(1);
+    assertThat(result.orders().get(0).getPizzaNames()).isEmpty();
+    assertThat(result.orders().get(0).getPizzaQuantities()).isEmpty();
+    assertThat(result.nextCursor()).isNull();
+  }
+
+  @Test
+  void findAllOrdersByStatusAndPickupDate_withInvalidCursorOrLimit_throws() {
+    Assertions.assertThrows(
+        OrderException.class,
+        () -> orderService.findAllOrdersByStatusAndPickupDate(null, null, 10, "not-a-cursor"));
+    Assertions.assertThrows(
+        OrderException.class,
+        () -> orderService.findAllOrdersByStatusAndPickupDate(null, null, 0, null));
+  }
+
+  @Test
+  void findAllOrdersByStatusAndPickupDate_withUnknownStatus_throws() {
+    Assertions.assertThrows(
+        OrderException.class,
+        () -> orderService.findAllOrdersByStatusAndPickupDate(List.of("BURNT"), null, 10, null));
   }
 
   @Test
   void getOrderByCode_returnsOrder() {
     Order order = Order.builder().id(4L).status(OrderStatus.QUEUED).build();
-    when(orderRepository.findByCode("CODE123")).thenReturn(order);
+    when(orderRepository.findWithDetailsByCode("CODE123")).thenReturn(order);
     when(orderMapper.toModel(order)).thenReturn(new OrderModel());
     OrderModel result = orderService.getOrderByCode("CODE123");
     assertThat(result).isNotNull();
@@ -71,7 +240,7 @@ class OrderServiceTest {
   @Test
   void getOrderById_returnsOptional() {
     Order order = Order.builder().id(5L).status(OrderStatus.QUEUED).build();
-    when(orderRepository.findById(5L)).thenReturn(Optional.of(order));
+    when(orderRepository.findWithDetailsById(5L)).thenReturn(Optional.of(order));
     OrderModel orderModel = new OrderModel();
     when(orderMapper.toModel(order)).thenReturn(orderModel);
     OrderModel result = orderService.getOrderById(5L);
@@ -81,7 +250,7 @@ class OrderServiceTest {
   @Test
   void getOrderById_shouldReturnOrderModelIfExists() {
     Order order = Order.builder().id(1L).build();
-    when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+    when(orderRepository.findWithDetailsById(1L)).thenReturn(Optional.of(order));
     OrderModel orderModel = new OrderModel();
     when(orderMapper.toModel(order)).thenReturn(orderModel);
     OrderModel result = orderService.getOrderById(1L);
@@ -90,14 +259,14 @@ class OrderServiceTest {
 
   @Test
   void getOrderById_shouldThrowIfNotExists() {
-    when(orderRepository.findById(99L)).thenReturn(Optional.empty());
+    when(orderRepository.findWithDetailsById(99L)).thenReturn(Optional.empty());
     Assertions.assertThrows(OrderException.class, () -> orderService.getOrderById(99L));
   }
 
   @Test
   void getOrderByCode_shouldReturnOrderModel() {
     Order order = Order.builder().id(1L).code("CODE123").build();
-    when(orderRepository.findByCode("CODE123")).thenReturn(order);
+    when(orderRepository.findWithDetailsByCode("CODE123")).thenReturn(order);
     when(orderMapper.toModel(order)).thenReturn(new OrderModel());
     OrderModel result = orderService.getOrderByCode("CODE123");
     assertThat(result).isNotNull();
@@ -105,7 +274,7 @@ class OrderServiceTest {
 
   @Test
   void getOrderByCode_shouldThrowIfNotFound() {
-    when(orderRepository.findByCode("NOTFOUND")).thenReturn(null);
+    when(orderRepository.findWithDetailsByCode("NOTFOUND")).thenReturn(null);
     Assertions.assertThrows(RuntimeException.class, () -> orderService.getOrderByCode("NOTFOUND"));
   }
 
@@ -113,7 +282,7 @@ class OrderServiceTest {
   void createOrder_shouldReturnResponseUserOrderModel() {
     Pizza pizza = new Pizza();
     pizza.setId(1L);
-    pizza.setPrice(java.math.BigDecimal.TEN);
+    pizza.setPrice(BigDecimal.TEN);
     request.setPizzas(request.getPizzas());
 
     when(orderRepository.saveAndFlush(any())).thenReturn(new Order());
@@ -124,6 +293,176 @@ class OrderServiceTest {
     assertThat(result).isNotNull();
   }
 
+  @Test
+  void createOrder_shouldResolvePizzasWithASingleQuery() {
+    Pizza margherita = Pizza.builder().id(1L).price(BigDecimal.TEN).build();
+    Pizza diavola = Pizza.builder().id(2L).price(BigDecimal.ONE).build();
+    List<OrderPizzaModel> lines =
+        IntStream.range(0, 20)
+            .mapToObj(i -> OrderPizzaModel.builder().pizzaId(i % 2 == 0 ? 1L : 2L).build())
+            .toList();
+    request.setPizzas(lines);
+
+    when(pizzaRepository.findAllById(any())).thenReturn(List.of(margherita, diavola));
+    when(orderRepository.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    when(orderMapper.toModel(any())).thenReturn(new OrderModel());
+    when(userMapper.toEntity(any())).thenReturn(new User());
+    orderService.createOrder(request);
+
+    verify(pizzaRepository, times(1)).findAllById(List.of(1L, 2L));
+    ArgumentCaptor<Order> saved = ArgumentCaptor.forClass(Order.class);
+    verify(orderRepository).saveAndFlush(saved.capture());
+    assertThat(saved.getValue().getOrderedPizzas())
+        .extracting(OrderPizza::getQuantity)
+        .containsExactly(10, 10);
+    assertThat(saved.getValue().getTotalPrice()).isEqualByComparingTo("110");
+    verify(orderMetrics).created(OrderStatus.QUEUED);
+  }
+
+  @Test
+  void createOrder_shouldSnapshotNameAndPriceOfEveryPizza() {
+    Pizza margherita =
+        Pizza.builder().id(1L).name("Margherita").price(new BigDecimal("6.50")).build();
+    request.setPizzas(
+        List.of(
+            OrderPizzaModel.builder().pizzaId(1L).build(),
+            OrderPizzaModel.builder().pizzaId(1L).build()));
+
+    when(pizzaRepository.findAllById(any())).thenReturn(List.of(margherita));
+    when(orderRepository.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    when(orderMapper.toModel(any())).thenReturn(new OrderModel());
+    when(userMapper.toEntity(any())).thenReturn(new User());
+    orderService.createOrder(request);
+    margherita.setPrice(BigDecimal.TEN);
+
+    ArgumentCaptor<Order> saved = ArgumentCaptor.forClass(Order.class);
+    verify(orderRepository).saveAndFlush(saved.capture());
+    assertThat(saved.getValue().getOrderedPizzas())
+        .allSatisfy(
+            line -> {
+              assertThat(line.getPizzaName()).isEqualTo("Margherita");
+              assertThat(line.getUnitPrice()).isEqualTo(Money.ofCents(650));
+            });
+    assertThat(OrderPricing.totalPrice(saved.getValue().getOrderedPizzas()))
+        .isEqualTo(Money.ofCents(1300));
+  }
+
+  @Test
+  void createOrder_shouldMergeIdenticalPizzasIntoOneLinePerDescription() {
+    Pizza margherita = Pizza.builder().id(1L).price(new BigDecimal("6.50")).build();
+    Pizza diavola = Pizza.builder().id(2L).price(new BigDecimal("8.00")).build();
+    request.setPizzas(
+        List.of(
+            OrderPizzaModel.builder().pizzaId(1L).quantity(20).build(),
+            OrderPizzaModel.builder().pizzaId(2L).build(),
+            OrderPizzaModel.builder().pizzaId(1L).descriptionUser("Senza basilico").build(),
+            OrderPizzaModel.builder().pizzaId(1L).quantity(10).build(),
+            OrderPizzaModel.builder().pizzaId(2L).quantity(2).build()));
+
+    when(pizzaRepository.findAllById(any())).thenReturn(List.of(margherita, diavola));
+    when(orderRepository.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    when(orderMapper.toModel(any())).thenReturn(new OrderModel());
+    when(userMapper.toEntity(any())).thenReturn(new User());
+    orderService.createOrder(request);
+
+    ArgumentCaptor<Order> saved = ArgumentCaptor.forClass(Order.class);
+    verify(orderRepository).saveAndFlush(saved.capture());
+    assertThat(saved.getValue().getOrderedPizzas())
+        .extracting(line -> line.getPizza().getId(), OrderPizza::getDescriptionUser)
+        .containsExactly(
+            tuple(1L, null),
+            tuple(2L, null),
+            tuple(1L, "Senza basilico"));
+    assertThat(saved.getValue().getOrderedPizzas())
+        .extracting(OrderPizza::getQuantity)
+        .containsExactly(30, 3, 1);
+    assertThat(saved.getValue().getTotalPrice()).isEqualByComparingTo("225.50");
+  }
+
+  @Test
+  void createOrder_shouldRejectANonPositiveQuantity() {
+    request.setPizzas(List.of(OrderPizzaModel.builder().pizzaId(1L).quantity(0).build()));
+    OrderException exception =
+        Assertions.assertThrows(OrderException.class, () -> orderService.createOrder(request));
+    assertThat(exception.getReason()).isEqualTo(OrderException.Reason.INVALID_ORDER);
+    verify(pizzaRepository, never()).findAllById(any());
+  }
+
+  @Test
+  void createOrder_shouldReportAllUnknownPizzaIds() {
+    Pizza margherita = Pizza.builder().id(1L).price(BigDecimal.TEN).build();
+    request.setPizzas(
+        List.of(
+            OrderPizzaModel.builder().pizzaId(1L).build(),
+            OrderPizzaModel.builder().pizzaId(7L).build(),
+            OrderPizzaModel.builder().pizzaId(9L).build()));
+    when(pizzaRepository.findAllById(any())).thenReturn(List.of(margherita));
+    OrderException exception =
+        Assertions.assertThrows(OrderException.class, () -> orderService.createOrder(request));
+    assertThat(exception.getMessage()).contains("[7, 9]");
+  }
+
+  @Test
+  void createOrder_shouldRejectPizzasWithoutAPrice() {
+    Pizza margherita = Pizza.builder().id(1L).price(BigDecimal.TEN).build();
+    Pizza unpriced = Pizza.builder().id(2L).name("Special").build();
+    request.setPizzas(
+        List.of(
+            OrderPizzaModel.builder().pizzaId(1L).build(),
+            OrderPizzaModel.builder().pizzaId(2L).build()));
+    when(pizzaRepository.findAllById(any())).thenReturn(List.of(margherita, unpriced));
+
+    OrderException exception =
+        Assertions.assertThrows(OrderException.class, () -> orderService.createOrder(request));
+    assertThat(exception.getReason()).isEqualTo(OrderException.Reason.PIZZA_NOT_FOUND);
+    assertThat(exception.getMessage()).contains("[2]");
+    verify(orderRepository, never()).saveAndFlush(any());
+  }
+
+  @Test
+  void createOrders_shouldReportEachOrderAndResolvePizzasOnce() {
+    Pizza margherita = Pizza.builder().id(1L).price(BigDecimal.TEN).build();
+    Pizza diavola = Pizza.builder().id(2L).price(BigDecimal.ONE).build();
+    RequestUserOrderModel first = getRequestUserOrderModel();
+    RequestUserOrderModel noPizzas = getRequestUserOrderModel();
+    noPizzas.setPizzas(List.of());
+    RequestUserOrderModel unknownPizza = getRequestUserOrderModel();
+    unknownPizza.setPizzas(List.of(OrderPizzaModel.builder().pizzaId(9L).build()));
+    RequestUserOrderModel second = getRequestUserOrderModel();
+    second.setPizzas(List.of(OrderPizzaModel.builder().pizzaId(2L).build()));
+
+    when(pizzaRepository.findAllById(any())).thenReturn(List.of(margherita, diavola));
+    when(orderRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    when(orderMapper.toModel(any())).thenReturn(new OrderModel());
+    when(userMapper.toEntity(any())).thenReturn(new User());
+    List<OrderBatchItemResult> results =
+        orderService.createOrders(List.of(first, noPizzas, unknownPizza, second));
+
+    assertThat(results).extracting(OrderBatchItemResult::index).containsExactly(0, 1, 2, 3);
+    assertThat(results)
+        .extracting(r -> r.order() != null)
+        .containsExactly(true, false, false, true);
+    assertThat(results.get(1).error()).contains("at least one pizza");
+    assertThat(results.get(2).error()).contains("[9]");
+    verify(pizzaRepository, times(1)).findAllById(any());
+    ArgumentCaptor<List<Order>> saved = ArgumentCaptor.captor();
+    verify(orderRepository).saveAll(saved.capture());
+    assertThat(saved.getValue()).hasSize(2);
+    verify(orderRepository, never()).saveAndFlush(any());
+    verify(orderMetrics, times(2)).created(OrderStatus.QUEUED);
+    verify(orderMetrics).rejected(OrderException.Reason.INVALID_ORDER);
+    verify(orderMetrics).rejected(OrderException.Reason.PIZZA_NOT_FOUND);
+  }
+
+  @Test
+  void createOrders_shouldThrowIfBatchIsEmptyOrTooLarge() {
+    Assertions.assertThrows(OrderException.class, () -> orderService.createOrders(List.of()));
+    List<RequestUserOrderModel> tooMany =
+        Collections.nCopies(OrderService.MAX_BATCH_SIZE + 1, request);
+    Assertions.assertThrows(OrderException.class, () -> orderService.createOrders(tooMany));
+    verify(orderRepository, never()).saveAll(any());
+  }
+
   @Test
   void createOrder_shouldThrowIfNoUserOrPizzas() {
     Assertions.assertThrows(OrderException.class, () -> orderService.createOrder(request));
@@ -132,20 +471,20 @@ class OrderServiceTest {
   @Test
   void updateOrder_shouldReturnResponseUserOrderModel() {
     String code = "ORD-1";
-    Pizza pizza = Pizza.builder().id(1L).price(java.math.BigDecimal.TEN).build();
+    Pizza pizza = Pizza.builder().id(1L).price(BigDecimal.TEN).build();
     Order order =
         Order.builder()
             .id(1L)
             .code(code)
             .status(OrderStatus.QUEUED)
-            .orderedPizzas(new java.util.ArrayList<>())
+            .orderedPizzas(new ArrayList<>())
             .build();
     when(orderRepository.findByCode(code)).thenReturn(order);
     when(orderRepository.saveAndFlush(any())).thenReturn(order);
     when(pizzaRepository.findAllById(any())).thenReturn(List.of(pizza));
     when(orderMapper.toModel(any())).thenReturn(new OrderModel());
     when(userMapper.toEntity(any())).thenReturn(new User());
-    OrderModel result = orderService.updateOrder(code, request);
+    OrderModel result = orderService.updateOrder(code, request, null);
     assertThat(result).isNotNull();
   }
 
@@ -153,7 +492,8 @@ class OrderServiceTest {
   void updateOrder_shouldThrowIfOrderNotFound() {
     String code = "ORD-404";
     when(orderRepository.findByCode(code)).thenReturn(null);
-    Assertions.assertThrows(OrderException.class, () -> orderService.updateOrder(code, request));
+    Assertions.assertThrows(
+        OrderException.class, () -> orderService.updateOrder(code, request, null));
   }
 
   @Test
@@ -164,7 +504,7 @@ class OrderServiceTest {
             .id(2L)
             .code(code)
             .status(OrderStatus.QUEUED)
-            .orderedPizzas(new java.util.ArrayList<>())
+            .orderedPizzas(new ArrayList<>())
             .build();
     when(orderRepository.findByCode(code)).thenReturn(order);
     when(orderRepository.saveAndFlush(any(Order.class)))
@@ -172,9 +512,95 @@ class OrderServiceTest {
     OrderModel orderModel = new OrderModel();
     when(orderMapper.toModel(order)).thenReturn(orderModel);
 
-    OrderModel result = orderService.updateOrderStatus(code, OrderStatus.IN_PROGRESS.name());
+    OrderModel result = orderService.updateOrderStatus(code, OrderStatus.IN_PROGRESS.name(), null);
     assertThat(result).isNotNull();
     assertThat(order.getStatus()).isEqualTo(OrderStatus.IN_PROGRESS);
+    ArgumentCaptor<OrderStatusEvent> event = ArgumentCaptor.forClass(OrderStatusEvent.class);
+    verify(orderEventBroadcaster).publish(event.capture());
+    assertThat(event.getValue().code()).isEqualTo(code);
+    assertThat(event.getValue().previousStatus()).isEqualTo(OrderStatus.QUEUED);
+    assertThat(event.getValue().status()).isEqualTo(OrderStatus.IN_PROGRESS);
+    verify(orderMetrics).updated(OrderStatus.QUEUED, OrderStatus.IN_PROGRESS);
+  }
+
+  @Test
+  void updateOrderStatus_withStaleVersion_throwsVersionMismatch() {
+    String code = "ORD-5";
+    Order order = Order.builder().id(5L).code(code).status(OrderStatus.QUEUED).version(2L).build();
+    when(orderRepository.findByCode(code)).thenReturn(order);
+    OrderException ex =
+        Assertions.assertThrows(
+            OrderException.class,
+            () -> orderService.updateOrderStatus(code, OrderStatus.READY.name(), 1L));
+    assertThat(ex.getReason()).isEqualTo(OrderException.Reason.VERSION_MISMATCH);
+    assertThat(order.getStatus()).isEqualTo(OrderStatus.QUEUED);
+    verify(orderRepository, never()).saveAndFlush(any());
+  }
+
+  @Test
+  void updateOrderStatus_withVersion_concurrentChangeIsNotRetried() {
+    String code = "ORD-6";
+    Order order = Order.builder().id(6L).code(code).status(OrderStatus.QUEUED).version(1L).build();
+    when(orderRepository.findByCode(code)).thenReturn(order);
+    when(orderRepository.saveAndFlush(order))
+        .thenThrow(new OptimisticLockingFailureException("stale"));
+    OrderException ex =
+        Assertions.assertThrows(
+            OrderException.class,
+            () -> orderService.updateOrderStatus(code, OrderStatus.READY.name(), 1L));
+    assertThat(ex.getReason()).isEqualTo(OrderException.Reason.VERSION_MISMATCH);
+    verify(orderRepository, times(1)).saveAndFlush(any());
+  }
+
+  @Test
+  void updateOrderStatus_withoutVersion_retriesOnTheFreshOrder() {
+    String code = "ORD-7";
+    Order stale = Order.builder().id(7L).code(code).status(OrderStatus.QUEUED).version(1L).build();
+    Order fresh = Order.builder().id(7L).code(code).status(OrderStatus.QUEUED).version(2L).build();
+    when(orderRepository.findByCode(code)).thenReturn(stale, fresh);
+    when(orderRepository.saveAndFlush(stale))
+        .thenThrow(new OptimisticLockingFailureException("stale"));
+    when(orderRepository.saveAndFlush(fresh)).thenReturn(fresh);
+    OrderModel orderModel = new OrderModel();
+    when(orderMapper.toModel(fresh)).thenReturn(orderModel);
+
+    assertThat(orderService.updateOrderStatus(code, OrderStatus.READY.name(), null))
+        .isSameAs(orderModel);
+    assertThat(fresh.getStatus()).isEqualTo(OrderStatus.READY);
+    verify(orderMetrics, times(1)).updated(OrderStatus.QUEUED, OrderStatus.READY);
+  }
+
+  @Test
+  void updateOrderStatus_withoutVersion_givesUpAfterMaxAttempts() {
+    String code = "ORD-8";
+    Order order = Order.builder().id(8L).code(code).status(OrderStatus.QUEUED).build();
+    when(orderRepository.findByCode(code)).thenReturn(order);
+    when(orderRepository.saveAndFlush(order))
+        .thenThrow(new OptimisticLockingFailureException("stale"));
+    OrderException ex =
+        Assertions.assertThrows(
+            OrderException.class,
+            () -> orderService.updateOrderStatus(code, OrderStatus.READY.name(), null));
+    assertThat(ex.getReason()).isEqualTo(OrderException.Reason.CONCURRENT_UPDATE);
+    verify(orderRepository, times(3)).saveAndFlush(any());
+    verify(orderMetrics, never()).updated(any(), any());
+  }
+
+  @Test
+  void subscribeToOrder_shouldThrowIfOrderNotFound() {
+    when(orderRepository.findByCode("ORD-404")).thenReturn(null);
+    Assertions.assertThrows(OrderException.class, () -> orderService.subscribeToOrder("ORD-404"));
+    verify(orderEventBroadcaster, never()).subscribe(any(), any());
+  }
+
+  @Test
+  void updateOrderStatus_shouldThrowIfAnotherOrderIsInProgress() {
+    String code = "ORD-3";
+    when(orderRepository.existsByStatusAndCodeNot(OrderStatus.IN_PROGRESS, code)).thenReturn(true);
+    Assertions.assertThrows(
+        OrderException.class,
+        () -> orderService.updateOrderStatus(code, OrderStatus.IN_PROGRESS.name(), null));
+    verify(orderRepository, never()).findAll();
   }
 
   @Test
@@ -183,7 +609,121 @@ class OrderServiceTest {
     when(orderRepository.findByCode(code)).thenReturn(null);
     Assertions.assertThrows(
         OrderException.class,
-        () -> orderService.updateOrderStatus(code, OrderStatus.IN_PROGRESS.name()));
+        () -> orderService.updateOrderStatus(code, OrderStatus.IN_PROGRESS.name(), null));
+  }
+
+  @Test
+  void claimNextOrder_skipsStaleTicketsAndClaimsTheNextQueuedOrder() {
+    KitchenTicket stale = new KitchenTicket("ORD-1", 1L, null, null);
+    KitchenTicket next = new KitchenTicket("ORD-2", 2L, null, null);
+    when(kitchenQueue.peek()).thenReturn(Optional.of(stale), Optional.of(next));
+    Order delivered = Order.builder().id(1L).code("ORD-1").status(OrderStatus.DELIVERED).build();
+    Order queued = Order.builder().id(2L).code("ORD-2").status(OrderStatus.QUEUED).build();
+    when(orderRepository.findByCode("ORD-1")).thenReturn(delivered);
+    when(orderRepository.findByCode("ORD-2")).thenReturn(queued);
+    when(orderRepository.saveAndFlush(queued)).thenReturn(queued);
+    OrderModel orderModel = new OrderModel();
+    when(orderMapper.toModel(queued)).thenReturn(orderModel);
+
+    assertThat(orderService.claimNextOrder()).isSameAs(orderModel);
+    assertThat(queued.getStatus()).isEqualTo(OrderStatus.IN_PROGRESS);
+    assertThat(delivered.getStatus()).isEqualTo(OrderStatus.DELIVERED);
+    verify(orderRepository, times(1)).saveAndFlush(any(Order.class));
+    verify(kitchenQueue).remove("ORD-1");
+    verify(kitchenQueue).sync(queued);
+  }
+
+  @Test
+  void claimNextOrder_keepsTheTicketIfTheKitchenSlotIsTaken() {
+    KitchenTicket ticket = new KitchenTicket("ORD-2", 2L, null, null);
+    when(kitchenQueue.peek()).thenReturn(Optional.of(ticket));
+    Order queued = Order.builder().id(2L).code("ORD-2").status(OrderStatus.QUEUED).build();
+    when(orderRepository.findByCode("ORD-2")).thenReturn(queued);
+    when(orderRepository.saveAndFlush(queued)).thenThrow(kitchenSlotViolation());
+
+    OrderException e = Assertions.assertThrows(OrderException.class, orderService::claimNextOrder);
+    assertThat(e.getMessage()).contains("already an order IN_PROGRESS");
+    assertThat(e.getReason()).isEqualTo(OrderException.Reason.KITCHEN_BUSY);
+    verify(kitchenQueue, never()).remove(anyString());
+    verify(kitchenQueue, never()).sync(any());
+    verify(orderMetrics, never()).updated(any(), any());
+  }
+
+  @Test
+  void claimNextOrder_shouldThrowIfKitchenIsBusyOrQueueIsEmpty() {
+    when(orderRepository.existsByStatus(OrderStatus.IN_PROGRESS)).thenReturn(true, false);
+    Assertions.assertThrows(OrderException.class, orderService::claimNextOrder);
+    verify(kitchenQueue, never()).peek();
+
+    when(kitchenQueue.peek()).thenReturn(Optional.empty());
+    when(orderRepository.findKitchenHead(OrderStatus.QUEUED, Limit.of(1))).thenReturn(List.of());
+    OrderException e = Assertions.assertThrows(OrderException.class, orderService::claimNextOrder);
+    assertThat(e.getMessage()).contains("not found");
+    assertThat(e.getReason()).isEqualTo(OrderException.Reason.QUEUE_EMPTY);
+  }
+
+  @Test
+  void claimNextOrder_readsTheHeadFromTheDatabaseOnceTheQueueIsExhausted() {
+    when(kitchenQueue.peek()).thenReturn(Optional.empty());
+    Order queued = Order.builder().id(3L).code("ORD-3").status(OrderStatus.QUEUED).build();
+    when(orderRepository.findKitchenHead(OrderStatus.QUEUED, Limit.of(1)))
+        .thenReturn(List.of(queued));
+    when(orderRepository.saveAndFlush(queued)).thenReturn(queued);
+    OrderModel orderModel = new OrderModel();
+    when(orderMapper.toModel(queued)).thenReturn(orderModel);
+
+    assertThat(orderService.claimNextOrder()).isSameAs(orderModel);
+    assertThat(queued.getStatus()).isEqualTo(OrderStatus.IN_PROGRESS);
+  }
+
+  @Test
+  void updateOrderStatus_otherConstraintViolation_isNotReportedAsKitchenBusy() {
+    Order order = Order.builder().id(1L).code("ORD-1").status(OrderStatus.QUEUED).build();
+    when(orderRepository.findByCode("ORD-1")).thenReturn(order);
+    DataIntegrityViolationException violation =
+        new DataIntegrityViolationException(
+            "Duplicate code",
+            new ConstraintViolationException(
+                "Duplicate code", new SQLException(), "PUBLIC.CONSTRAINT_INDEX_8"));
+    when(orderRepository.saveAndFlush(order)).thenThrow(violation);
+
+    DataIntegrityViolationException e =
+        Assertions.assertThrows(
+            DataIntegrityViolationException.class,
+            () -> orderService.updateOrderStatus("ORD-1", OrderStatus.IN_PROGRESS.name(), null));
+    assertThat(e).isSameAs(violation);
+  }
+
+  @Test
+  void updateOrderStatus_withinATransaction_hasSideEffectsOnlyOnceCommitted() {
+    Order order = Order.builder().id(1L).code("ORD-1").status(OrderStatus.IN_PROGRESS).build();
+    when(orderRepository.findByCode("ORD-1")).thenReturn(order);
+    when(orderRepository.saveAndFlush(order)).thenReturn(order);
+
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      orderService.updateOrderStatus("ORD-1", OrderStatus.READY.name(), null);
+      verify(kitchenQueue, never()).sync(any());
+      verify(orderMetrics, never()).updated(any(), any());
+      verify(orderEventBroadcaster, never()).publish(any());
+
+      TransactionSynchronizationManager.getSynchronizations()
+          .forEach(TransactionSynchronization::afterCommit);
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+    verify(kitchenQueue).sync(order);
+    verify(orderMetrics).updated(OrderStatus.IN_PROGRESS, OrderStatus.READY);
+    verify(orderEventBroadcaster).publish(any());
+  }
+
+  private static DataIntegrityViolationException kitchenSlotViolation() {
+    return new DataIntegrityViolationException(
+        "Kitchen slot taken",
+        new ConstraintViolationException(
+            "Kitchen slot taken",
+            new SQLException(),
+            "PUBLIC." + Order.KITCHEN_SLOT_CONSTRAINT + "_INDEX_8"));
   }
 
   // Helper method to create a sample RequestUserOrderModel
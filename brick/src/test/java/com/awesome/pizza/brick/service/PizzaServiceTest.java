@@ -2,12 +2,17 @@ package com.awesome.pizza.brick.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.awesome.pizza.brick.entity.Pizza;
 import com.awesome.pizza.brick.mapper.PizzaMapper;
 import com.awesome.pizza.brick.repository.PizzaRepository;
+import com.awesome.pizza.commons.model.IngredientModel;
 import com.awesome.pizza.commons.model.PizzaModel;
+import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,6 +22,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 @ExtendWith(MockitoExtension.class)
 class PizzaServiceTest {
@@ -50,9 +56,32 @@ class PizzaServiceTest {
         assertThat(result).isNotNull();
     }
 
+    @Test
+    void createPizzas_shouldResolveAllIngredientsOnceAndSaveInOneBatch() {
+        PizzaModel diavola = PizzaModel.builder().name("Diavola")
+                .ingredients(List.of(new IngredientModel(null, "Pomodoro"),
+                        new IngredientModel(null, "Salame piccante")))
+                .build();
+        pizzaModel.setIngredients(List.of(new IngredientModel(null, " pomodoro ")));
+        when(ingredientService.resolveIngredients(List.of(" pomodoro ", "Pomodoro", "Salame piccante")))
+                .thenReturn(List.of(new IngredientModel(1L, "pomodoro"),
+                        new IngredientModel(2L, "salame piccante")));
+        when(pizzaMapper.toEntity(any(PizzaModel.class))).thenReturn(new Pizza(), new Pizza());
+        when(pizzaRepository.saveAllAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(pizzaMapper.toModel(any(Pizza.class))).thenReturn(pizzaModel, diavola);
+
+        List<PizzaModel> result = pizzaService.createPizzas(List.of(pizzaModel, diavola));
+
+        assertThat(result).hasSize(2);
+        assertThat(pizzaModel.getIngredients()).extracting(IngredientModel::getId).containsExactly(1L);
+        assertThat(diavola.getIngredients()).extracting(IngredientModel::getId).containsExactly(1L, 2L);
+        verify(ingredientService, times(1)).resolveIngredients(any());
+        verify(pizzaRepository, times(1)).saveAllAndFlush(any());
+    }
+
     @Test
     void getAllPizzas_shouldReturnList() {
-        when(pizzaRepository.findAll()).thenReturn(List.of(new Pizza()));
+        when(pizzaRepository.findAllWithIngredients()).thenReturn(List.of(new Pizza()));
         when(pizzaMapper.toModel(any(Pizza.class))).thenReturn(pizzaModel);
         List<PizzaModel> result = pizzaService.getAllPizzas();
         assertThat(result).hasSize(1);
@@ -60,14 +89,14 @@ class PizzaServiceTest {
 
     @Test
     void getAllPizzas_shouldReturnEmptyList() {
-        when(pizzaRepository.findAll()).thenReturn(Collections.emptyList());
+        when(pizzaRepository.findAllWithIngredients()).thenReturn(Collections.emptyList());
         List<PizzaModel> result = pizzaService.getAllPizzas();
         assertThat(result).isEmpty();
     }
 
     @Test
     void getPizzasByIds_shouldReturnList() {
-        when(pizzaRepository.findAllById(any())).thenReturn(List.of(new Pizza()));
+        when(pizzaRepository.findAllWithIngredients()).thenReturn(List.of(new Pizza()));
         when(pizzaMapper.toModel(any(Pizza.class))).thenReturn(pizzaModel);
         List<PizzaModel> result = pizzaService.getPizzasByIds(List.of(1L));
         assertThat(result).hasSize(1);
@@ -75,11 +104,52 @@ class PizzaServiceTest {
 
     @Test
     void getPizzasByIds_shouldReturnEmptyList() {
-        when(pizzaRepository.findAllById(any())).thenReturn(Collections.emptyList());
+        when(pizzaRepository.findAllWithIngredients()).thenReturn(List.of(new Pizza()));
+        when(pizzaMapper.toModel(any(Pizza.class))).thenReturn(pizzaModel);
         List<PizzaModel> result = pizzaService.getPizzasByIds(List.of(99L));
         assertThat(result).isEmpty();
     }
 
+    @Test
+    void getMenu_shouldBeServedFromMemoryUntilTheMenuChanges() {
+        when(pizzaRepository.findAllWithIngredients()).thenReturn(List.of(new Pizza()));
+        when(pizzaMapper.toModel(any(Pizza.class))).thenReturn(pizzaModel);
+        MenuSnapshot first = pizzaService.getMenu();
+        assertThat(pizzaService.getMenu()).isSameAs(first);
+        verify(pizzaRepository, times(1)).findAllWithIngredients();
+
+        when(pizzaRepository.existsById(1L)).thenReturn(true);
+        pizzaService.deletePizza(1L);
+        MenuSnapshot second = pizzaService.getMenu();
+        assertThat(second.version()).isGreaterThan(first.version());
+        verify(pizzaRepository, times(2)).findAllWithIngredients();
+    }
+
+    @Test
+    void getMenu_shouldBeReloadedOnceOlderThanTheTtl() {
+        ReflectionTestUtils.setField(pizzaService, "menuTtl", Duration.ZERO);
+        when(pizzaRepository.findAllWithIngredients()).thenReturn(List.of(new Pizza()));
+        when(pizzaMapper.toModel(any(Pizza.class))).thenReturn(pizzaModel);
+        MenuSnapshot first = pizzaService.getMenu();
+        MenuSnapshot second = pizzaService.getMenu();
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.etag()).isEqualTo(first.etag());
+        verify(pizzaRepository, times(2)).findAllWithIngredients();
+    }
+
+    @Test
+    void menuEtag_shouldChangeWithTheMenuContent() {
+        PizzaModel margherita = PizzaModel.builder().id(1L).name("Margherita")
+                .price(BigDecimal.TEN).ingredients(List.of()).build();
+        PizzaModel repriced = PizzaModel.builder().id(1L).name("Margherita")
+                .price(BigDecimal.ONE).ingredients(List.of()).build();
+        MenuSnapshot menu = MenuSnapshot.of(1L, List.of(margherita));
+        assertThat(MenuSnapshot.of(2L, List.of(margherita)).etag()).isEqualTo(menu.etag());
+        assertThat(MenuSnapshot.of(2L, List.of(repriced)).etag()).isNotEqualTo(menu.etag());
+        assertThat(menu.etagFor(List.of(1L))).isNotEqualTo(menu.etagFor(List.of(2L)))
+                .isEqualTo(menu.etagFor(List.of(1L, 1L)));
+    }
+
     @Test
     void updatePizza_shouldReturnUpdatedPizza() {
         Pizza pizzaEntity = new Pizza();
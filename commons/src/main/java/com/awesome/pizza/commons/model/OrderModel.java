@@ -20,4 +20,7 @@ public class OrderModel {
   private LocalDateTime createdAt;
   @NotNull private UserModel user;
   private BigDecimal totalPrice;
+
+  /** Version of the order, to send back as If-Match to update the order only if unchanged */
+  private Long version;
 }
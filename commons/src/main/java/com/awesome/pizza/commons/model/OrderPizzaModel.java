@@ -1,6 +1,8 @@
 package com.awesome.pizza.commons.model;
 
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import java.math.BigDecimal;
 import lombok.*;
 
 /**
@@ -15,6 +17,10 @@ public class OrderPizzaModel {
   private Long idOrderPizza;
   @NotNull private Long pizzaId;
   private String descriptionUser;
+
+  /** Number of identical pizzas of the line, 1 if not given */
+  @Positive private Integer quantity;
   //
   private String namePizza;
+  private BigDecimal unitPrice;
 }
@@ -0,0 +1,25 @@
+package com.awesome.pizza.commons.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.*;
+
+/** Lightweight DTO of an order in a listing: the columns shown by a dashboard, without details. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderSummaryModel {
+  private String code;
+  private String status;
+  private LocalDateTime pickupFrom;
+  private LocalDateTime pickupTo;
+  private BigDecimal totalPrice;
+
+  /** Names of the ordered pizzas, in order, one per order line */
+  private List<String> pizzaNames;
+
+  /** Quantities of the ordered pizzas, one per entry of {@link #pizzaNames} */
+  private List<Integer> pizzaQuantities;
+}
@@ -0,0 +1,117 @@
+package com.awesome.pizza.commons.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Objects;
+
+/**
+ * Amount of money held as a count of the minor unit of its currency (cents for the euro), so that
+ * prices are added and multiplied with plain {@code long} arithmetic. {@link BigDecimal} is used
+ * only to convert from and to the amounts exchanged by the API.
+ *
+ * @param cents amount in the minor unit of the currency
+ * @param currency currency of the amount
+ */
+public record Money(long cents, Currency currency) {
+  /** Currency of the prices of Awesome Pizza */
+  public static final Currency EUR = Currency.getInstance("EUR");
+
+  /** Rounding applied when an amount has more decimals than its currency */
+  public static final RoundingMode ROUNDING = RoundingMode.HALF_UP;
+
+  public Money {
+    Objects.requireNonNull(currency, "currency");
+    if (currency.getDefaultFractionDigits() < 0)
+      throw new IllegalArgumentException("Currency without minor unit: " + currency);
+  }
+
+  /**
+   * Returns the given amount of euro cents.
+   *
+   * @param cents amount in cents
+   * @return the amount
+   */
+  public static Money ofCents(long cents) {
+    return new Money(cents, EUR);
+  }
+
+  /**
+   * Converts an amount in euro, rounded with {@link #ROUNDING} to the cent.
+   *
+   * @param amount amount in euro
+   * @return the amount
+   * @throws ArithmeticException if the amount does not fit in a long count of cents
+   */
+  public static Money of(BigDecimal amount) {
+    return of(amount, EUR, ROUNDING);
+  }
+
+  /**
+   * Converts an amount in the given currency, rounded to its minor unit.
+   *
+   * @param amount amount in the currency
+   * @param currency currency of the amount
+   * @param rounding rounding applied to the decimals beyond the minor unit
+   * @return the amount
+   * @throws ArithmeticException if the amount does not fit in a long count of minor units
+   */
+  public static Money of(BigDecimal amount, Currency currency, RoundingMode rounding) {
+    return new Money(
+        amount
+            .setScale(currency.getDefaultFractionDigits(), rounding)
+            .movePointRight(currency.getDefaultFractionDigits())
+            .longValueExact(),
+        currency);
+  }
+
+  /**
+   * Adds an amount in the same currency.
+   *
+   * @param other amount to add
+   * @return the sum
+   * @throws IllegalArgumentException if the currencies differ
+   * @throws ArithmeticException if the sum overflows
+   */
+  public Money plus(Money other) {
+    checkSameCurrency(other);
+    return new Money(Math.addExact(cents, other.cents), currency);
+  }
+
+  /**
+   * Multiplies the amount by a quantity.
+   *
+   * @param quantity quantity
+   * @return the product
+   * @throws ArithmeticException if the product overflows
+   */
+  public Money times(long quantity) {
+    return new Money(Math.multiplyExact(cents, quantity), currency);
+  }
+
+  /**
+   * Checks that the given amount is in the same currency as this one.
+   *
+   * @param other amount to check
+   * @throws IllegalArgumentException if the currencies differ
+   */
+  public void checkSameCurrency(Money other) {
+    if (!currency.equals(other.currency))
+      throw new IllegalArgumentException(
+          "Currency mismatch: " + currency + " and " + other.currency);
+  }
+
+  /**
+   * Converts the amount to a decimal with the scale of its currency, e.g. {@code 12.50}.
+   *
+   * @return the amount in the currency
+   */
+  public BigDecimal toBigDecimal() {
+    return BigDecimal.valueOf(cents, currency.getDefaultFractionDigits());
+  }
+
+  @Override
+  public String toString() {
+    return toBigDecimal().toPlainString() + " " + currency.getCurrencyCode();
+  }
+}
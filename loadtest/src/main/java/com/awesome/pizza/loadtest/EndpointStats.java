@@ -0,0 +1,77 @@
+package com.awesome.pizza.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latencies and outcomes of the measured requests of one endpoint. Latencies are recorded in
+ * microseconds from the time the request was scheduled, not from the time it was sent, so that
+ * the waiting caused by a slow server is counted. Requests without a response are recorded too, as
+ * failures (see {@link LoadTest}), so that they do not vanish from the percentiles.
+ */
+class EndpointStats {
+  private static final double[] PERCENTILES = {50, 90, 95, 99, 99.9, 99.99};
+
+  private final Histogram latencies = new ConcurrentHistogram(3);
+  private final AtomicLong succeeded = new AtomicLong();
+  private final AtomicLong rejected = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+
+  /**
+   * Records the outcome of a request.
+   *
+   * @param micros latency in microseconds
+   * @param statusCode HTTP status, or -1 if no response was received
+   */
+  void record(long micros, int statusCode) {
+    latencies.recordValue(micros);
+    if (statusCode >= 200 && statusCode < 400) succeeded.incrementAndGet();
+    else if (statusCode >= 400 && statusCode < 500) rejected.incrementAndGet();
+    else failed.incrementAndGet();
+  }
+
+  long count() {
+    return latencies.getTotalCount();
+  }
+
+  long failed() {
+    return failed.get();
+  }
+
+  /**
+   * Returns the report entry of the endpoint: counts by outcome and latency percentiles in
+   * milliseconds.
+   *
+   * @param seconds measured period, to compute the throughput
+   * @return report entry, in a stable key order
+   */
+  Map<String, Object> toReport(double seconds) {
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("requests", count());
+    report.put("requestsPerSecond", round(count() / seconds));
+    report.put("succeeded", succeeded.get());
+    report.put("rejected", rejected.get());
+    report.put("failed", failed.get());
+    Map<String, Object> millis = new LinkedHashMap<>();
+    millis.put("mean", round(latencies.getMean() / 1000));
+    for (double percentile : PERCENTILES)
+      millis.put(
+          "p" + format(percentile), round(latencies.getValueAtPercentile(percentile) / 1000d));
+    millis.put("max", round(latencies.getMaxValue() / 1000d));
+    report.put("latencyMillis", millis);
+    return report;
+  }
+
+  private static String format(double percentile) {
+    return percentile == Math.rint(percentile)
+        ? String.valueOf((long) percentile)
+        : String.valueOf(percentile).replace('.', '_');
+  }
+
+  private static double round(double value) {
+    return Math.round(value * 100) / 100d;
+  }
+}
@@ -0,0 +1,215 @@
+package com.awesome.pizza.loadtest;
+
+import com.awesome.pizza.brick.BrickApplication;
+import com.awesome.pizza.brick.entity.Pizza;
+import com.awesome.pizza.brick.repository.PizzaRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+
+/**
+ * HTTP load test of brick: starts the application on a random port with its in-memory H2 database,
+ * replays the order-mix scenario at a constant rate and writes the latency percentiles of every
+ * endpoint to a JSON report.
+ *
+ * <p>Requests are started on a fixed schedule whatever the response times (open loop), as real
+ * customers do not wait for each other: when brick cannot keep up, the queueing shows up in the
+ * latencies instead of silently lowering the load. Requests that get no response are not left out
+ * of the latencies either: every request has a timeout, requests dropped because too many are in
+ * flight are recorded as failures at that timeout, and requests still pending at the end of the run
+ * as failures at the time elapsed since they were scheduled.
+ *
+ * <p>Arguments are passed to brick, so both the {@code loadtest.*} options (see {@link
+ * LoadTestSettings}) and the application properties can be given, e.g. {@code --loadtest.rate=500
+ * --spring.threads.virtual.enabled=true}.
+ */
+@Slf4j
+public class LoadTest {
+  /** Requests waiting for a response beyond which the schedule is not kept and requests dropped. */
+  private static final int MAX_IN_FLIGHT = 20_000;
+
+  /** Quiet defaults for the application under test, overridden by the arguments. */
+  private static final Map<String, String> BRICK_DEFAULTS =
+      Map.of(
+          "server.port", "0",
+          "spring.jpa.show-sql", "false",
+          "logging.level.org.springframework.orm", "WARN",
+          "logging.level.org.springframework.jdbc", "WARN",
+          "logging.level.com.awesome.pizza.brick", "WARN");
+
+  private final LoadTestSettings settings;
+  private final Scenario scenario;
+  private final Operation[] schedule;
+  private final HttpClient client =
+      HttpClient.newBuilder()
+          .version(HttpClient.Version.HTTP_1_1)
+          .connectTimeout(Duration.ofSeconds(10))
+          .build();
+  private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+  private final Set<Pending> pending = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicLong unfinished = new AtomicLong();
+
+  LoadTest(LoadTestSettings settings, Scenario scenario) {
+    this.settings = settings;
+    this.scenario = scenario;
+    // One slot per unit of weight: a random slot picks an operation with the weighted probability
+    List<Operation> slots = new ArrayList<>();
+    settings
+        .mix()
+        .forEach((operation, weight) -> slots.addAll(Collections.nCopies(weight, operation)));
+    this.schedule = slots.toArray(Operation[]::new);
+  }
+
+  public static void main(String[] args) throws Exception {
+    try (ConfigurableApplicationContext brick =
+        new SpringApplicationBuilder(BrickApplication.class).run(withDefaults(args))) {
+      Environment environment = brick.getEnvironment();
+      LoadTestSettings settings = LoadTestSettings.from(environment);
+      List<Long> pizzaIds =
+          brick.getBean(PizzaRepository.class).findAll().stream().map(Pizza::getId).toList();
+      String baseUrl = "http://localhost:" + environment.getProperty("local.server.port");
+      Scenario scenario = new Scenario(baseUrl, pizzaIds, settings.requestTimeout());
+
+      Map<String, Object> report = new LoadTest(settings, scenario).run();
+      report.put(
+          "virtualThreads", environment.getProperty("spring.threads.virtual.enabled", "false"));
+
+      Files.createDirectories(settings.report().toAbsolutePath().getParent());
+      new ObjectMapper()
+          .writerWithDefaultPrettyPrinter()
+          .writeValue(settings.report().toFile(), report);
+      log.info("<<< Load test report written to {} >>>", settings.report().toAbsolutePath());
+    }
+  }
+
+  /**
+   * Runs the warmup and the measured period, then waits for the pending responses until they time
+   * out.
+   *
+   * @return report of the measured period
+   * @throws InterruptedException if interrupted while waiting for the pending responses
+   */
+  Map<String, Object> run() throws InterruptedException {
+    log.info(
+        "<<< Load test: {} requests/s, warmup {}, duration {}, mix {} >>>",
+        settings.rate(),
+        settings.warmup(),
+        settings.duration(),
+        settings.mix());
+    long interval = TimeUnit.SECONDS.toNanos(1) / settings.rate();
+    long start = System.nanoTime();
+    long measureFrom = start + settings.warmup().toNanos();
+    long end = measureFrom + settings.duration().toNanos();
+    for (long n = 0; ; n++) {
+      long scheduled = start + n * interval;
+      if (scheduled >= end) break;
+      long wait = scheduled - System.nanoTime();
+      if (wait > 0) LockSupport.parkNanos(wait);
+      send(scenario.next(pick()), scheduled, scheduled >= measureFrom);
+    }
+    // Every request times out by then, unless the client itself is stuck
+    long deadline = System.nanoTime() + settings.requestTimeout().toNanos() * 2;
+    while (inFlight.get() > 0 && System.nanoTime() < deadline) Thread.sleep(10);
+    for (Pending request : pending)
+      if (pending.remove(request)) {
+        unfinished.incrementAndGet();
+        record(request, System.nanoTime() - request.scheduled(), -1);
+      }
+    return report(settings.duration().toMillis() / 1000d);
+  }
+
+  private void send(Scenario.Call call, long scheduled, boolean measured) {
+    Pending request = new Pending(call.endpoint(), scheduled, measured);
+    if (inFlight.incrementAndGet() > MAX_IN_FLIGHT) {
+      inFlight.decrementAndGet();
+      // The request would not have been answered before its timeout
+      if (measured) dropped.incrementAndGet();
+      record(request, settings.requestTimeout().toNanos(), -1);
+      return;
+    }
+    pending.add(request);
+    client
+        .sendAsync(call.request(), HttpResponse.BodyHandlers.ofString())
+        .whenComplete(
+            (response, error) -> {
+              long elapsed = System.nanoTime() - scheduled;
+              if (Objects.nonNull(response)) call.onResponse().accept(response);
+              // Requests given up at the end of the run are already recorded
+              if (pending.remove(request))
+                record(request, elapsed, Objects.nonNull(response) ? response.statusCode() : -1);
+              inFlight.decrementAndGet();
+            });
+  }
+
+  private void record(Pending request, long elapsedNanos, int statusCode) {
+    if (!request.measured()) return;
+    stats
+        .computeIfAbsent(request.endpoint(), endpoint -> new EndpointStats())
+        .record(TimeUnit.NANOSECONDS.toMicros(elapsedNanos), statusCode);
+  }
+
+  private Operation pick() {
+    return schedule[ThreadLocalRandom.current().nextInt(schedule.length)];
+  }
+
+  private Map<String, Object> report(double seconds) {
+    Map<String, Object> endpoints = new TreeMap<>();
+    long requests = 0;
+    for (Map.Entry<String, EndpointStats> entry : stats.entrySet()) {
+      Map<String, Object> endpoint = entry.getValue().toReport(seconds);
+      endpoints.put(entry.getKey(), endpoint);
+      requests += entry.getValue().count();
+      log.info("<<< {}: {} >>>", entry.getKey(), endpoint);
+    }
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("targetRate", settings.rate());
+    report.put("achievedRate", Math.round(requests / seconds * 100) / 100d);
+    report.put("warmupSeconds", settings.warmup().toSeconds());
+    report.put("durationSeconds", settings.duration().toSeconds());
+    report.put("mix", settings.mix());
+    report.put("requestTimeoutSeconds", settings.requestTimeout().toSeconds());
+    report.put("dropped", dropped.get());
+    report.put("unfinished", unfinished.get());
+    report.put("endpoints", endpoints);
+    return report;
+  }
+
+  /** Prepends the defaults whose keys are not given as {@code --key=value} arguments. */
+  private static String[] withDefaults(String[] args) {
+    Map<String, String> arguments = new LinkedHashMap<>();
+    BRICK_DEFAULTS.forEach((key, value) -> arguments.put(key, "--" + key + "=" + value));
+    for (String arg : args) arguments.put(arg.replaceFirst("^--", "").split("=", 2)[0], arg);
+    return arguments.values().toArray(String[]::new);
+  }
+
+  /**
+   * A request sent and not answered yet.
+   *
+   * @param endpoint name the latency is recorded under
+   * @param scheduled time the request was scheduled at, in {@link System#nanoTime()} units
+   * @param measured whether the request belongs to the measured period
+   */
+  private record Pending(String endpoint, long scheduled, boolean measured) {}
+}
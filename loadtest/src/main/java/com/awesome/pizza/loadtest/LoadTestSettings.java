@@ -0,0 +1,66 @@
+package com.awesome.pizza.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import org.springframework.core.env.Environment;
+
+/**
+ * Options of a load test run, read from the {@code loadtest.*} properties of the environment
+ * (command line arguments such as {@code --loadtest.rate=500}).
+ *
+ * @param rate requests started per second, whatever the response times (open loop)
+ * @param warmup initial period whose requests are not measured
+ * @param duration measured period, after the warmup
+ * @param mix weight of every operation of the scenario
+ * @param requestTimeout time after which a request without response is given up as failed
+ * @param report path of the JSON report
+ */
+public record LoadTestSettings(
+    int rate,
+    Duration warmup,
+    Duration duration,
+    Map<Operation, Integer> mix,
+    Duration requestTimeout,
+    Path report) {
+  private static final String DEFAULT_MIX = "create:30,lookup:30,status:15,list:15,menu:10";
+
+  /**
+   * Reads the settings, with defaults for the missing ones.
+   *
+   * @param environment environment of the application under test
+   * @return settings of the run
+   * @throws IllegalArgumentException if the rate or the mix is invalid
+   */
+  public static LoadTestSettings from(Environment environment) {
+    int rate = environment.getProperty("loadtest.rate", Integer.class, 200);
+    if (rate < 1) throw new IllegalArgumentException("loadtest.rate must be positive");
+    return new LoadTestSettings(
+        rate,
+        environment.getProperty("loadtest.warmup", Duration.class, Duration.ofSeconds(10)),
+        environment.getProperty("loadtest.duration", Duration.class, Duration.ofSeconds(60)),
+        parseMix(environment.getProperty("loadtest.mix", DEFAULT_MIX)),
+        environment.getProperty("loadtest.request-timeout", Duration.class, Duration.ofSeconds(30)),
+        Path.of(environment.getProperty("loadtest.report", "target/loadtest-report.json")));
+  }
+
+  /**
+   * Parses a mix such as {@code create:30,lookup:30}; operations not listed are not run.
+   *
+   * @param mix comma separated operation:weight pairs
+   * @return weight of every listed operation
+   * @throws IllegalArgumentException if an operation is unknown or no weight is positive
+   */
+  static Map<Operation, Integer> parseMix(String mix) {
+    Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+    for (String entry : mix.split(",")) {
+      String[] pair = entry.trim().split(":");
+      if (pair.length != 2) throw new IllegalArgumentException("Invalid mix entry: " + entry);
+      int weight = Integer.parseInt(pair[1].trim());
+      if (weight > 0) weights.put(Operation.valueOf(pair[0].trim().toUpperCase()), weight);
+    }
+    if (weights.isEmpty()) throw new IllegalArgumentException("loadtest.mix has no operation");
+    return weights;
+  }
+}
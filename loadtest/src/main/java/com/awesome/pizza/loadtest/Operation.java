@@ -0,0 +1,18 @@
+package com.awesome.pizza.loadtest;
+
+/** Operations of the order-mix scenario replayed by the load test. */
+public enum Operation {
+  /** Places an order ({@code POST /api/orders}). */
+  CREATE,
+  /** Looks up an order placed during the run ({@code GET /api/orders/by-code}). */
+  LOOKUP,
+  /**
+   * Moves the kitchen forward: claims the next order ({@code POST /api/kitchen/next}), then marks
+   * it READY and DELIVERED ({@code PUT /api/orders/update-status}).
+   */
+  STATUS,
+  /** Lists the orders of the pickup day ({@code GET /api/orders?pickupDate=...}). */
+  LIST,
+  /** Reads the menu ({@code GET /api/pizzas}). */
+  MENU
+}
@@ -0,0 +1,181 @@
+package com.awesome.pizza.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Builds the requests of every {@link Operation} and keeps the little state they share: the codes
+ * of the orders placed during the run and the orders moving through the kitchen. Safe for
+ * concurrent use by the sender and the response callbacks.
+ */
+class Scenario {
+  private static final int KNOWN_CODES = 10_000;
+
+  private final String baseUrl;
+  private final List<Long> pizzaIds;
+  private final Duration requestTimeout;
+  private final LocalDate pickupDay = LocalDate.now().plusDays(1);
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  /** Ring of the codes of the last orders placed, for the lookups. */
+  private final AtomicReferenceArray<String> codes = new AtomicReferenceArray<>(KNOWN_CODES);
+
+  private final AtomicLong placed = new AtomicLong();
+  private final AtomicReference<String> inProgress = new AtomicReference<>();
+  private final Queue<String> ready = new ConcurrentLinkedQueue<>();
+
+  /**
+   * Creates the scenario.
+   *
+   * @param baseUrl base URL of the application under test
+   * @param pizzaIds ids of the pizzas of the menu
+   * @param requestTimeout timeout of every request
+   */
+  Scenario(String baseUrl, List<Long> pizzaIds, Duration requestTimeout) {
+    this.baseUrl = baseUrl;
+    this.pizzaIds = pizzaIds;
+    this.requestTimeout = requestTimeout;
+  }
+
+  /**
+   * Builds the next request of the given operation.
+   *
+   * @param operation operation to run
+   * @return the request, with the endpoint it is measured under
+   */
+  Call next(Operation operation) {
+    return switch (operation) {
+      case CREATE -> create();
+      case LOOKUP -> lookup();
+      case STATUS -> status();
+      case LIST ->
+          new Call(
+              "GET /api/orders?pickupDate",
+              get("/api/orders?limit=50&pickupDate=" + pickupDay.atStartOfDay()),
+              response -> {});
+      case MENU -> new Call("GET /api/pizzas", get("/api/pizzas"), response -> {});
+    };
+  }
+
+  private Call create() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    LocalDateTime pickupFrom = pickupDay.atTime(12, 0).plusMinutes(random.nextInt(600));
+    StringBuilder pizzas = new StringBuilder();
+    for (int i = random.nextInt(1, 4); i > 0; i--)
+      pizzas
+          .append(pizzas.isEmpty() ? "" : ",")
+          .append("{\"pizzaId\":")
+          .append(pizzaIds.get(random.nextInt(pizzaIds.size())))
+          .append('}');
+    String body =
+        """
+        {"user":{"name":"Load test","pickupFrom":"%s","pickupTo":"%s"},"pizzas":[%s]}"""
+            .formatted(pickupFrom, pickupFrom.plusMinutes(30), pizzas);
+    return new Call(
+        "POST /api/orders",
+        request("/api/orders")
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build(),
+        response -> {
+          String code = code(response);
+          if (Objects.nonNull(code))
+            codes.set((int) (placed.getAndIncrement() % KNOWN_CODES), code);
+        });
+  }
+
+  private Call lookup() {
+    long known = Math.min(placed.get(), KNOWN_CODES);
+    String code =
+        known == 0 ? null : codes.get((int) ThreadLocalRandom.current().nextLong(known));
+    // Nothing placed yet: place an order instead
+    if (Objects.isNull(code)) return create();
+    return new Call(
+        "GET /api/orders/by-code", get("/api/orders/by-code?code=" + encode(code)), response -> {});
+  }
+
+  /**
+   * One step of the kitchen: delivers a READY order if any, otherwise marks the order claimed
+   * previously as READY, otherwise claims the next order. A claim while another one is in flight
+   * is rejected by brick with 400 (kitchen busy), as it would be for concurrent pizzaioli.
+   */
+  private Call status() {
+    String delivered = ready.poll();
+    if (Objects.nonNull(delivered)) return updateStatus(delivered, "DELIVERED", response -> {});
+    String baked = inProgress.getAndSet(null);
+    if (Objects.nonNull(baked))
+      return updateStatus(
+          baked,
+          "READY",
+          response -> {
+            if (response.statusCode() == 200) ready.add(baked);
+          });
+    return new Call(
+        "POST /api/kitchen/next",
+        request("/api/kitchen/next")
+            .POST(HttpRequest.BodyPublishers.noBody())
+            .build(),
+        response -> {
+          String code = code(response);
+          if (Objects.nonNull(code)) inProgress.set(code);
+        });
+  }
+
+  private Call updateStatus(String code, String status, Consumer<HttpResponse<String>> onResponse) {
+    return new Call(
+        "PUT /api/orders/update-status",
+        request("/api/orders/update-status?code=" + encode(code) + "&status=" + status)
+            .PUT(HttpRequest.BodyPublishers.noBody())
+            .build(),
+        onResponse);
+  }
+
+  private HttpRequest get(String path) {
+    return request(path).GET().build();
+  }
+
+  private HttpRequest.Builder request(String path) {
+    return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(requestTimeout);
+  }
+
+  /** Code of the order returned by a successful response, null otherwise. */
+  private String code(HttpResponse<String> response) {
+    if (response.statusCode() != 200) return null;
+    try {
+      JsonNode code = objectMapper.readTree(response.body()).get("code");
+      return Objects.nonNull(code) ? code.asText() : null;
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
+  private static String encode(String value) {
+    return URLEncoder.encode(value, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * A request of the scenario.
+   *
+   * @param endpoint name the latency is recorded under
+   * @param request request to send
+   * @param onResponse callback updating the scenario state with the response
+   */
+  record Call(String endpoint, HttpRequest request, Consumer<HttpResponse<String>> onResponse) {}
+}